@@ -0,0 +1,172 @@
+package com.sevenight.coldcrayon.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import com.sevenight.coldcrayon.socket.service.InboundRateLimiter;
+import com.sevenight.coldcrayon.socket.service.LocalRoomBus;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.*;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 웹소켓 메시지 한 건을 처리하기까지의 비용 (user-004)
+ * legacy  : 예전 handleTextMessage 처럼 메시지마다 ObjectMapper 를 만들고 전체를 Map 으로 읽은 뒤 type 을 if 문으로 찾는다.
+ *           (예전에는 여기에 Redis 방 조회가 더 붙었지만 벤치마크에서는 빼고 잰다.)
+ * dispatch: 지금 WebSocketHandler.handleTextMessage 로 중계 메시지(gameAlert)를 처리한다. (type 만 읽고 처리기 표에서 찾는다.)
+ * 메시지당 할당량은 -prof gc 로 본다. ./gradlew jmh -Pjmh="MessageDispatchBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageDispatchBenchmark {
+
+    private static final String ROOM_IDX = "1";
+
+    // 예전 처리기가 type 을 비교하던 순서
+    private static final String[] LEGACY_TYPES = {
+            "userIn", "chat", "draw", "roomUserCnt", "gameMode", "gameTurn", "gameTime",
+            "gameAlert", "gameStart", "nextRound", "roundOver", "gameOver", "clockSync", "roomSnapshot"};
+
+    private WebSocketHandler handler;
+    private RoomBroadcaster roomBroadcaster;
+    private WebSocketSession session;
+    private TextMessage message;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        roomBroadcaster = new RoomBroadcaster(objectMapper, new LocalRoomBus(), 256, OverflowPolicy.COALESCE, 1, 5000, 512);
+        // 속도 제한에 걸리지 않도록 넉넉하게
+        InboundRateLimiter rateLimiter = new InboundRateLimiter(1e9, Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE);
+        // gameAlert 처리에 쓰지 않는 서비스는 비워 둔다.
+        handler = new WebSocketHandler(null, null, null, null, null, null,
+                roomBroadcaster, null, objectMapper, null, null, null, null, rateLimiter, null, null, null);
+        session = new BenchmarkSession();
+        session.getAttributes().put(HandShakeInterceptor.ROOM_ATTRIBUTE, ROOM_IDX);
+        message = new TextMessage("{\"type\":\"gameAlert\",\"message\":\"그림을 그릴 차례입니다.\",\"author\":\"admin\","
+                + "\"userIdx\":\"12\",\"nowRound\":\"3\",\"roomIdx\":\"" + ROOM_IDX + "\"}");
+    }
+
+    @TearDown
+    public void tearDown() {
+        roomBroadcaster.shutdown();
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, String> jsonMessage = objectMapper.readValue(message.getPayload(), new TypeReference<Map<String, String>>() {
+        });
+        String type = jsonMessage.get("type");
+        for (String candidate : LEGACY_TYPES) {
+            if (type.equals(candidate)) {
+                blackhole.consume(jsonMessage);
+                return;
+            }
+        }
+    }
+
+    @Benchmark
+    public void dispatch() throws Exception {
+        handler.handleTextMessage(session, message);
+    }
+
+    // 속성만 들고 있는 세션 (보내기는 하지 않는다.)
+    static class BenchmarkSession implements WebSocketSession {
+
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        @Override
+        public String getId() {
+            return "benchmark";
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/api/" + ROOM_IDX);
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
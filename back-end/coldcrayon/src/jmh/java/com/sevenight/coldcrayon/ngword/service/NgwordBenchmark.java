@@ -0,0 +1,116 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import com.sevenight.coldcrayon.ngword.repository.NgwordRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 금지어 필터 비용 (user-017)
+ * 1. filterClean / filterDirty: 채팅 한 건을 거르는 시간 (금지어가 없는 메시지, 띄어 쓴 금지어가 들어간 메시지)
+ * 2. build: 금지어 목록 전체를 정규화하고 automaton 을 만드는 시간 (reload 한 번)
+ * 금지어는 한글 2~4 글자, 영문 4~8 글자를 섞어서 고정 seed 로 만듭니다.
+ * ./gradlew jmh -Pjmh="NgwordBenchmark -p patterns=10000"
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NgwordBenchmark {
+
+    private static final String CLEAN = "오늘 그림 진짜 잘 그렸다 ㅋㅋㅋ 다음 라운드도 화이팅 해봐요 good game";
+
+    @Param({"10000", "50000"})
+    private int patterns;
+
+    private List<String> words;
+    private NgwordServiceImpl ngwordService;
+    private Path wordFile;
+    private String dirty;
+
+    @Setup
+    public void setUp() throws Exception {
+        words = generate(patterns, new Random(42));
+        wordFile = Files.createTempFile("ngword", ".txt");
+        Files.write(wordFile, words, StandardCharsets.UTF_8);
+
+        NgwordRepository repository = (NgwordRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{NgwordRepository.class}, (proxy, method, args) -> Collections.emptyList());
+        ngwordService = new NgwordServiceImpl(repository, wordFile.toUri().toString());
+        ngwordService.init();
+        // 다른 스레드에서 만드므로 다 만들어질 때까지 기다린다.
+        long until = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        while (ngwordService.getStats().getPatterns() == 0) {
+            if (System.currentTimeMillis() > until) {
+                throw new IllegalStateException("금지어 automaton 을 만들지 못했습니다.");
+            }
+            Thread.sleep(10);
+        }
+
+        // 금지어 하나를 글자마다 띄어 써서 메시지 가운데에 넣는다.
+        String banned = String.join(" ", words.get(words.size() / 2).split(""));
+        dirty = "오늘 그림 진짜 " + banned + " 잘 그렸다 ㅋㅋㅋ";
+        if (ngwordService.filter(dirty).equals(dirty)) {
+            throw new IllegalStateException("금지어가 걸러지지 않았습니다. " + dirty);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ngwordService.shutdown();
+        Files.deleteIfExists(wordFile);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String filterClean() {
+        return ngwordService.filter(CLEAN);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String filterDirty() {
+        return ngwordService.filter(dirty);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public NgwordAutomaton build() {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String word : words) {
+            normalized.add(NgwordNormalizer.normalize(word).text());
+        }
+        return NgwordAutomaton.build(normalized);
+    }
+
+    private static List<String> generate(int count, Random random) {
+        Set<String> generated = new LinkedHashSet<>();
+        StringBuilder builder = new StringBuilder();
+        while (generated.size() < count) {
+            builder.setLength(0);
+            if (random.nextBoolean()) {
+                int length = 2 + random.nextInt(3);
+                for (int i = 0; i < length; i++) {
+                    builder.append((char) (0xAC00 + random.nextInt(0xD7A4 - 0xAC00)));
+                }
+            } else {
+                int length = 4 + random.nextInt(5);
+                for (int i = 0; i < length; i++) {
+                    builder.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            generated.add(builder.toString());
+        }
+        return new ArrayList<>(generated);
+    }
+}
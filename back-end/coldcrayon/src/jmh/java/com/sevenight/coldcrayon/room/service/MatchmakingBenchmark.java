@@ -0,0 +1,130 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.game.entity.GameCategory;
+import com.sevenight.coldcrayon.room.dto.LobbyRoomDto;
+import com.sevenight.coldcrayon.room.dto.MatchStatsDto;
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.socket.service.LocalRoomBus;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 빠른 시작 대기열 처리량 (user-024)
+ * 1. 8 스레드가 서로 다른 유저로 enqueue 하고 바로 cancel 합니다. (요청을 받는 쪽 처리량)
+ *    batch 는 한 번에 카테고리마다 max-batch 명까지만 방에 넣으므로, 취소하지 않으면 대기열이 끝없이 늘어납니다.
+ * 2. 그 사이 batch 스레드는 실제 주기대로 돌면서 취소 전에 잡힌 유저를 방에 넣습니다.
+ *    Redis 대신 6 명까지 들어가는 메모리 방으로 RoomService 를 바꿔 끼우고, 로비에는 열린 방이 없다고 답합니다.
+ * iteration 이 끝날 때마다 매칭 수와 대기 시간 분위수(p50/p90/p99)를 출력합니다.
+ * ./gradlew jmh -Pjmh="MatchmakingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class MatchmakingBenchmark {
+
+    private static final int ROOM_MAX = 6;
+    private static final GameCategory[] CATEGORIES = GameCategory.values();
+    private static final AtomicLong NEXT_USER_BASE = new AtomicLong();
+
+    private RoomBroadcaster roomBroadcaster;
+    private LobbyIndex lobbyIndex;
+    private MatchmakingService matchmakingService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        roomBroadcaster = new RoomBroadcaster(new ObjectMapper(), new LocalRoomBus(), 256, OverflowPolicy.COALESCE, 1, 5000, 512);
+        ChannelRegistry channelRegistry = new ChannelRegistry(roomBroadcaster, 10000, 1048576);
+        lobbyIndex = new LobbyIndex(null, null, channelRegistry, TimeUnit.HOURS.toMillis(1), 50) {
+            @Override
+            public List<LobbyRoomDto> findOpenRooms(GameCategory gameCategory, int limit) {
+                return Collections.emptyList();
+            }
+        };
+        matchmakingService = new MatchmakingService(memoryRooms(), lobbyIndex, channelRegistry, 300, 10_000_000, 500, 50);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        MatchStatsDto stats = matchmakingService.getStats();
+        System.out.printf("%nenqueued = %d, cancelled = %d, matched = %d, roomsCreated = %d, wait p50/p90/p99/max = %d/%d/%d/%d ms%n",
+                stats.getEnqueued(), stats.getCancelled(), stats.getMatched(), stats.getRoomsCreated(),
+                stats.getWaitP50Millis(), stats.getWaitP90Millis(), stats.getWaitP99Millis(), stats.getWaitMaxMillis());
+        matchmakingService.shutdown();
+        lobbyIndex.shutdown();
+        roomBroadcaster.shutdown();
+    }
+
+    // 스레드마다 겹치지 않는 userIdx
+    @State(Scope.Thread)
+    public static class Users {
+        private long next;
+        private int category;
+
+        @Setup
+        public void setUp() {
+            next = NEXT_USER_BASE.getAndIncrement() * 1_000_000_000L;
+        }
+
+        UserDto nextUser() {
+            return UserDto.builder().userIdx(next++).build();
+        }
+
+        GameCategory nextCategory() {
+            category = (category + 1) % CATEGORIES.length;
+            return CATEGORIES[category];
+        }
+    }
+
+    @Benchmark
+    public Map<String, Object> enqueueAndCancel(Users users) {
+        UserDto userDto = users.nextUser();
+        matchmakingService.enqueue(userDto, users.nextCategory());
+        return matchmakingService.cancel(userDto);
+    }
+
+    // 방을 만들면 ROOM_MAX 명까지 들어가고, 그 뒤로는 full 로 답하는 RoomService
+    private static RoomService memoryRooms() {
+        AtomicLong nextRoom = new AtomicLong();
+        Map<String, AtomicInteger> rooms = new ConcurrentHashMap<>();
+        return (RoomService) Proxy.newProxyInstance(RoomService.class.getClassLoader(), new Class<?>[]{RoomService.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "saveRoom": {
+                            String roomIdx = String.valueOf(nextRoom.incrementAndGet());
+                            rooms.put(roomIdx, new AtomicInteger(1));
+                            Map<String, Object> created = new HashMap<>();
+                            created.put("status", "success");
+                            created.put("roomIdx", roomIdx);
+                            return created;
+                        }
+                        case "enterRoom": {
+                            AtomicInteger roomNow = rooms.get((String) args[1]);
+                            boolean joined = roomNow != null && roomNow.incrementAndGet() <= ROOM_MAX;
+                            return RoomRosterDto.builder()
+                                    .status(joined ? "success" : "fail")
+                                    .reason(joined ? "joined" : "full")
+                                    .build();
+                        }
+                        case "changeRoomOption":
+                            return 1;
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
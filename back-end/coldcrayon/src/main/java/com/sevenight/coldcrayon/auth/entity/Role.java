@@ -6,7 +6,9 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum Role {
-    MEMBER("ROLE_MEMBER", "일반 사용자");
+    MEMBER("ROLE_MEMBER", "일반 사용자"),
+    // 운영용 API (금지어 다시 읽기 등)를 쓸 수 있다. (user_role 을 DB 에서 직접 바꾼다.)
+    ADMIN("ROLE_ADMIN", "관리자");
 
     private final String key;
     private final String title;
@@ -1,6 +1,7 @@
 package com.sevenight.coldcrayon.auth.service;
 
 import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.auth.entity.Role;
 import com.sevenight.coldcrayon.user.entity.User;
 import com.sevenight.coldcrayon.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -81,6 +82,12 @@ public class AuthService {
         return UserDto.of(userRepository.findByUserEmail(email));
     }
 
+    // 운영용 API 를 쓸 수 있는 유저인지 (토큰이 아니라 DB 의 user_role 로 확인합니다)
+    public boolean isAdmin(String token) {
+        User user = userRepository.findByUserEmail(tokenservice.getEmail(token));
+        return user != null && user.getRole() == Role.ADMIN;
+    }
+
     // 본인의 모든 정보가 필요할때 사용합니다
     public UserDto selectOneMemberAllInfo (String token){
         String email = tokenservice.getEmail(token);
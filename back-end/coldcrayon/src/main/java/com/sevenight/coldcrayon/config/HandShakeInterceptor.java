@@ -1,17 +1,48 @@
 package com.sevenight.coldcrayon.config;
 
+import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.auth.service.AuthService;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import com.sevenight.coldcrayon.room.entity.RoomStatus;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.util.HeaderUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+// 업그레이드 전에 한 번만 인증하고, 유저 정보를 세션에 저장한다. (이후 메시지는 authorization 을 다시 확인하지 않는다.)
+// 토큰은 Authorization 헤더, accesstoken 쿠키, token 쿼리 순서로 찾는다. (브라우저 WebSocket 은 헤더를 못 넣는다.)
+// 가득 찼거나 게임중인 방은 이미 그 방 유저가 아니면 업그레이드 전에 거절한다.
+// 다중 채널 연결(/ws)은 인증만 하고, 방 입장 확인은 방을 subscribe 할 때 한다.
+@Slf4j
 public class HandShakeInterceptor implements HandshakeInterceptor {
+
+    public static final String PRINCIPAL_ATTRIBUTE = "principal";
+    // 방 주소로 접속한 세션의 방 (다중 채널 연결은 subscribe 할 때 바뀐다.)
+    public static final String ROOM_ATTRIBUTE = "roomIdx";
+
+    private static final String TOKEN_COOKIE = "accesstoken";
+    private static final String TOKEN_PARAM = "token";
+
     private final WebSocketHandler webSocketHandler;
+    private final AuthService authService;
+    private final RoomStateCache roomStateCache;
 
-    public HandShakeInterceptor(WebSocketHandler webSocketHandler) {
+    public HandShakeInterceptor(WebSocketHandler webSocketHandler, AuthService authService, RoomStateCache roomStateCache) {
         this.webSocketHandler = webSocketHandler;
+        this.authService = authService;
+        this.roomStateCache = roomStateCache;
     }
 
     private boolean isNumeric(String str) {
@@ -23,24 +54,79 @@ public class HandShakeInterceptor implements HandshakeInterceptor {
         String path = request.getURI().getPath();
         String roomId = path.substring(path.lastIndexOf('/') + 1);
 
+        UserDto userDto = authenticate(request);
+        if (userDto == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
 
-//        Map<String, List<WebSocketSession>> sessionsMap = webSocketHandler.getSessionsMap();
-//        // sessionsMap에 접근하여 원하는 작업 수행
-//        List<WebSocketSession> sessions = sessionsMap.getOrDefault(roomId, Collections.emptyList());
-//        System.out.println("Sessions for roomId " + roomId + ":");
-//        for (WebSocketSession session : sessions) {
-//            System.out.println(session.getId());
-//        }
+        attributes.put(PRINCIPAL_ATTRIBUTE, userDto);
+        if (ChannelRegistry.isMuxPath(path)) {
+            return true;
+        }
 
+        HttpStatus rejected = checkAdmission(roomStateCache, userDto, roomId);
+        if (rejected != null) {
+            response.setStatusCode(rejected);
+            return false;
+        }
+        attributes.put(ROOM_ATTRIBUTE, roomId);
+        return true;
+    }
 
+    // 들어갈 수 있는 방이면 null, 아니면 거절 이유
+    public static HttpStatus checkAdmission(RoomStateCache roomStateCache, UserDto userDto, String roomId) {
+        Optional<RoomHash> roomHashOptional = roomStateCache.findRoom(roomId);
+        if (roomHashOptional.isEmpty()) {
+            return HttpStatus.NOT_FOUND;
+        }
 
-        // 숫자인 경우 연결 거부
-//        if (isNumeric(roomId)) {
-//            response.setStatusCode(HttpStatus.FORBIDDEN);
-//            return false;
-//        }
+        // 이미 방 유저면 (새로고침, 재접속) 가득 찼거나 게임중이어도 들어온다.
+        RoomHash roomHash = roomHashOptional.get();
+        boolean member = roomStateCache.findUser(userDto.getUserIdx())
+                .filter(userHash -> roomId.equals(userHash.getRoomIdx()))
+                .isPresent();
+        if (!member && (roomHash.getRoomStatus() == RoomStatus.Playing || roomHash.getRoomNow() >= roomHash.getRoomMax())) {
+            log.debug("입장할 수 없는 방입니다. roomIdx = {}, status = {}, roomNow = {}", roomId, roomHash.getRoomStatus(), roomHash.getRoomNow());
+            return HttpStatus.CONFLICT;
+        }
+        return null;
+    }
 
-        return true;
+    private UserDto authenticate(ServerHttpRequest request) {
+        String token = HeaderUtil.getAccessTokenString(findAuthorization(request));
+        if (token == null) {
+            return null;
+        }
+        try {
+            return authService.selectOneMember(token);
+        } catch (RuntimeException e) {
+            log.debug("WebSocket 인증 실패 e = {}", e.toString());
+            return null;
+        }
+    }
+
+    // "Bearer xxx" 형태
+    private String findAuthorization(ServerHttpRequest request) {
+        String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (header != null) {
+            return header;
+        }
+
+        List<String> cookieHeaders = request.getHeaders().get(HttpHeaders.COOKIE);
+        if (cookieHeaders != null) {
+            for (String cookieHeader : cookieHeaders) {
+                for (String cookie : cookieHeader.split(";")) {
+                    int eq = cookie.indexOf('=');
+                    if (eq > 0 && TOKEN_COOKIE.equals(cookie.substring(0, eq).trim())) {
+                        return URLDecoder.decode(cookie.substring(eq + 1).trim(), StandardCharsets.UTF_8);
+                    }
+                }
+            }
+        }
+
+        String param = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst(TOKEN_PARAM);
+        return param == null ? null : URLDecoder.decode(param, StandardCharsets.UTF_8);
     }
 
     @Override
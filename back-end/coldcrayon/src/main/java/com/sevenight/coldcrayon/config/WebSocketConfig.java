@@ -1,13 +1,24 @@
 package com.sevenight.coldcrayon.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sevenight.coldcrayon.auth.service.AuthService;
-import com.sevenight.coldcrayon.game.service.GameService;
+import com.sevenight.coldcrayon.game.service.RoundLifecycleService;
 import com.sevenight.coldcrayon.game.service.SaveImageServiceImpl;
-import com.sevenight.coldcrayon.room.repository.RoomRepository;
+import com.sevenight.coldcrayon.ngword.service.NgwordService;
 import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.room.service.RoomDiffPublisher;
+import com.sevenight.coldcrayon.room.service.RoomPresenceService;
 import com.sevenight.coldcrayon.room.service.RoomService;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.socket.service.DrawBatcher;
+import com.sevenight.coldcrayon.socket.service.InboundRateLimiter;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.SessionResumeService;
 import com.sevenight.coldcrayon.user.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -24,18 +35,34 @@ public class WebSocketConfig implements WebSocketConfigurer {
     private final WebSocketCustomService webSocketCustomService;
     private final RoomService roomService;
     private final UserService userService;
-    private final GameService gameService;
     private final AuthService authService;
-    private final RoomRepository roomRepository;
+    private final RoomStateCache roomStateCache;
     private final SaveImageServiceImpl saveImageService;
     private final UserHashRepository userHashRepository;
+    private final RoomBroadcaster roomBroadcaster;
+    private final DrawBatcher drawBatcher;
+    private final ObjectMapper objectMapper;
+    private final RoundLifecycleService roundLifecycleService;
+    private final SessionResumeService sessionResumeService;
+    private final RoomPresenceService roomPresenceService;
+    private final RoomCommandExecutor roomCommandExecutor;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final NgwordService ngwordService;
+    private final RoomDiffPublisher roomDiffPublisher;
+    private final ChannelRegistry channelRegistry;
+
+    // 웹소켓을 열 수 있는 프론트 주소 (쿠키로 인증하므로 다른 사이트에서 연결을 열지 못하게 막는다.)
+    @Value("${socket.allowed-origins:https://getyourcrayon.co.kr}")
+    private String[] allowedOrigins;
+
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        WebSocketHandler webSocketHandler = new WebSocketHandler(webSocketCustomService, roomService, userService,
-                gameService, authService, roomRepository,
-                saveImageService, userHashRepository
+        WebSocketHandler webSocketHandler = new WebSocketHandler(webSocketCustomService, roomService, userService, roomStateCache,
+                saveImageService, userHashRepository, roomBroadcaster, drawBatcher, objectMapper,
+                roundLifecycleService, sessionResumeService, roomPresenceService,
+                roomCommandExecutor, inboundRateLimiter, ngwordService, roomDiffPublisher, channelRegistry
         );
-        registry.addHandler(webSocketHandler, "/{roomId}").setAllowedOrigins("*").addInterceptors(new HandShakeInterceptor(webSocketHandler));
+        registry.addHandler(webSocketHandler, "/" + ChannelRegistry.MUX_ENDPOINT, "/{roomId}").setAllowedOrigins(allowedOrigins).addInterceptors(new HandShakeInterceptor(webSocketHandler, authService, roomStateCache));
     }
 
     @Bean
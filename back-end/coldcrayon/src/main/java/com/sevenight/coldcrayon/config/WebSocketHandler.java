@@ -1,38 +1,60 @@
 package com.sevenight.coldcrayon.config;
 
 import com.amazonaws.Request;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.nimbusds.openid.connect.sdk.claims.UserInfo;
 import com.sevenight.coldcrayon.auth.dto.UserDto;
-import com.sevenight.coldcrayon.auth.service.AuthService;
 import com.sevenight.coldcrayon.game.dto.*;
 import com.sevenight.coldcrayon.game.entity.GameCategory;
-import com.sevenight.coldcrayon.game.service.GameService;
+import com.sevenight.coldcrayon.game.service.RoundLifecycleService;
 import com.sevenight.coldcrayon.game.service.SaveImageServiceImpl;
+import com.sevenight.coldcrayon.ngword.service.NgwordService;
 import com.sevenight.coldcrayon.room.dto.RoomDto;
 import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
 import com.sevenight.coldcrayon.room.dto.UserHashResponseDto;
 import com.sevenight.coldcrayon.room.entity.RoomHash;
 import com.sevenight.coldcrayon.room.entity.UserHash;
-import com.sevenight.coldcrayon.room.repository.RoomRepository;
 import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.room.service.RoomDiffPublisher;
+import com.sevenight.coldcrayon.room.service.RoomPresenceService;
 import com.sevenight.coldcrayon.room.service.RoomService;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
+import com.sevenight.coldcrayon.socket.dto.DrawEvent;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import com.sevenight.coldcrayon.socket.entity.RateBudget;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.socket.service.DrawBatcher;
+import com.sevenight.coldcrayon.socket.service.InboundRateLimiter;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.SessionResumeService;
+import com.sevenight.coldcrayon.socket.service.StrokeCodec;
 import com.sevenight.coldcrayon.theme.entity.ThemeCategory;
 import com.sevenight.coldcrayon.user.dto.ResponseDto;
 import com.sevenight.coldcrayon.user.entity.User;
 import com.sevenight.coldcrayon.user.repository.UserRepository;
 import com.sevenight.coldcrayon.user.service.UserService;
 import com.sevenight.coldcrayon.util.HeaderUtil;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.MultiValueMap;
 import org.springframework.validation.ObjectError;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.util.*;
@@ -40,9 +62,8 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
-public class WebSocketHandler extends TextWebSocketHandler {
-    // ConcurrentHashMap: 여러 스레드가 동시에 접근해도 안전하게 동작
-    private final Map<String, List<WebSocketSession>> sessionsMap = new ConcurrentHashMap<>();
+public class WebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+    // 방 별 세션 목록과 송신 큐는 RoomBroadcaster가 관리
 
 //    private final LinkedHashMap<String, UserInfo> userInfoMap = new LinkedHashMap<>();      // session.id, userInfo
 //    private Map<Long, Integer> userScoreMap = new ConcurrentHashMap<>();
@@ -54,32 +75,76 @@ public class WebSocketHandler extends TextWebSocketHandler {
 //    // 게임 정보를 담을 Map타입으로 하나 만들어서 해당 정보로 공유하자
 //    private Map<String, String> gameInfoMap = new ConcurrentHashMap<>();
 
-    // 타이머
-    private Map<String, ScheduledFuture<?>> timers = new ConcurrentHashMap<>();
+    // type, 메시지 처리기
+    private final Map<String, MessageHandler> handlers = new HashMap<>();
+
+    // 금지어를 확인하는 chat 필드 (일반 채팅, 정답 입력)
+    private static final List<String> CHAT_TEXT_FIELDS = List.of("message", "content");
+
+    // 다중 채널 연결(/ws)에서 방을 구독하지 않아도 처리하는 메시지
+    private static final Set<String> CHANNEL_COMMANDS = Set.of("subscribe", "unsubscribe");
+    // 로비 구독 응답에 같이 보내는 방 수
+    private static final int LOBBY_FIRST_PAGE = 20;
+    private static final CloseStatus DRAW_ACTION_OVERRUN = new CloseStatus(4008, "too many draw actions");
+
+    // DB, Redis, 외부 API 를 거치는 느린 명령: WebSocket 스레드가 아니라 방 대기열에서 순서대로 실행한다.
+    // (chat, draw, clockSync 같은 중계 메시지는 바로 처리)
+    private static final Set<String> ROOM_COMMANDS = Set.of(
+            "userIn", "roomUserCnt", "gameMode", "gameTurn", "roomSnapshot", "gameStart", "nextRound", "gameOver",
+            "roundPause", "roundResume", "roundExtend");
+
+    // 메시지마다 ObjectMapper 를 만들지 않도록 미리 만들어 둔 reader
+    private final JsonFactory jsonFactory;
+    private final ObjectReader messageReader;
 
 
     // 외부 서비스 주입
     private final WebSocketCustomService webSocketCustomService;
     private final RoomService roomService;
     private final UserService userService;
-    private final GameService gameService;
-    private final AuthService authService;
-    private final RoomRepository roomRepository;
+    private final RoomStateCache roomStateCache;
     private final SaveImageServiceImpl saveImageService;
     private final UserHashRepository userHashRepository;
-
-
-    public WebSocketHandler(WebSocketCustomService webSocketCustomService, RoomService roomService, UserService userService, GameService gameService,
-                            AuthService authService, RoomRepository roomRepository, SaveImageServiceImpl saveImageService, UserHashRepository userHashRepository
+    private final RoomBroadcaster roomBroadcaster;
+    private final DrawBatcher drawBatcher;
+    private final RoundLifecycleService roundLifecycleService;
+    private final SessionResumeService sessionResumeService;
+    private final RoomPresenceService roomPresenceService;
+    private final RoomCommandExecutor roomCommandExecutor;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final NgwordService ngwordService;
+    private final RoomDiffPublisher roomDiffPublisher;
+    private final ChannelRegistry channelRegistry;
+
+
+    public WebSocketHandler(WebSocketCustomService webSocketCustomService, RoomService roomService, UserService userService,
+                            RoomStateCache roomStateCache, SaveImageServiceImpl saveImageService, UserHashRepository userHashRepository,
+                            RoomBroadcaster roomBroadcaster, DrawBatcher drawBatcher, ObjectMapper objectMapper,
+                            RoundLifecycleService roundLifecycleService, SessionResumeService sessionResumeService,
+                            RoomPresenceService roomPresenceService, RoomCommandExecutor roomCommandExecutor,
+                            InboundRateLimiter inboundRateLimiter, NgwordService ngwordService, RoomDiffPublisher roomDiffPublisher,
+                            ChannelRegistry channelRegistry
     ) {
-        this.authService = authService;
         this.roomService = roomService;
         this.webSocketCustomService = webSocketCustomService;
         this.userService = userService;
-        this.gameService = gameService;
-        this.roomRepository = roomRepository;
+        this.roomStateCache = roomStateCache;
         this.saveImageService = saveImageService;
         this.userHashRepository = userHashRepository;
+        this.roomBroadcaster = roomBroadcaster;
+        this.drawBatcher = drawBatcher;
+        this.roundLifecycleService = roundLifecycleService;
+        this.sessionResumeService = sessionResumeService;
+        this.roomPresenceService = roomPresenceService;
+        this.roomCommandExecutor = roomCommandExecutor;
+        this.inboundRateLimiter = inboundRateLimiter;
+        this.ngwordService = ngwordService;
+        this.roomDiffPublisher = roomDiffPublisher;
+        this.channelRegistry = channelRegistry;
+        this.jsonFactory = objectMapper.getFactory();
+        this.messageReader = objectMapper.readerFor(new TypeReference<Map<String, String>>() {
+        });
+        registerHandlers();
     }
 
     // flag 변수
@@ -101,324 +166,418 @@ public class WebSocketHandler extends TextWebSocketHandler {
 //        roomInfoMap.put("roomTurn", 0);
 //    }
 
-    public void timer(List<WebSocketSession> sessions, String roomIdx){
-
-        int initialDelay = 1;
-        int period = 1;
-//        int roundTime = (int) roomInfoMap.get("roundTime");
-        int roundTime = 20;
-
-        //예약한 작업을 실행할 주체
-        ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-
-        //예약한 작업
-        Runnable task = new Runnable() {
-            int time = roundTime;
-            ObjectMapper objectMapper = new ObjectMapper();
-            @Override
-            public void run() {
-                if (time >= 0) {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("type", "timeStart");
-                    response.put("message", time);
-                    String json;
-                    try {
-                        json = objectMapper.writeValueAsString(response);
-                        for (WebSocketSession s : sessions) {
-                            if (s.isOpen()) {
-                                s.sendMessage(new TextMessage(json));
-                            }
-                        }
-                    } catch (IOException e) {
-                        // 예외 처리
-                        log.error("^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^");
-                        log.error("e = " + e);
-                        log.error("^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^^");
-                    }
-                    time--;
-                } else {
-                    executorService.shutdown();
-                }
-            }
-        };
-
-        // 매서드 실행부
-        ScheduledFuture<?> scheduledFuture = executorService.scheduleAtFixedRate(task, initialDelay, period, TimeUnit.SECONDS);
-        timers.put(roomIdx, scheduledFuture);
-    }
-
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        // 다중 채널 연결은 유저 알림 채널만 받고, 방은 subscribe 할 때 들어간다.
+        if (ChannelRegistry.isMuxPath(session.getUri().getPath())) {
+            UserDto userDto = (UserDto) session.getAttributes().get(HandShakeInterceptor.PRINCIPAL_ATTRIBUTE);
+            channelRegistry.connect(userDto.getUserIdx(), session);
+            log.info("다중 채널 연결 session = {}, userIdx = {}", session.getId(), userDto.getUserIdx());
+            return;
+        }
+
         String roomId = extractRoomId(session);
-        List<WebSocketSession> sessions = sessionsMap.computeIfAbsent(roomId, key -> new CopyOnWriteArrayList<>());
-        sessions.add(session);
+        // ?resume=토큰&lastSeq=n 으로 다시 접속했으면 빠진 메시지만 받는다.
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        attachRoom(roomId, session, params.getFirst("resume"), parseLongOrNull(params.getFirst("lastSeq")));
         log.info(session.getId());
 
         // 소켓에 정보 저장
 //        initailizeRoomInfo(roomId);
     }
 
-    @Override
-    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        String roomId = extractRoomId(session);
-        List<WebSocketSession> sessions = sessionsMap.getOrDefault(roomId, Collections.emptyList());
-
-        // JSON 파싱을 위한 ObjectMapper 객체 생성
-        ObjectMapper objectMapper = new ObjectMapper();
-        // 메시지 내용을 JSON으로 파싱하여 Map 형태로 변환
+    // 세션을 방 채널에 넣는다. (resumeToken, lastSeq 가 있으면 빠진 메시지만 받는다.)
+    private void attachRoom(String roomId, WebSocketSession session, String resumeToken, Long lastSeq) {
+        boolean resuming = resumeToken != null && lastSeq != null;
 
+        // 라운드 중에 들어오면 지금까지의 그림을 먼저 받는다.
+        boolean resumed = drawBatcher.attach(roomId, session,
+                () -> resuming && sessionResumeService.resume(resumeToken, lastSeq, roomId, session));
+        if (resuming && !resumed) {
+            // 새로 접속한 것으로 처리 (클라이언트가 userIn 부터 다시 보낸다.)
+            roomBroadcaster.send(roomId, session, new TextMessage("{\"type\":\"resume\",\"status\":\"fail\"}"));
+        }
+        Object userIdx = session.getAttributes().get(RoomPresenceService.USER_ATTRIBUTE);
+        if (resumed && userIdx instanceof Long) {
+            roomPresenceService.bind(roomId, (Long) userIdx, session);
+        }
+        sessionResumeService.issue(roomId, session);
+    }
 
-        Map<String, String> jsonMessage = objectMapper.readValue(message.getPayload(), new TypeReference<Map<String, String>>() {
-        });
-        String type = jsonMessage.get("type");
-
-        Map<String, Object> joinRoomResponse;
-
-        Optional<RoomHash> roomHashOptional = roomRepository.findById(roomId);
-
-        // userIn:유저가 들어올 때 userData: (유저Id, 기본점수)
-
-        if (type.equals("userIn")) {
-            if (roomHashOptional.isPresent()) {
-                RoomHash roomHash = roomHashOptional.get();
-
-                String authorization = jsonMessage.get("authorization");
-                UserDto userDto = authService.selectOneMember(HeaderUtil.getAccessTokenString(authorization));
-                // 닉네임, 소켓 아이디을 터미너스에서 확인할 수 있도록 설정: 5/16 DG
-//                log.info("접속하는 유저의 닉네임: {}, 소켓 아이디(roomId): {}", userDto.getUserNickname(), roomId);
-//
-//                UserInfo userInfo = userInfoMap.computeIfAbsent(session.getId(), key -> new UserInfo());
-//                userInfo.setNickname(userDto.getUserNickname());
-//                userInfo.setScore(0);
-//                userInfo.setToken(authorization);
-
-                if (userDto.getUserIdx().equals(roomHash.getAdminUserIdx())) {
-                    joinRoomResponse = roomService.firstRoom(roomId);
-                } else {
-                    log.error("user가 join으로 참여했습니다.");
-                    joinRoomResponse = roomService.joinRoom(userDto, roomId);
-                    log.error(joinRoomResponse.toString());
-                }
+    // 메시지 type 별 처리기 등록
+    private void registerHandlers() {
+        handlers.put("userIn", this::userIn);
+        handlers.put("chat", this::chat);
+        handlers.put("draw", this::draw);
+        handlers.put("roomUserCnt", this::roomUserCnt);
+        handlers.put("gameMode", this::changeRoomOption);
+        handlers.put("gameTurn", this::changeRoomOption);
+        handlers.put("subscribe", this::subscribe);
+        handlers.put("unsubscribe", this::unsubscribe);
+        handlers.put("roomSnapshot", context -> roomDiffPublisher.sendSnapshot(context.getRoomId(), context.getSession()));
+        handlers.put("gameTime", context -> log.debug("여기까지"));
+        handlers.put("clockSync", this::clockSync);
+        // 게임 알림: 방 조회 없이 그대로 전달
+        handlers.put("gameAlert", context -> roomBroadcaster.broadcast(context.getRoomId(), context.getMessage()));
+        handlers.put("gameStart", this::gameStart);
+        handlers.put("nextRound", this::nextRound);
+        handlers.put("gameOver", this::gameOver);
+        handlers.put("roundPause", this::roundControl);
+        handlers.put("roundResume", this::roundControl);
+        handlers.put("roundExtend", this::roundControl);
+    }
 
-                String jsonResponse = objectMapper.writeValueAsString(joinRoomResponse);    // 방에 접속한 유저 목록
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        // type 필드만 먼저 읽고, 나머지는 처리기가 필요할 때 파싱한다.
+        String type = readType(message.getPayload());
+        MessageHandler handler = type == null ? null : handlers.get(type);
+        if (handler == null) {
+            log.debug("처리할 수 없는 메시지 type = {}", type);
+            return;
+        }
+        String roomId = extractRoomId(session);
+        if (roomId == null && !CHANNEL_COMMANDS.contains(type)) {
+            log.debug("방을 구독하지 않은 세션의 메시지 session = {}, type = {}", session.getId(), type);
+            return;
+        }
+        MessageContext context = new MessageContext(ChannelRegistry.outboundOf(session), roomId, message);
+        // draw 는 action 을 봐야 하므로 draw 처리기에서 확인한다.
+        RateBudget budget = RateBudget.of(type);
+        if (budget != RateBudget.DRAW && !inboundRateLimiter.tryAcquire(session, budget, 1)) {
+            throttled(context, budget);
+            return;
+        }
+        if (!ROOM_COMMANDS.contains(type)) {
+            handler.handle(context);
+            return;
+        }
+        if (!roomCommandExecutor.submit(context.getRoomId(), type, () -> handler.handle(context))) {
+            Map<String, String> rejected = new HashMap<>();
+            rejected.put("type", "commandRejected");
+            rejected.put("command", type);
+            rejected.put("message", "요청이 많아 처리하지 못했습니다. 잠시 후 다시 시도해주세요.");
+            roomBroadcaster.send(context.getRoomId(), session, rejected);
+        }
+    }
 
-                for (WebSocketSession s : sessions) {
-                    if (s.isOpen()) {
-                        s.sendMessage(new TextMessage(jsonResponse));       // room, userList 전달
-                    }
-                }
-            }
+    // 너무 빨리 보낸 메시지는 버린다. (chat 은 보낸 사람에게 알려준다.)
+    private void throttled(MessageContext context, RateBudget budget) throws IOException {
+        if (context.getRoomId() == null) {
+            return;
+        }
+        inboundRateLimiter.recordThrottled(context.getRoomId(), budget, 1);
+        if (budget == RateBudget.CHAT && inboundRateLimiter.shouldNotify(context.getSession())) {
+            Map<String, String> notice = new HashMap<>();
+            notice.put("type", "chat");
+            notice.put("author", "admin");
+            notice.put("status", "throttled");
+            notice.put("message", "메시지를 너무 빨리 보내고 있습니다. 잠시 후 다시 보내주세요.");
+            roomBroadcaster.send(context.getRoomId(), context.getSession(), notice);
+        }
+    }
 
-        } else if (type.equals("chat")) {
-            String status = jsonMessage.get("status");
-            log.error(jsonMessage.toString());
-
-            if (status.equals("answer")) {
-                if (roomHashOptional.isPresent()) {
-                    RoomHash roomHash = roomHashOptional.get();
-
-                    String answer = jsonMessage.get("content");
-                    log.debug("answer : " + answer);
-                    log.debug("roomHash.getCorrect() : " + roomHash.getCorrect());
-                    if (answer.equals(roomHash.getCorrect()) && roomHash.getCorrectUser().equals(-1L)) {
-                        Long userIdx = Long.parseLong(jsonMessage.get("userIdx"));
-                        roomHash.setCorrectUser(userIdx);
-                        roomRepository.save(roomHash);
-                    }
-                }
+    // 스트리밍 파서로 최상위 type 필드만 찾는다.
+    private String readType(String payload) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
             }
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(message);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
                 }
+                parser.skipChildren();
             }
-        } else if (type.equals("draw")) {
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(message);
-                }
-            }
-        } else if (type.equals("roomUserCnt")) {
-            log.error("roomUserCnt : " + "여기 들어옴");
-            // 여기를 로직에 추가한다.
-            String roomCnt = jsonMessage.get("roomCnt");
-            int num = roomService.changeRoomOption(type, roomCnt, roomId);
-            if (num != 0) {
-                joinRoomResponse = roomService.firstRoom(roomId);
+        }
+        return null;
+    }
 
-                String jsonResponse = objectMapper.writeValueAsString(joinRoomResponse);
+    // userIn:유저가 들어올 때 userData: (유저Id, 기본점수)
+    private void userIn(MessageContext context) throws Exception {
+        Optional<RoomHash> roomHashOptional = context.getRoom();
+        if (roomHashOptional.isPresent()) {
+            String roomId = context.getRoomId();
+            RoomHash roomHash = roomHashOptional.get();
 
-                for (WebSocketSession s : sessions) {
-                    if (s.isOpen()) {
-                        s.sendMessage(new TextMessage(jsonResponse));       // room, userList 전달
-                    }
-                }
+            UserDto userDto = context.getUser();
+
+            Map<String, Object> joinRoomResponse;
+            if (userDto.getUserIdx().equals(roomHash.getAdminUserIdx())) {
+                joinRoomResponse = roomService.firstRoom(roomId);
+            } else {
+                log.error("user가 join으로 참여했습니다.");
+                joinRoomResponse = roomService.joinRoom(userDto, roomId);
+                log.error(joinRoomResponse.toString());
             }
-        } else if (type.equals("gameMode")) {
-            log.error("gameMode : " + "여기 들어옴");
-            // 여기를 로직에 추가한다.
-            String gameMode = jsonMessage.get("gameMode");
-            roomService.changeRoomOption(type, gameMode, roomId);
 
-            joinRoomResponse = roomService.firstRoom(roomId);
+            // 이 방 유저로 등록된 세션만 끊겼을 때 방에서 내보낸다.
+            roomStateCache.findUser(userDto.getUserIdx())
+                    .filter(userHash -> roomId.equals(userHash.getRoomIdx()))
+                    .ifPresent(userHash -> roomPresenceService.bind(roomId, userHash.getUserIdx(), context.getSession()));
 
-            String jsonResponse = objectMapper.writeValueAsString(joinRoomResponse);
+            // 들어온 세션에는 전체 상태를, 나머지에게는 모아서 바뀐 것만 보낸다.
+            roomDiffPublisher.sendSnapshot(roomId, context.getSession(), joinRoomResponse);       // room, userList 전달
+            roomDiffPublisher.publish(roomId);
+        }
+    }
 
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(jsonResponse));       // room, userList 전달
-                }
-            }
-        } else if (type.equals("gameTurn")) {
-            log.error("roomUserCnt : " + "여기 들어옴");
-            // 여기를 로직에 추가한다.
-            String gameTurn = jsonMessage.get("gameTurn");
-            roomService.changeRoomOption(type, gameTurn, roomId);
+    private void chat(MessageContext context) throws Exception {
+        String status = context.get("status");
 
-            joinRoomResponse = roomService.firstRoom(roomId);
+        // 첫 정답자는 라운드 상태에서 바로 정한다. (방 정보를 조회하지 않는다.)
+        boolean firstCorrect = "answer".equals(status)
+                && roundLifecycleService.submitAnswer(context.getRoomId(), context.getUser().getUserIdx(), context.get("content"));
+        broadcastFiltered(context);
 
-            String jsonResponse = objectMapper.writeValueAsString(joinRoomResponse);
+        // 첫 정답이 나오면 서버가 바로 라운드를 끝낸다.
+        if (firstCorrect) {
+            String roomId = context.getRoomId();
+            roomCommandExecutor.execute(roomId, "roundOver", () -> roundLifecycleService.endRound(roomId, 0));
+        }
+    }
 
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(jsonResponse));       // room, userList 전달
+    // 금지어가 있으면 가려서 다시 만들고, 없으면 받은 메시지를 그대로 보낸다. (정답 확인은 원문으로)
+    private void broadcastFiltered(MessageContext context) throws IOException {
+        Map<String, String> filtered = null;
+        for (String field : CHAT_TEXT_FIELDS) {
+            String text = context.get(field);
+            String masked = ngwordService.filter(text);
+            if (masked != text) {
+                if (filtered == null) {
+                    filtered = context.copyJson();
                 }
+                filtered.put(field, masked);
             }
         }
+        if (filtered == null) {
+            roomBroadcaster.broadcast(context.getRoomId(), context.getMessage());
+        } else {
+            roomBroadcaster.broadcast(context.getRoomId(), filtered);
+        }
+    }
 
-        // gameTime
-        else if (type.equals("gameTime")) {
-
-//            int roundTime = (int) roomInfoMap.get("roundTime");
-
-//            Map<String, Object> response = new HashMap<>();
-//            response.put("type", "gameTime");
-//            response.put("roundTime", roundTime);
-
-//            String jsonResponse = objectMapper.writeValueAsString(response);
-
-//            for (WebSocketSession s : sessions) {
-//                if (s.isOpen()) {
-//                    s.sendMessage(new TextMessage(jsonResponse));
-//                }
-//            }
-            log.debug("여기까지");
+    private void draw(MessageContext context) throws Exception {
+        String action = context.get("action");
+        // 넘친 선 이동은 버린다. (다음 이동이 이어서 그리므로 선은 끊기지 않는다.)
+        if (isMove(StrokeCodec.opOf(action))) {
+            if (!inboundRateLimiter.tryAcquire(context.getSession(), RateBudget.DRAW, 1)) {
+                inboundRateLimiter.recordThrottled(context.getRoomId(), RateBudget.DRAW, 1);
+                return;
+            }
+        } else if (!inboundRateLimiter.tryAcquire(context.getSession(), RateBudget.DRAW_ACTION, 1)) {
+            drawActionOverrun(context.getRoomId(), context.getSession(), 1);
+            return;
         }
-        // 게임 시간 설정
-//        else if (type.equals("roundTime")) {
-//            String changedRoundTime = jsonMessage.get("changedRoundTime");
+        drawBatcher.submit(context.getRoomId(), action, context.getMessage(), context.get("offsetX"), context.get("offsetY"));
+    }
 
-//            roomInfoMap.put("roundTime", Integer.parseInt(changedRoundTime));
-//        }
+    private boolean isMove(byte op) {
+        return op == StrokeCodec.OP_MOVE || op == StrokeCodec.OP_DRAW_MOVE;
+    }
 
+    // 선 시작, 채우기, 지우기 같은 action 은 하나만 버려도 그림이 달라지므로, 넘치게 보내는 세션은 연결을 끊는다.
+    // (사람이 그리는 속도로는 닿지 않는 제한이다.)
+    private void drawActionOverrun(String roomId, WebSocketSession session, int actions) throws IOException {
+        inboundRateLimiter.recordThrottled(roomId, RateBudget.DRAW_ACTION, actions);
+        log.warn("draw action 을 너무 많이 보내서 연결을 끊습니다. roomIdx = {}, session = {}", roomId, session.getId());
+        session.close(DRAW_ACTION_OVERRUN);
+    }
 
-        // 게임 알림
-        else if (type.equals("gameAlert")) {
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(message);
+    // 다중 채널 연결: {"type":"subscribe","channel":"room","roomIdx":..,"resume":..,"lastSeq":..} 또는 {"channel":"lobby"}
+    // 방은 하나만 구독한다. 다른 방을 구독하면 이전 방에서 나간다. (연결은 그대로)
+    private void subscribe(MessageContext context) throws Exception {
+        WebSocketSession session = context.getSession();
+        if (!ChannelRegistry.isMux(session)) {
+            return;
+        }
+        String channel = context.get("channel");
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "subscribed");
+        response.put("channel", channel);
+        response.put("status", "success");
+
+        if (ChannelRegistry.LOBBY_CHANNEL.equals(channel)) {
+            // 구독 응답에 첫 페이지를 같이 보내고, 이후에는 lobbyDiff 만 보낸다.
+            channelRegistry.subscribeLobby(session);
+            response.put("lobby", roomService.getLobbyRooms(null, 0, Integer.MAX_VALUE, 0, LOBBY_FIRST_PAGE));
+        } else if (ChannelRegistry.ROOM_CHANNEL.equals(channel)) {
+            String roomIdx = context.get("roomIdx");
+            response.put("roomIdx", roomIdx);
+            HttpStatus rejected = roomIdx == null ? HttpStatus.BAD_REQUEST
+                    : HandShakeInterceptor.checkAdmission(roomStateCache, context.getUser(), roomIdx);
+            if (rejected != null) {
+                response.put("status", "fail");
+                response.put("code", rejected.value());
+            } else if (!roomIdx.equals(context.getRoomId())) {
+                if (context.getRoomId() != null) {
+                    detachRoom(context.getRoomId(), session);
+                    channelRegistry.recordRoomSwitch();
                 }
+                session.getAttributes().put(HandShakeInterceptor.ROOM_ATTRIBUTE, roomIdx);
+                attachRoom(roomIdx, session, context.get("resume"), parseLongOrNull(context.get("lastSeq")));
             }
+        } else {
+            response.put("status", "fail");
+            response.put("code", HttpStatus.BAD_REQUEST.value());
         }
+        channelRegistry.reply(context.getUser().getUserIdx(), session, response);
+    }
 
-        // 게임 시작
-        else if (type.equals("gameStart")) {
-            // 현재 설정된 게임 타입을 받아와서 case 구분
-            String authorization = jsonMessage.get("authorization");
+    // {"type":"unsubscribe","channel":"room"} 또는 {"channel":"lobby"}
+    private void unsubscribe(MessageContext context) throws Exception {
+        WebSocketSession session = context.getSession();
+        if (!ChannelRegistry.isMux(session)) {
+            return;
+        }
+        String channel = context.get("channel");
+        if (ChannelRegistry.LOBBY_CHANNEL.equals(channel)) {
+            channelRegistry.unsubscribeLobby(session);
+        } else if (ChannelRegistry.ROOM_CHANNEL.equals(channel) && context.getRoomId() != null) {
+            session.getAttributes().remove(HandShakeInterceptor.ROOM_ATTRIBUTE);
+            detachRoom(context.getRoomId(), session);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "unsubscribed");
+        response.put("channel", channel);
+        channelRegistry.reply(context.getUser().getUserIdx(), session, response);
+    }
 
+    private void roomUserCnt(MessageContext context) throws Exception {
+        String roomId = context.getRoomId();
+        String roomCnt = context.get("roomCnt");
+        int num = roomService.changeRoomOption(context.getType(), roomCnt, roomId);
+        if (num != 0) {
+            roomDiffPublisher.publish(roomId);
+        }
+    }
 
-            // userDto, gameRequestDto(roomIdx, gameCategory, maxRound) 필요
-            UserDto userDto = authService.selectOneMember(HeaderUtil.getAccessTokenString(authorization));
+    // gameMode, gameTurn: 옵션 값이 type 과 같은 이름의 필드로 들어온다.
+    private void changeRoomOption(MessageContext context) throws Exception {
+        String roomId = context.getRoomId();
+        String type = context.getType();
+        roomService.changeRoomOption(type, context.get(type), roomId);
 
-            if(roomHashOptional.isPresent()){
-                RoomHash roomHash = roomHashOptional.get();
+        roomDiffPublisher.publish(roomId);
+    }
 
-                GameRequestDto gameRequestDto = GameRequestDto.builder()
-                        .gameCategory(roomHash.getGameCategory())
-                        .maxRound(roomHash.getMaxRound())
-                        .roomIdx(roomId)
-                        .build();
-                ResponseGameDto responseGameDto = gameService.startGame(userDto, gameRequestDto);
+    // 시계 맞추기: 보낸 사람에게만 서버 시각을 돌려준다. (방 조회 없음)
+    // 클라이언트는 왕복 시간의 절반을 더해서 서버 시계와의 차이를 구하고, roundDeadline 에 적용한다.
+    private void clockSync(MessageContext context) throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("type", "clockSync");
+        response.put("clientTime", parseLongOrNull(context.get("clientTime")));
+        response.put("serverTime", System.currentTimeMillis());
 
-                String json = objectMapper.writeValueAsString(responseGameDto);
+        roomBroadcaster.send(context.getRoomId(), context.getSession(), response);
+    }
 
-                this.timer(sessions, roomId);
+    // 게임 시작
+    private void gameStart(MessageContext context) throws Exception {
+        // userDto, gameRequestDto(roomIdx, gameCategory, maxRound) 필요
+        UserDto userDto = context.getUser();
 
-                // 게임 정보
-                for (WebSocketSession s : sessions) {
-                    if (s.isOpen()) {
-                        s.sendMessage(new TextMessage(json));
-                    }
-                }
-            }
+        Optional<RoomHash> roomHashOptional = context.getRoom();
+        if (roomHashOptional.isPresent()) {
+            roundLifecycleService.startGame(userDto, roomHashOptional.get());
         }
-        // 라운드 시작
-        else if (type.equals("nextRound")) {
-            RequestRoundDto requestRoundDto = RequestRoundDto.builder()
-                    .roomIdx(roomId)
-                    .build();
+    }
 
-            ResponseGameDto responseGameDto = gameService.nextRound(requestRoundDto);      // type: gameDto로 기본 설정되어 있음
-            String json = objectMapper.writeValueAsString(responseGameDto);
+    // 라운드 시작
+    private void nextRound(MessageContext context) throws Exception {
+        roundLifecycleService.nextRound(context.getRoomId());
+    }
 
-            this.timer(sessions, roomId);
+    // 게임 종료
+    private void gameOver(MessageContext context) throws Exception {
+        roundLifecycleService.endGame(context.getRoomId());
+    }
 
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(json));
-                }
-            }
+    // 방장의 라운드 시간 조절: {"type":"roundPause"}, {"type":"roundResume"}, {"type":"roundExtend","seconds":10}
+    // 바뀐 남은 시간은 타이머가 방 전체에 timeStart(paused), roundDeadline 으로 알린다.
+    private void roundControl(MessageContext context) throws Exception {
+        Optional<RoomHash> roomHashOptional = context.getRoom();
+        if (roomHashOptional.isEmpty() || !context.getUser().getUserIdx().equals(roomHashOptional.get().getAdminUserIdx())) {
+            log.debug("방장만 라운드 시간을 바꿀 수 있습니다. roomIdx = {}", context.getRoomId());
+            return;
         }
-        // 라운드 종료  ------- type 지정 필요 -------   // 수민: 임시로 내가 설정해서 사용하도록 함
-        else if (type.equals("roundOver")) {
-            log.error("$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#");
-            ScheduledFuture<?> scheduledFuture = timers.get(roomId);
-            scheduledFuture.cancel(false);
-            timers.remove(roomId);
-            log.error("roomId :  roomId : roomId : " + roomId);
-            log.error("$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#$#");
-
-            RequestRoundDto requestRoundDto = RequestRoundDto.builder()
-                    .roomIdx(roomId)
-                    .build();
-
-            ResponseRoundDto responseRoundDto = gameService.endRound(requestRoundDto);
-            responseRoundDto.setType("roundOver");
-            String json = objectMapper.writeValueAsString(responseRoundDto);
-
-            // 세션에 기록
-//            List<UserHashResponseDto> userList = responseRoundDto.getUserList();
-//            for (UserHashResponseDto userHashResponseDto : userList) {
-//                Long userIdx1 = userHashResponseDto.getUserIdx();
-//                int userScore = userHashResponseDto.getUserScore();
-
-//                userScoreMap.put(userIdx1, userScore);
-//            }
-
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(json));
-                }
-            }
-
-            // 게임 종료
-        } else if (type.equals("gameOver")) {
-            GameEndDto gameEndDto = gameService.endGame(roomId);
+        String roomId = context.getRoomId();
+        boolean applied;
+        switch (context.getType()) {
+            case "roundPause":
+                applied = roundLifecycleService.pauseRound(roomId);
+                break;
+            case "roundResume":
+                applied = roundLifecycleService.resumeRound(roomId);
+                break;
+            default:
+                Long seconds = parseLongOrNull(context.get("seconds"));
+                applied = seconds != null && roundLifecycleService.extendRound(roomId, seconds.intValue());
+                break;
+        }
+        if (!applied) {
+            log.debug("라운드 시간을 바꾸지 못했습니다. roomIdx = {}, type = {}", roomId, context.getType());
+        }
+    }
 
-            String jsonResponse = objectMapper.writeValueAsString(gameEndDto);
-            for (WebSocketSession s : sessions) {
-                if (s.isOpen()) {
-                    s.sendMessage(new TextMessage(jsonResponse));
-                }
+    // crayon.stroke.v1 클라이언트의 선 그리기 프레임: JSON 파싱 없이 varint만 풀어서 넘긴다.
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        String roomId = extractRoomId(session);
+        if (roomId == null) {
+            return;
+        }
+        List<DrawEvent> events;
+        try {
+            events = StrokeCodec.decode(message.getPayload());
+        } catch (IllegalArgumentException e) {
+            log.error("잘못된 stroke 프레임 session = {}, e = {}", session.getId(), e.getMessage());
+            return;
+        }
+        int moves = 0;
+        for (DrawEvent event : events) {
+            if (isMove(event.getOp())) {
+                moves++;
             }
         }
+        int actions = events.size() - moves;
+        if (actions > 0 && !inboundRateLimiter.tryAcquire(session, RateBudget.DRAW_ACTION, actions)) {
+            drawActionOverrun(roomId, session, actions);
+            return;
+        }
+        // 프레임 안의 선 이동 수만큼 쓰고, 넘치면 이동만 빼고 보낸다. (burst 보다 많은 이동을 담은 프레임도 이동을 뺀다.)
+        if (moves > 0 && !inboundRateLimiter.tryAcquire(session, RateBudget.DRAW, moves)) {
+            inboundRateLimiter.recordThrottled(roomId, RateBudget.DRAW, moves);
+            events.removeIf(event -> isMove(event.getOp()));
+            if (events.isEmpty()) {
+                return;
+            }
+        }
+        drawBatcher.submit(roomId, events);
+    }
 
-
+    // 핸드셰이크에서 클라이언트가 요청한 것 중 먼저 맞는 프로토콜을 고른다. (요청이 없으면 기존 JSON)
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(StrokeCodec.PROTOCOL, StrokeCodec.JSON_PROTOCOL);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         String roomId = extractRoomId(session);
+        if (ChannelRegistry.isMux(session)) {
+            UserDto userDto = (UserDto) session.getAttributes().get(HandShakeInterceptor.PRINCIPAL_ATTRIBUTE);
+            channelRegistry.disconnect(userDto.getUserIdx(), session);
+        }
+        if (roomId != null) {
+            detachRoom(roomId, ChannelRegistry.outboundOf(session));
+        }
+    }
+
+    // 세션을 방 채널에서 뺀다. (연결이 끊겼거나, 다중 채널 연결이 다른 방으로 옮길 때)
+    private void detachRoom(String roomId, WebSocketSession session) throws IOException {
 //        UserInfo userInfo = userInfoMap.get(session.getId());   // 세션의 Id로 유저 정보를 가져옴
 //        log.info("userInfo: {}", userInfo);
 
@@ -445,40 +604,92 @@ public class WebSocketHandler extends TextWebSocketHandler {
 //        RoomResponseDto roomResponseDto = roomService.outRoom(user);// user가 DB에서 제거될 수 있도록 처리
 //        log.info("roomResponseDto: {}", roomResponseDto);
 
-        List<WebSocketSession> sessions = sessionsMap.getOrDefault(roomId, Collections.emptyList());
+        roomBroadcaster.leave(roomId, session);       // 세션 제거
+        sessionResumeService.release(roomId, session);      // 재접속 대기
+        // 바로 내보내지 않고 grace-ms 동안 자리를 잡아 둔다. (방이 비면 그 뒤에 방 자원 정리)
+        roomPresenceService.unbind(roomId, session);
+        // 다음 방에서 userIn 하기 전까지는 어느 방 유저도 아니다.
+        session.getAttributes().remove(RoomPresenceService.USER_ATTRIBUTE);
+
+        // 원하는 데이터를 JSON 형식으로 변환
+        Map<String, String> jsonMessage = new HashMap<>();
+        jsonMessage.put("type", "chat");
+        jsonMessage.put("author", "admin");
+        jsonMessage.put("status", "chatting");
+//        jsonMessage.put("message", userNickname+ "님이 나갔습니다");
 
-        sessions.remove(session);       // 세션 제거
+        // WebSocket 메시지로 전송
+        roomBroadcaster.broadcast(roomId, jsonMessage);
+
+    }
 
-        if (sessions.isEmpty()) {
-            sessionsMap.remove(roomId);
+
+    private Long parseLongOrNull(String value) {
+        try {
+            return value == null ? null : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
         }
+    }
 
-        for (WebSocketSession s : sessions) {
-            if (s.isOpen()) {
-                // ObjectMapper 객체 생성
-                ObjectMapper objectMapper = new ObjectMapper();
+    // 방 주소로 접속했으면 그 방, 다중 채널 연결이면 구독중인 방 (없으면 null)
+    private String extractRoomId(WebSocketSession session) {
+        return (String) session.getAttributes().get(HandShakeInterceptor.ROOM_ATTRIBUTE);
+    }
+    
+    @FunctionalInterface
+    private interface MessageHandler {
+        void handle(MessageContext context) throws Exception;
+    }
 
-                // 원하는 데이터를 JSON 형식으로 변환
-                Map<String, String> jsonMessage = new HashMap<>();
-                jsonMessage.put("type", "chat");
-                jsonMessage.put("author", "admin");
-                jsonMessage.put("status", "chatting");
-//                jsonMessage.put("message", userNickname+ "님이 나갔습니다");
-                String json = objectMapper.writeValueAsString(jsonMessage);
+    // 메시지 한 건의 처리 정보
+    // 본문 파싱과 방 조회는 처음 필요할 때 한 번만 한다.
+    @Getter
+    private class MessageContext {
+        private final WebSocketSession session;
+        private final String roomId;
+        private final TextMessage message;
+
+        @Getter(AccessLevel.NONE)
+        private Map<String, String> json;
+        @Getter(AccessLevel.NONE)
+        private Optional<RoomHash> room;
+
+        MessageContext(WebSocketSession session, String roomId, TextMessage message) {
+            this.session = session;
+            this.roomId = roomId;
+            this.message = message;
+        }
 
-                // WebSocket 메시지로 전송
-                s.sendMessage(new TextMessage(json));
+        String get(String field) throws IOException {
+            if (json == null) {
+                json = messageReader.readValue(message.getPayload());
             }
+            return json.get(field);
         }
 
-    }
+        String getType() throws IOException {
+            return get("type");
+        }
 
+        Map<String, String> copyJson() throws IOException {
+            get("type");
+            return new HashMap<>(json);
+        }
 
-    private String extractRoomId(WebSocketSession session) {
-        String path = session.getUri().getPath();
-        return path.substring(path.lastIndexOf('/') + 1);
+        // 핸드셰이크에서 인증한 유저
+        UserDto getUser() {
+            return (UserDto) session.getAttributes().get(HandShakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        }
+
+        Optional<RoomHash> getRoom() {
+            if (room == null) {
+                room = roomStateCache.findRoom(roomId);
+            }
+            return room;
+        }
     }
-    
+
     @Getter
     @Setter
     private class UserInfo {
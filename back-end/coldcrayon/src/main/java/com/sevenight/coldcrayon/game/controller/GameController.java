@@ -10,7 +10,7 @@ import com.sevenight.coldcrayon.game.service.GameService;
 import com.sevenight.coldcrayon.game.service.SaveImageServiceImpl;
 import com.sevenight.coldcrayon.game.service.WebClientServiceImpl;
 import com.sevenight.coldcrayon.room.entity.RoomHash;
-import com.sevenight.coldcrayon.room.repository.RoomRepository;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
 import com.sevenight.coldcrayon.theme.entity.ThemeCategory;
 import com.sevenight.coldcrayon.util.HeaderUtil;
 import lombok.RequiredArgsConstructor;
@@ -33,7 +33,7 @@ public class GameController {
     final AuthService authService;
     final WebClientServiceImpl webClientService;
     final SaveImageServiceImpl saveImageService;
-    final RoomRepository roomRepository;
+    final RoomStateCache roomStateCache;
 
     @PostMapping("/start")
     public ResponseEntity<?> gameStart(@RequestHeader String Authorization, @RequestBody GameRequestDto gameRequestDto) throws IOException {
@@ -69,7 +69,7 @@ public class GameController {
     @PostMapping("/saveImg")
     public void saveImg(@RequestHeader String Authorization, @RequestParam("img") String img, @RequestParam("roomIdx") String roomIdx) throws IOException {
 
-        Optional<RoomHash> roomHashOptional = roomRepository.findById(roomIdx);
+        Optional<RoomHash> roomHashOptional = roomStateCache.findRoom(roomIdx);
 
         if(roomHashOptional.isPresent()) {
             RoomHash roomHash = roomHashOptional.get();
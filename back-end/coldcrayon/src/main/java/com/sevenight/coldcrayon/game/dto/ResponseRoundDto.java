@@ -25,6 +25,9 @@ public class ResponseRoundDto {
 
     int winnerScore;
 
+    // 라운드 시작부터 첫 정답까지 걸린 시간 (ns)
+    Long answerNanos;
+
     List<UserHashResponseDto> userList;
 
 }
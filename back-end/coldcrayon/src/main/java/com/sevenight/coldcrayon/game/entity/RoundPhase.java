@@ -0,0 +1,12 @@
+package com.sevenight.coldcrayon.game.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 방의 라운드 진행 상태
+// Ready -> Drawing -> Scoring -> NextRound -> Drawing ... -> GameOver -> Ready
+@Getter
+@RequiredArgsConstructor
+public enum RoundPhase {
+	Ready, Drawing, Scoring, NextRound, GameOver
+}
@@ -0,0 +1,27 @@
+package com.sevenight.coldcrayon.game.service;
+
+import java.text.Normalizer;
+
+// 정답 비교용 문자열: 공백, 문장부호는 빼고 소문자로, 한글은 자모로 나눈다.
+// NFKD 는 "사과" 와 "ㅅㅏㄱㅘ" 를 같은 자모열로 만들고, 전각 문자도 반각으로 바꾼다.
+// 글자가 하나도 없으면 빈 문자열이므로, 비교하는 쪽에서 빈 문자열은 정답으로 보지 않는다.
+final class AnswerNormalizer {
+
+    private AnswerNormalizer() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -11,6 +11,8 @@ public interface GameService {
 
     ResponseRoundDto endRound(RequestRoundDto requestRoundDto);
 
+    ResponseRoundDto endRound(RequestRoundDto requestRoundDto, Long correctUser, int winnerScore);
+
     ResponseGameDto nextRound(RequestRoundDto requestRoundDto) throws IOException;
 
     GameEndDto endGame(String roomIdx);
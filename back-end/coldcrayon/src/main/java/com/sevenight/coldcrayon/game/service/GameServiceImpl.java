@@ -3,13 +3,12 @@ package com.sevenight.coldcrayon.game.service;
 import com.sevenight.coldcrayon.auth.dto.UserDto;
 import com.sevenight.coldcrayon.game.dto.*;
 import com.sevenight.coldcrayon.game.repository.GameRepository;
-import com.sevenight.coldcrayon.joinlist.service.JoinListService;
 import com.sevenight.coldcrayon.room.dto.UserHashResponseDto;
 import com.sevenight.coldcrayon.room.entity.RoomHash;
 import com.sevenight.coldcrayon.room.entity.RoomStatus;
 import com.sevenight.coldcrayon.room.entity.UserHash;
-import com.sevenight.coldcrayon.room.repository.RoomRepository;
-import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.room.service.LobbyIndex;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
 import com.sevenight.coldcrayon.theme.entity.ThemeCategory;
 import com.sevenight.coldcrayon.theme.service.ThemeService;
 
@@ -32,9 +31,8 @@ import java.util.*;
 public class GameServiceImpl implements GameService{
 
 
-    private final RoomRepository roomRepository;
-    private final JoinListService joinListService;
-    private final UserHashRepository userHashRepository;
+    private final RoomStateCache roomStateCache;
+    private final LobbyIndex lobbyIndex;
     private final Random random = new Random();
     private final ThemeService themeService;
     private final WebClientServiceImpl webClientService;
@@ -48,7 +46,7 @@ public class GameServiceImpl implements GameService{
         ResponseGameDto responseGameDto = new ResponseGameDto();
         String message;
         String status = "fail";
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(gameRequestDto.getRoomIdx());
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(gameRequestDto.getRoomIdx());
 
         if(optionalRoomHash.isEmpty()){
             message = "방이 없어요.";
@@ -65,20 +63,15 @@ public class GameServiceImpl implements GameService{
                 // 게임 방 설정 변경
                 status = "success";
 
-                // 방에 참여하고 있는 유저를 불러와서 점수를 0점으로 만든다.
+                // 방에 참여하고 있는 유저를 불러와서 점수를 0점으로 만든다. (한 번에 읽고 한 번에 쓴다.)
                 List<UserHashResponseDto> userHashResponseDtoList = new ArrayList<>();
 
-                List<Object> userList = joinListService.getJoinList(room.getRoomIdx());
-                for(Object userIdx : userList){
-                    Optional<UserHash> userHashOptional = userHashRepository.findById(Long.parseLong(userIdx.toString()));
-                    if(userHashOptional.isPresent()){
-                        UserHash userHash = userHashOptional.get();
-                        userHash.setUserScore(0);
-                        userHashRepository.save(userHash);
-                        userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
-                    }
-
+                List<UserHash> userList = roomStateCache.findRoomUsers(room.getRoomIdx());
+                for(UserHash userHash : userList){
+                    userHash.setUserScore(0);
+                    userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
                 }
+                roomStateCache.saveUsers(userList);
 
 
                 // 어딘가에 게임 테마랑 방 정보를 저장해둬야 한다.
@@ -96,7 +89,8 @@ public class GameServiceImpl implements GameService{
                 room.setNowRound(1);
                 room.setCorrectUser(-1L);
                 room.setCorrect(keywords.get(1));
-                roomRepository.save(room);
+                roomStateCache.saveRoom(room);
+                lobbyIndex.sync(room);
 
                 responseGameDto.setTheme(themeCategory);
                 responseGameDto.setCorrect(keywords.get(1));
@@ -134,9 +128,9 @@ public class GameServiceImpl implements GameService{
                 }
 
                 // 그림 그리는 유저 1명 지정하기
-                Object user = userList.get(random.nextInt(userList.size()));
+                UserHash user = userList.get(random.nextInt(userList.size()));
 
-                responseGameDto.setSelectedUserIdx(Long.parseLong(user.toString()));
+                responseGameDto.setSelectedUserIdx(user.getUserIdx());
                 responseGameDto.setUserList(userHashResponseDtoList);
             }
         }
@@ -148,41 +142,43 @@ public class GameServiceImpl implements GameService{
     }
 
     public ResponseRoundDto endRound(RequestRoundDto requestRoundDto){
+        return endRound(requestRoundDto, null, 3);
+    }
+
+    // correctUser: 서버가 정한 첫 정답자 (-1 이면 정답자 없음, null 이면 방 정보의 correctUser 를 쓴다.)
+    // winnerScore: 첫 정답자 추가 점수
+    public ResponseRoundDto endRound(RequestRoundDto requestRoundDto, Long correctUser, int winnerScore){
         String status = "fail";
         String message;
         ResponseRoundDto responseRoundDto = new ResponseRoundDto();
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(requestRoundDto.getRoomIdx());
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(requestRoundDto.getRoomIdx());
 
         if(optionalRoomHash.isPresent()){
             RoomHash roomHash = optionalRoomHash.get();
             status = "success";
             message = "유저 포인트 변경 내역입니다.";
-            List<Object> userList = joinListService.getJoinList(roomHash.getRoomIdx());
+            List<UserHash> userList = roomStateCache.findRoomUsers(roomHash.getRoomIdx());
             List<UserHashResponseDto> userHashResponseDtoList = new ArrayList<>();
-
-            for(Object user: userList){
-                Optional<UserHash> optionalUserHash = userHashRepository.findById(Long.parseLong(user.toString()));
-                if(optionalUserHash.isPresent()){
-                    UserHash userHash = optionalUserHash.get();
-
-                    if(!roomHash.getCorrectUser().equals(0L)){
-                        userHash.setUserScore(userHash.getUserScore() + 3);
-                        if(userHash.getUserIdx().equals(roomHash.getCorrectUser())){
-                            userHash.setUserScore(userHash.getUserScore() + 3);
-                            responseRoundDto.setWinnerUserIdx(userHash.getUserIdx());
-                        }
+            Long correctUserIdx = correctUser == null ? roomHash.getCorrectUser() : correctUser;
+
+            for(UserHash userHash: userList){
+                if(!correctUserIdx.equals(0L)){
+                    userHash.setUserScore(userHash.getUserScore() + 3);
+                    if(userHash.getUserIdx().equals(correctUserIdx)){
+                        userHash.setUserScore(userHash.getUserScore() + winnerScore);
+                        responseRoundDto.setWinnerUserIdx(userHash.getUserIdx());
                     }
-                    userHashRepository.save(userHash);
-                    userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
                 }
+                userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
             }
+            roomStateCache.saveUsers(userList);
 
             roomHash.setCorrectUser(0L);
-            roomRepository.save(roomHash);
+            roomStateCache.saveRoom(roomHash);
 
             responseRoundDto.setUserList(userHashResponseDtoList);
             responseRoundDto.setDefualtScore(3);
-            responseRoundDto.setWinnerScore(3);
+            responseRoundDto.setWinnerScore(winnerScore);
         } else{
             message = "조회한 방이 없습니다.";
         }
@@ -197,8 +193,7 @@ public class GameServiceImpl implements GameService{
         String status = "fail";
         String message;
 
-        List<Object> userList = joinListService.getJoinList(requestRoundDto.getRoomIdx());
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(requestRoundDto.getRoomIdx());
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(requestRoundDto.getRoomIdx());
 
         if(optionalRoomHash.isPresent()) {
             RoomHash roomHash = optionalRoomHash.get();
@@ -221,7 +216,7 @@ public class GameServiceImpl implements GameService{
                 //             game 모드가 AI라면,,,
 
                 roomHash.setCorrect(keywords.get(1));
-                roomRepository.save(roomHash);
+                roomStateCache.saveRoom(roomHash);
                 responseGameDto.setTheme(themeCategory);
                 responseGameDto.setCorrect(keywords.get(1));
 
@@ -259,19 +254,14 @@ public class GameServiceImpl implements GameService{
 
                 List<UserHashResponseDto> userHashResponseDtoList = new ArrayList<>();
 
-                for(Object userIdx : userList){
-                    Optional<UserHash> userHashOptional = userHashRepository.findById(Long.parseLong(userIdx.toString()));
-                    if(userHashOptional.isPresent()){
-                        UserHash userHash = userHashOptional.get();
-                        userHashRepository.save(userHash);
-                        userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
-                    }
-
+                List<UserHash> userList = roomStateCache.findRoomUsers(roomHash.getRoomIdx());
+                for(UserHash userHash : userList){
+                    userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
                 }
                 // 그림 그리는 유저 1명 지정하기
-                Object user = userList.get(random.nextInt(userList.size()));
+                UserHash user = userList.get(random.nextInt(userList.size()));
 
-                responseGameDto.setSelectedUserIdx(Long.parseLong(user.toString()));
+                responseGameDto.setSelectedUserIdx(user.getUserIdx());
                 responseGameDto.setUserList(userHashResponseDtoList);
             }
         } else {
@@ -289,8 +279,7 @@ public class GameServiceImpl implements GameService{
 
         GameEndDto gameEndDto = new GameEndDto();
 
-        List<Object> userList = joinListService.getJoinList(roomIdx);
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
         if (optionalRoomHash.isPresent()) {
             List<UserHashResponseDto> userHashResponseDtoList = new ArrayList<>();
 
@@ -300,25 +289,22 @@ public class GameServiceImpl implements GameService{
             gameEndDto.setStatus("success");
 
             roomHash.setRoomStatus(RoomStatus.Ready);
-            roomRepository.save(roomHash);
-
-            for (Object user : userList) {
-                Optional<UserHash> optionalUserHash = userHashRepository.findById(Long.parseLong(user.toString()));
-                if (optionalUserHash.isPresent()) {
-                    UserHash userHash = optionalUserHash.get();
-
-                    Optional<User> optionalUser = userRepository.findByUserIdx(userHash.getUserIdx());
-                    if(optionalUser.isPresent()){
-                        User userEntity = optionalUser.get();
-                        userEntity.setUserPoint(userEntity.getUserPoint() + userHash.getUserScore());
-                        userRepository.save(userEntity);
-                    }
-
-                    userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
-                    userHash.setUserScore(0);
-                    userHashRepository.save(userHash);
+            roomStateCache.saveRoom(roomHash);
+            lobbyIndex.sync(roomHash);
+
+            List<UserHash> userList = roomStateCache.findRoomUsers(roomIdx);
+            for (UserHash userHash : userList) {
+                Optional<User> optionalUser = userRepository.findByUserIdx(userHash.getUserIdx());
+                if(optionalUser.isPresent()){
+                    User userEntity = optionalUser.get();
+                    userEntity.setUserPoint(userEntity.getUserPoint() + userHash.getUserScore());
+                    userRepository.save(userEntity);
                 }
+
+                userHashResponseDtoList.add(UserHashResponseDto.of(userHash));
+                userHash.setUserScore(0);
             }
+            roomStateCache.saveUsers(userList);
 
             Collections.sort(userHashResponseDtoList);
 
@@ -0,0 +1,337 @@
+package com.sevenight.coldcrayon.game.service;
+
+import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.game.dto.*;
+import com.sevenight.coldcrayon.game.entity.RoundPhase;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.RoundTimerService;
+import com.sevenight.coldcrayon.socket.service.StrokeLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 서버가 라운드 진행을 결정합니다.
+ * Ready -> Drawing -> Scoring -> NextRound(또는 GameOver) -> Drawing ...
+ * 상태 변경은 compare-and-set 으로만 하기 때문에 여러 클라이언트가 같은 요청을 보내도 한 번만 처리되고,
+ * 중복 요청은 Redis 조회 없이 바로 버려집니다.
+ * 라운드 마감(시간 초과)과 첫 정답도 endRound 를 한 번만 실행합니다.
+ * 첫 정답자도 메모리에서 compare-and-set 으로 한 명만 정하고, 맞혔을 때 라운드 타이머에 남은 시간이 많을수록 점수를 더 줍니다.
+ * (방장이 연장하거나 일시 정지한 시간도 타이머의 남은 시간, 전체 시간에 반영됩니다.)
+ */
+@Slf4j
+@Service
+public class RoundLifecycleService {
+
+    // 라운드 시간(초)
+    public static final int ROUND_TIME = 20;
+    // 첫 정답자 추가 점수: 라운드 시작 직후 최대, 마감 직전 최소
+    public static final int WINNER_MAX_SCORE = 5;
+    public static final int WINNER_MIN_SCORE = 1;
+    // 방장이 한 번에 늘릴 수 있는 라운드 시간(초)
+    public static final int MAX_EXTEND_SECONDS = 30;
+
+    private static final Set<RoundPhase> GAME_STARTABLE = EnumSet.of(RoundPhase.Ready, RoundPhase.GameOver);
+    private static final Set<RoundPhase> GAME_ENDABLE = EnumSet.of(RoundPhase.NextRound, RoundPhase.GameOver);
+
+    private final GameService gameService;
+    private final RoomBroadcaster roomBroadcaster;
+    private final RoundTimerService roundTimerService;
+    private final StrokeLog strokeLog;
+    // 타이머 스레드에서 endRound(Redis 작업)를 돌리지 않고, 같은 방의 다른 명령과 순서를 맞춘다.
+    private final RoomCommandExecutor roomCommandExecutor;
+
+    // roomIdx, 라운드 상태
+    private final Map<String, RoundState> states = new ConcurrentHashMap<>();
+
+    public RoundLifecycleService(GameService gameService, RoomBroadcaster roomBroadcaster, RoundTimerService roundTimerService,
+                                 StrokeLog strokeLog, RoomCommandExecutor roomCommandExecutor) {
+        this.gameService = gameService;
+        this.roomBroadcaster = roomBroadcaster;
+        this.roundTimerService = roundTimerService;
+        this.strokeLog = strokeLog;
+        this.roomCommandExecutor = roomCommandExecutor;
+    }
+
+    // 게임 시작
+    public void startGame(UserDto userDto, RoomHash roomHash) throws IOException {
+        String roomIdx = roomHash.getRoomIdx();
+        RoundState state = stateOf(roomIdx);
+        if (!state.transit(GAME_STARTABLE, RoundPhase.Drawing)) {
+            log.debug("이미 게임이 진행중입니다. roomIdx = {}, phase = {}", roomIdx, state.phase.get());
+            return;
+        }
+        state.answer = null;
+
+        GameRequestDto gameRequestDto = GameRequestDto.builder()
+                .gameCategory(roomHash.getGameCategory())
+                .maxRound(roomHash.getMaxRound())
+                .roomIdx(roomIdx)
+                .build();
+
+        ResponseGameDto responseGameDto;
+        try {
+            responseGameDto = gameService.startGame(userDto, gameRequestDto);
+        } catch (IOException | RuntimeException e) {
+            state.phase.set(RoundPhase.Ready);
+            throw e;
+        }
+        if (responseGameDto == null) {
+            state.phase.set(RoundPhase.Ready);
+            return;
+        }
+        TextMessage json = roomBroadcaster.encode(responseGameDto);
+
+        if ("success".equals(responseGameDto.getStatus())) {
+            state.round = 1;
+            state.maxRound = roomHash.getMaxRound();
+            startDeadline(roomIdx, state, responseGameDto.getCorrect());
+        } else {
+            state.phase.set(RoundPhase.Ready);
+        }
+
+        // 게임 정보 (실패 메시지도 그대로 전달)
+        roomBroadcaster.broadcast(roomIdx, json);
+    }
+
+    // 라운드 시작
+    public void nextRound(String roomIdx) throws IOException {
+        RoundState state = stateOf(roomIdx);
+        if (!state.transit(EnumSet.of(RoundPhase.NextRound), RoundPhase.Drawing)) {
+            log.debug("다음 라운드를 시작할 수 없습니다. roomIdx = {}, phase = {}", roomIdx, state.phase.get());
+            return;
+        }
+        state.answer = null;
+
+        RequestRoundDto requestRoundDto = RequestRoundDto.builder()
+                .roomIdx(roomIdx)
+                .build();
+
+        ResponseGameDto responseGameDto;
+        try {
+            responseGameDto = gameService.nextRound(requestRoundDto);      // type: gameDto로 기본 설정되어 있음
+        } catch (IOException | RuntimeException e) {
+            state.phase.set(RoundPhase.NextRound);
+            throw e;
+        }
+        if (responseGameDto == null || !"success".equals(responseGameDto.getStatus())) {
+            // 최대 라운드 초과 등
+            state.phase.set(RoundPhase.GameOver);
+        } else {
+            state.round++;
+            startDeadline(roomIdx, state, responseGameDto.getCorrect());
+        }
+        if (responseGameDto != null) {
+            roomBroadcaster.broadcast(roomIdx, responseGameDto);
+        }
+    }
+
+    // 라운드 종료: 시간 초과, 첫 정답 중 가장 먼저 온 것 하나만 처리된다.
+    // 클라이언트가 보내는 roundOver 는 받지 않는다. (누구나 라운드를 끝낼 수 있으므로 서버만 끝낸다.)
+    // round: 마감 타이머처럼 특정 라운드에 대한 요청이면 해당 라운드 번호, 아니면 0
+    public boolean endRound(String roomIdx, int round) throws IOException {
+        RoundState state = states.get(roomIdx);
+        if (state == null || (round > 0 && state.round != round)) {
+            return false;
+        }
+        if (!state.transit(EnumSet.of(RoundPhase.Drawing), RoundPhase.Scoring)) {
+            log.debug("이미 종료된 라운드입니다. roomIdx = {}, phase = {}", roomIdx, state.phase.get());
+            return false;
+        }
+        roundTimerService.cancel(roomIdx);
+
+        // 정답을 닫는다. 이 뒤에 온 정답은 이번 라운드 점수에 들어가지 않는다.
+        RoundAnswer answer = state.answer;
+        Winner winner = answer == null ? null : answer.close();
+
+        RequestRoundDto requestRoundDto = RequestRoundDto.builder()
+                .roomIdx(roomIdx)
+                .build();
+
+        ResponseRoundDto responseRoundDto;
+        try {
+            if (winner == null) {
+                // 정답자 없음 (-1)
+                responseRoundDto = gameService.endRound(requestRoundDto, -1L, WINNER_MIN_SCORE);
+            } else {
+                responseRoundDto = gameService.endRound(requestRoundDto, winner.userIdx, scoreOf(winner.remainingRatio));
+                responseRoundDto.setAnswerNanos(winner.latencyNanos);
+            }
+        } finally {
+            // 점수 계산이 실패해도 방이 멈추지 않도록 다음 상태로 넘긴다.
+            state.phase.set(state.round >= state.maxRound ? RoundPhase.GameOver : RoundPhase.NextRound);
+        }
+        responseRoundDto.setType("roundOver");
+
+        roomBroadcaster.broadcast(roomIdx, responseRoundDto);
+        // 이번 라운드 그림은 더 이상 필요 없다.
+        strokeLog.release(roomIdx);
+        return true;
+    }
+
+    // 게임 종료
+    public void endGame(String roomIdx) throws IOException {
+        RoundState state = stateOf(roomIdx);
+        if (!state.transit(GAME_ENDABLE, RoundPhase.Ready)) {
+            log.debug("게임을 종료할 수 없습니다. roomIdx = {}, phase = {}", roomIdx, state.phase.get());
+            return;
+        }
+        GameEndDto gameEndDto = gameService.endGame(roomIdx);
+
+        roomBroadcaster.broadcast(roomIdx, gameEndDto);
+    }
+
+    // 정답 제출: 이번 라운드의 첫 정답이면 true (Redis 를 거치지 않는다.)
+    // 동시에 맞혀도 compare-and-set 에 성공한 한 명만 정답자가 된다.
+    public boolean submitAnswer(String roomIdx, Long userIdx, String text) {
+        RoundState state = states.get(roomIdx);
+        if (state == null || state.phase.get() != RoundPhase.Drawing) {
+            return false;
+        }
+        RoundAnswer answer = state.answer;
+        if (answer == null || text == null) {
+            return false;
+        }
+        long latencyNanos = System.nanoTime() - answer.startedNanos;
+        String guess = AnswerNormalizer.normalize(text);
+        if (guess.isEmpty() || !answer.correct.equals(guess)) {
+            return false;
+        }
+        if (!answer.winner.compareAndSet(null, new Winner(userIdx, latencyNanos, roundTimerService.remainingRatio(roomIdx)))) {
+            return false;
+        }
+        log.debug("첫 정답자 roomIdx = {}, userIdx = {}, latency = {}ns", roomIdx, userIdx, latencyNanos);
+        return true;
+    }
+
+    // 방장의 라운드 시간 조절: 그리는 중인 라운드에만 적용된다.
+    public boolean pauseRound(String roomIdx) {
+        return getPhase(roomIdx) == RoundPhase.Drawing && roundTimerService.pause(roomIdx);
+    }
+
+    public boolean resumeRound(String roomIdx) {
+        return getPhase(roomIdx) == RoundPhase.Drawing && roundTimerService.resume(roomIdx);
+    }
+
+    public boolean extendRound(String roomIdx, int seconds) {
+        if (seconds <= 0 || getPhase(roomIdx) != RoundPhase.Drawing) {
+            return false;
+        }
+        return roundTimerService.extend(roomIdx, Math.min(seconds, MAX_EXTEND_SECONDS));
+    }
+
+    public RoundPhase getPhase(String roomIdx) {
+        RoundState state = states.get(roomIdx);
+        return state == null ? RoundPhase.Ready : state.phase.get();
+    }
+
+    // 방에 아무도 남지 않았을 때
+    public void release(String roomIdx) {
+        states.remove(roomIdx);
+        roundTimerService.cancel(roomIdx);
+    }
+
+    public Map<RoundPhase, Integer> getStats() {
+        Map<RoundPhase, Integer> stats = new EnumMap<>(RoundPhase.class);
+        for (RoundState state : states.values()) {
+            stats.merge(state.phase.get(), 1, Integer::sum);
+        }
+        return stats;
+    }
+
+    // 남은 시간이 많을수록(remainingRatio 가 1 에 가까울수록) WINNER_MAX_SCORE 에 가깝다.
+    static int scoreOf(double remainingRatio) {
+        double remaining = Math.min(1.0, Math.max(0.0, remainingRatio));
+        return WINNER_MIN_SCORE + (int) Math.round((WINNER_MAX_SCORE - WINNER_MIN_SCORE) * remaining);
+    }
+
+    private void startDeadline(String roomIdx, RoundState state, String correct) {
+        int round = state.round;
+        // 라운드 사이에 그린 것은 새 라운드 그림이 아니다.
+        strokeLog.release(roomIdx);
+        // 정답은 라운드마다 한 번만 정규화해 둔다.
+        // 정규화해서 남는 글자가 없는 정답(null, 문장부호뿐인 제시어)은 걸지 않는다. (빈 입력이 정답이 되지 않도록, 시간 초과로만 끝난다.)
+        String normalized = AnswerNormalizer.normalize(correct);
+        if (normalized.isEmpty()) {
+            log.warn("정답이 비어 있어 이번 라운드는 정답을 받지 않습니다. roomIdx = {}, round = {}, correct = {}", roomIdx, round, correct);
+            state.answer = null;
+        } else {
+            state.answer = new RoundAnswer(normalized, System.nanoTime());
+        }
+        roundTimerService.startCountdown(roomIdx, ROUND_TIME, () -> roomCommandExecutor.execute(roomIdx, "roundDeadline", () -> {
+            if (endRound(roomIdx, round)) {
+                log.info("시간 초과로 라운드를 종료했습니다. roomIdx = {}, round = {}", roomIdx, round);
+            }
+        }));
+    }
+
+    private RoundState stateOf(String roomIdx) {
+        return states.computeIfAbsent(roomIdx, key -> new RoundState());
+    }
+
+    private static class RoundState {
+        private final AtomicReference<RoundPhase> phase = new AtomicReference<>(RoundPhase.Ready);
+        private volatile int round;
+        private volatile int maxRound;
+        // 진행중인 라운드의 정답 (라운드를 준비하는 동안은 null)
+        private volatile RoundAnswer answer;
+
+        boolean transit(Set<RoundPhase> from, RoundPhase to) {
+            while (true) {
+                RoundPhase current = phase.get();
+                if (!from.contains(current)) {
+                    return false;
+                }
+                if (phase.compareAndSet(current, to)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    private static class RoundAnswer {
+        // 정답이 닫힌 뒤 자리표시
+        private static final Winner CLOSED = new Winner(null, 0L, 0.0);
+
+        private final String correct;
+        private final long startedNanos;
+        private final AtomicReference<Winner> winner = new AtomicReference<>();
+
+        RoundAnswer(String correct, long startedNanos) {
+            this.correct = correct;
+            this.startedNanos = startedNanos;
+        }
+
+        // 정답자가 있으면 돌려주고, 없으면 더 이상 정답을 받지 않는다.
+        Winner close() {
+            if (winner.compareAndSet(null, CLOSED)) {
+                return null;
+            }
+            Winner current = winner.get();
+            return current == CLOSED ? null : current;
+        }
+    }
+
+    private static class Winner {
+        private final Long userIdx;
+        private final long latencyNanos;
+        // 맞혔을 때 타이머의 남은 시간 / 전체 시간
+        private final double remainingRatio;
+
+        Winner(Long userIdx, long latencyNanos, double remainingRatio) {
+            this.userIdx = userIdx;
+            this.latencyNanos = latencyNanos;
+            this.remainingRatio = remainingRatio;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.sevenight.coldcrayon.ngword.controller;
+
+import com.sevenight.coldcrayon.auth.service.AuthService;
+import com.sevenight.coldcrayon.ngword.service.NgwordService;
+import com.sevenight.coldcrayon.util.HeaderUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/ngword")
+@RequiredArgsConstructor
+public class NgwordController {
+
+    private final NgwordService ngwordService;
+    private final AuthService authService;
+
+    // 금지어 테이블이나 파일을 바꾼 뒤 관리자만 호출 (새 목록은 다 만들어지면 적용된다.)
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload(@RequestHeader String Authorization){
+        Map<String, Object> data = new HashMap<>();
+        if (!authService.isAdmin(HeaderUtil.getAccessTokenString(Authorization))) {
+            data.put("status", "fail");
+            data.put("message", "관리자만 금지어 목록을 다시 읽을 수 있습니다.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(data);
+        }
+        boolean queued = ngwordService.reload();
+        data.put("status", "success");
+        data.put("message", queued ? "금지어 목록을 다시 읽습니다." : "이미 다시 읽기를 기다리고 있습니다.");
+        return ResponseEntity.ok().body(data);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(){
+        return ResponseEntity.ok().body(ngwordService.getStats());
+    }
+}
@@ -0,0 +1,26 @@
+package com.sevenight.coldcrayon.ngword.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class NgwordStatsDto {
+
+    // 지금 쓰고 있는 금지어 수와 automaton 상태 수
+    private int patterns;
+    private int states;
+
+    // 마지막으로 목록을 읽은 시각과 만드는 데 걸린 시간
+    private LocalDateTime loadedAt;
+    private long buildMillis;
+
+    // 검사한 메시지 수, 금지어를 가린 메시지 수
+    private long checked;
+    private long masked;
+}
@@ -1,32 +1,27 @@
-//package com.sevenight.coldcrayon.ngword.entity;
-//
-//
-//import javax.persistence.Column;
-//import javax.persistence.GeneratedValue;
-//import javax.persistence.GenerationType;
-//import javax.persistence.Id;
-//
-////import org.springframework.data.mongodb.core.mapping.Document;
-//
-//import lombok.AllArgsConstructor;
-//import lombok.Builder;
-//import lombok.Getter;
-//import lombok.NoArgsConstructor;
-//import lombok.Setter;
-//import lombok.ToString;
-//
-//@Document
-//@Getter @Setter
-//@NoArgsConstructor
-//@AllArgsConstructor
-//@Builder
-//@ToString
-//public class Ngword {
-//
-//	@Id @GeneratedValue(strategy = GenerationType.IDENTITY)
-//	@Column(name="ngword_idx")
-//	private int ngwordIdx;
-//
-//	@Column(name="ngword_contest")
-//	private String ngwordContent;
-//}
+package com.sevenight.coldcrayon.ngword.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import javax.persistence.*;
+
+// 채팅 금지어
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class Ngword {
+
+	@Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="ngword_idx")
+	private int ngwordIdx;
+
+	@Column(name="ngword_content")
+	private String ngwordContent;
+}
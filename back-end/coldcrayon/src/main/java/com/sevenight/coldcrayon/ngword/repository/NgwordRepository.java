@@ -0,0 +1,10 @@
+package com.sevenight.coldcrayon.ngword.repository;
+
+import com.sevenight.coldcrayon.ngword.entity.Ngword;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NgwordRepository extends JpaRepository<Ngword, Integer> {
+
+}
@@ -0,0 +1,153 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import java.util.*;
+
+// 금지어 Aho-Corasick automaton (만든 뒤에는 바뀌지 않으므로 여러 스레드가 같이 써도 된다.)
+// 상태마다 나가는 간선을 글자 순으로 정렬해서 한 배열에 모아 두고 이진 탐색한다. (루트만 65536 칸 표)
+// 메시지 한 번 훑는 동안 끝나는 금지어 중 가장 긴 것의 길이를 outLength 로 바로 알 수 있다.
+final class NgwordAutomaton {
+
+    static final NgwordAutomaton EMPTY = build(Collections.emptyList());
+
+    private final int[] root;
+    private final int[] edgeStart;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    private final int[] outLength;
+    private final int patterns;
+
+    private NgwordAutomaton(int[] root, int[] edgeStart, char[] edgeLabels, int[] edgeTargets,
+                            int[] fail, int[] outLength, int patterns) {
+        this.root = root;
+        this.edgeStart = edgeStart;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.outLength = outLength;
+        this.patterns = patterns;
+    }
+
+    // patterns: 정규화가 끝난 금지어
+    static NgwordAutomaton build(Collection<String> patterns) {
+        // 1. trie
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> depthEnd = new ArrayList<>();
+        children.add(new TreeMap<>());
+        depthEnd.add(0);
+        int count = 0;
+        for (String pattern : patterns) {
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = children.get(state).get(pattern.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    depthEnd.add(0);
+                    children.get(state).put(pattern.charAt(i), next);
+                }
+                state = next;
+            }
+            depthEnd.set(state, pattern.length());
+            count++;
+        }
+
+        // 2. 간선을 배열로
+        int states = children.size();
+        int edges = states - 1;
+        int[] edgeStart = new int[states + 1];
+        char[] edgeLabels = new char[edges];
+        int[] edgeTargets = new int[edges];
+        int[] root = new int[Character.MAX_VALUE + 1];
+        int offset = 0;
+        for (int state = 0; state < states; state++) {
+            edgeStart[state] = offset;
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                edgeLabels[offset] = edge.getKey();
+                edgeTargets[offset] = edge.getValue();
+                offset++;
+            }
+        }
+        edgeStart[states] = offset;
+        for (Map.Entry<Character, Integer> edge : children.get(0).entrySet()) {
+            root[edge.getKey()] = edge.getValue();
+        }
+
+        // 3. 실패 링크 (BFS), 끝나는 금지어 길이는 실패 링크 쪽과 비교해서 긴 것
+        int[] fail = new int[states];
+        int[] outLength = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            outLength[child] = depthEnd.get(child);
+            queue.add(child);
+        }
+        NgwordAutomaton partial = new NgwordAutomaton(root, edgeStart, edgeLabels, edgeTargets, fail, outLength, count);
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int e = edgeStart[state]; e < edgeStart[state + 1]; e++) {
+                int child = edgeTargets[e];
+                int f = partial.next(fail[state], edgeLabels[e]);
+                fail[child] = f;
+                outLength[child] = Math.max(depthEnd.get(child), outLength[f]);
+                queue.add(child);
+            }
+        }
+        return partial;
+    }
+
+    int getPatterns() {
+        return patterns;
+    }
+
+    int getStates() {
+        return fail.length;
+    }
+
+    // 금지어가 있는 구간 [시작, 끝] (정규화된 문자열 기준, 없으면 null)
+    List<int[]> find(char[] text, int length) {
+        List<int[]> found = null;
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            state = next(state, text[i]);
+            int matched = outLength[state];
+            if (matched > 0) {
+                if (found == null) {
+                    found = new ArrayList<>();
+                }
+                found.add(new int[]{i - matched + 1, i});
+            }
+        }
+        return found;
+    }
+
+    private int next(int state, char c) {
+        while (state != 0) {
+            int target = edge(state, c);
+            if (target >= 0) {
+                return target;
+            }
+            state = fail[state];
+        }
+        return root[c];
+    }
+
+    private int edge(int state, char c) {
+        int low = edgeStart[state];
+        int high = edgeStart[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeLabels[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+// 금지어와 채팅을 같은 형태로 바꾼다.
+// 1. 한글 음절은 초성/중성/종성 자모로 풀고, 받침은 같은 소리의 초성으로 바꾼다. (ㅅㅂ, 시ㅂ, 십 이 같은 자모열)
+// 2. 호환 자모(ㄱ, ㅏ), 전각 문자, 악센트 문자는 NFKD 로 기본 문자로 바꾼다.
+// 3. 소문자로 바꾸고 비슷하게 생긴 문자(0 -> o, @ -> a, 키릴 문자 등)를 하나로 맞춘다.
+// 4. 글자, 숫자가 아닌 것(띄어쓰기, 기호, zero-width 문자)은 버린다.
+// 바뀐 문자마다 원래 문장의 위치를 기억해서, 찾은 금지어를 원문에서 가릴 수 있게 한다.
+final class NgwordNormalizer {
+
+    private static final int SYLLABLE_BASE = 0xAC00;
+    private static final int SYLLABLE_LAST = 0xD7A3;
+    private static final int CHOSEONG_BASE = 0x1100;
+    private static final int JUNGSEONG_BASE = 0x1161;
+    private static final int JONGSEONG_BASE = 0x11A7;
+    private static final int JONGSEONG_FIRST = 0x11A8;
+    private static final int JONGSEONG_LAST = 0x11C2;
+
+    // 받침 -> 초성 (겹받침은 두 글자)
+    // ㄱ ㄲ ㄳ ㄴ ㄵ ㄶ ㄷ / ㄹ ㄺ ㄻ ㄼ ㄽ ㄾ / ㄿ ㅀ ㅁ ㅂ ㅄ ㅅ ㅆ / ㅇ ㅈ ㅊ ㅋ ㅌ ㅍ ㅎ
+    private static final String[] JONGSEONG_TO_CHOSEONG = {
+            "\u1100", "\u1101", "\u1100\u1109", "\u1102", "\u1102\u110C", "\u1102\u1112", "\u1103",
+            "\u1105", "\u1105\u1100", "\u1105\u1106", "\u1105\u1107", "\u1105\u1109", "\u1105\u1110",
+            "\u1105\u1111", "\u1105\u1112", "\u1106", "\u1107", "\u1107\u1109", "\u1109", "\u110A",
+            "\u110B", "\u110C", "\u110E", "\u110F", "\u1110", "\u1111", "\u1112"
+    };
+
+    // 비슷하게 생긴 문자 (소문자로 바꾼 뒤에 적용)
+    private static final char[] LOOK_ALIKE = new char[0x500];
+
+    static {
+        for (char c = 0; c < LOOK_ALIKE.length; c++) {
+            LOOK_ALIKE[c] = c;
+        }
+        lookAlike("0", 'o');
+        lookAlike("1!|", 'i');
+        lookAlike("3", 'e');
+        lookAlike("4@", 'a');
+        lookAlike("5$", 's');
+        lookAlike("7", 't');
+        lookAlike("8", 'b');
+        // 키릴, 그리스 문자
+        lookAlike("аα", 'a');
+        lookAlike("еε", 'e');
+        lookAlike("оο", 'o');
+        lookAlike("рρ", 'p');
+        lookAlike("с", 'c');
+        lookAlike("у", 'y');
+        lookAlike("хχ", 'x');
+        lookAlike("іι", 'i');
+        lookAlike("ѕ", 's');
+        lookAlike("кκ", 'k');
+        lookAlike("м", 'm');
+        lookAlike("н", 'h');
+        lookAlike("тτ", 't');
+        lookAlike("вβ", 'b');
+        lookAlike("ν", 'v');
+    }
+
+    private NgwordNormalizer() {
+    }
+
+    private static void lookAlike(String from, char to) {
+        for (char c : from.toCharArray()) {
+            LOOK_ALIKE[c] = to;
+        }
+    }
+
+    static Normalized normalize(String text) {
+        Normalized out = new Normalized(text.length() * 3);
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            append(out, cp, i);
+            i += Character.charCount(cp);
+        }
+        return out;
+    }
+
+    private static void append(Normalized out, int cp, int origin) {
+        if (cp < 0x80) {
+            appendChar(out, cp, origin);
+        } else if (cp >= SYLLABLE_BASE && cp <= SYLLABLE_LAST) {
+            // 한글 음절은 계산으로 자모를 구한다.
+            int index = cp - SYLLABLE_BASE;
+            out.add((char) (CHOSEONG_BASE + index / 588), origin);
+            out.add((char) (JUNGSEONG_BASE + (index % 588) / 28), origin);
+            int jong = index % 28;
+            if (jong != 0) {
+                appendJamo(out, JONGSEONG_BASE + jong, origin);
+            }
+        } else if (cp >= 0xFF01 && cp <= 0xFF5E) {
+            // 전각 ASCII
+            appendChar(out, cp - 0xFEE0, origin);
+        } else if (cp >= 0x1100 && cp <= 0x11FF) {
+            appendJamo(out, cp, origin);
+        } else if (Character.getType(cp) == Character.FORMAT || Character.getType(cp) == Character.NON_SPACING_MARK) {
+            // zero-width 문자, 결합 문자
+        } else {
+            String decomposed = Normalizer.normalize(new String(Character.toChars(cp)), Normalizer.Form.NFKD);
+            for (int j = 0; j < decomposed.length(); ) {
+                int part = decomposed.codePointAt(j);
+                j += Character.charCount(part);
+                if (part >= 0x1100 && part <= 0x11FF) {
+                    appendJamo(out, part, origin);
+                } else if (Character.getType(part) != Character.NON_SPACING_MARK) {
+                    appendChar(out, part, origin);
+                }
+            }
+        }
+    }
+
+    private static void appendJamo(Normalized out, int jamo, int origin) {
+        if (jamo >= JONGSEONG_FIRST && jamo <= JONGSEONG_LAST) {
+            String choseong = JONGSEONG_TO_CHOSEONG[jamo - JONGSEONG_FIRST];
+            for (int k = 0; k < choseong.length(); k++) {
+                out.add(choseong.charAt(k), origin);
+            }
+        } else {
+            out.add((char) jamo, origin);
+        }
+    }
+
+    private static void appendChar(Normalized out, int cp, int origin) {
+        int lower = Character.toLowerCase(cp);
+        if (lower < LOOK_ALIKE.length) {
+            lower = LOOK_ALIKE[lower];
+        }
+        if (lower <= Character.MAX_VALUE && Character.isLetterOrDigit(lower)) {
+            out.add((char) lower, origin);
+        }
+    }
+
+    // 바꾼 문자열과 문자마다 원래 문장에서의 위치
+    static final class Normalized {
+        char[] chars;
+        int[] origins;
+        int length;
+
+        Normalized(int capacity) {
+            this.chars = new char[Math.max(capacity, 8)];
+            this.origins = new int[chars.length];
+        }
+
+        void add(char c, int origin) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, length * 2);
+                origins = Arrays.copyOf(origins, length * 2);
+            }
+            chars[length] = c;
+            origins[length] = origin;
+            length++;
+        }
+
+        String text() {
+            return new String(chars, 0, length);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import com.sevenight.coldcrayon.ngword.dto.NgwordStatsDto;
+
+public interface NgwordService {
+
+    // 금지어를 * 로 가린 문장 (금지어가 없으면 받은 문자열 그대로)
+    String filter(String message);
+
+    // 금지어 목록을 다시 읽는다. (다른 스레드에서 만들고, 다 만들면 바꿔 끼운다.)
+    // 이미 기다리는 다시 읽기가 있으면 그것과 합치고 false
+    boolean reload();
+
+    NgwordStatsDto getStats();
+}
@@ -0,0 +1,165 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import com.sevenight.coldcrayon.ngword.dto.NgwordStatsDto;
+import com.sevenight.coldcrayon.ngword.entity.Ngword;
+import com.sevenight.coldcrayon.ngword.repository.NgwordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 채팅 금지어 필터
+ * 1. ngword 테이블과 chat.ngword.file(한 줄에 하나, # 은 주석)에서 금지어를 읽어 Aho-Corasick automaton 을 만듭니다.
+ * 2. automaton 은 loader 스레드에서 만들고, 다 만들면 AtomicReference 로 바꿔 끼웁니다. (읽기 실패하면 기존 목록 유지)
+ *    아직 시작하지 않은 다시 읽기가 있으면 새 요청은 그것과 합칩니다. (loader 에는 한 번에 하나만 쌓인다.)
+ * 3. 메시지는 정규화한 뒤 한 번만 훑어서 찾고, 찾은 구간을 원문에서 * 로 가립니다.
+ */
+@Slf4j
+@Service
+public class NgwordServiceImpl implements NgwordService {
+
+    private static final char MASK = '*';
+
+    private final NgwordRepository ngwordRepository;
+    private final String wordFile;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("ngword-loader-"));
+
+    // loader 에 넣었지만 아직 시작하지 않은 다시 읽기가 있는지
+    private final AtomicBoolean reloadPending = new AtomicBoolean();
+
+    private final AtomicReference<NgwordAutomaton> automaton = new AtomicReference<>(NgwordAutomaton.EMPTY);
+    private volatile LocalDateTime loadedAt;
+    private volatile long buildMillis;
+
+    private final AtomicLong checked = new AtomicLong();
+    private final AtomicLong masked = new AtomicLong();
+
+    public NgwordServiceImpl(NgwordRepository ngwordRepository,
+                             @Value("${chat.ngword.file:}") String wordFile) {
+        this.ngwordRepository = ngwordRepository;
+        this.wordFile = wordFile;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    public String filter(String message) {
+        NgwordAutomaton current = automaton.get();
+        if (message == null || message.isEmpty() || current.getPatterns() == 0) {
+            return message;
+        }
+        checked.incrementAndGet();
+        NgwordNormalizer.Normalized normalized = NgwordNormalizer.normalize(message);
+        List<int[]> found = current.find(normalized.chars, normalized.length);
+        if (found == null) {
+            return message;
+        }
+
+        // 정규화된 구간을 원문 구간으로 바꿔서 가린다. (띄어쓰기는 그대로 둔다.)
+        masked.incrementAndGet();
+        char[] chars = message.toCharArray();
+        for (int[] range : found) {
+            int from = normalized.origins[range[0]];
+            int last = normalized.origins[range[1]];
+            int to = last + Character.charCount(message.codePointAt(last));
+            for (int i = from; i < to; i++) {
+                if (!Character.isWhitespace(chars[i])) {
+                    chars[i] = MASK;
+                }
+            }
+        }
+        return new String(chars);
+    }
+
+    public boolean reload() {
+        if (!reloadPending.compareAndSet(false, true)) {
+            return false;
+        }
+        loader.execute(() -> {
+            // 읽기 시작한 뒤에 온 요청은 바뀐 목록을 놓치지 않도록 한 번 더 읽는다.
+            reloadPending.set(false);
+            rebuild();
+        });
+        return true;
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            Set<String> patterns = new LinkedHashSet<>();
+            for (String word : loadWords()) {
+                NgwordNormalizer.Normalized normalized = NgwordNormalizer.normalize(word);
+                if (normalized.length > 0) {
+                    patterns.add(normalized.text());
+                }
+            }
+            NgwordAutomaton next = NgwordAutomaton.build(patterns);
+            automaton.set(next);
+            loadedAt = LocalDateTime.now();
+            buildMillis = System.currentTimeMillis() - start;
+            log.info("금지어 목록을 읽었습니다. patterns = {}, states = {}, {}ms", next.getPatterns(), next.getStates(), buildMillis);
+        } catch (IOException | RuntimeException e) {
+            log.error("금지어 목록 읽기 실패, 기존 목록을 그대로 씁니다. e = {}", e.toString());
+        }
+    }
+
+    private Set<String> loadWords() throws IOException {
+        Set<String> words = new LinkedHashSet<>();
+        for (Ngword ngword : ngwordRepository.findAll()) {
+            if (ngword.getNgwordContent() != null) {
+                words.add(ngword.getNgwordContent().trim());
+            }
+        }
+        if (!wordFile.isBlank()) {
+            Resource resource = new DefaultResourceLoader().getResource(wordFile);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && !line.startsWith("#")) {
+                        words.add(line);
+                    }
+                }
+            }
+        }
+        return words;
+    }
+
+    public NgwordStatsDto getStats() {
+        NgwordAutomaton current = automaton.get();
+        return NgwordStatsDto.builder()
+                .patterns(current.getPatterns())
+                .states(current.getStates())
+                .loadedAt(loadedAt)
+                .buildMillis(buildMillis)
+                .checked(checked.get())
+                .masked(masked.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loader.shutdown();
+    }
+}
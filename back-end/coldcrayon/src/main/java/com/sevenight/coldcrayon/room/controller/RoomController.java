@@ -1,9 +1,11 @@
 package com.sevenight.coldcrayon.room.controller;
 import com.sevenight.coldcrayon.auth.dto.UserDto;
 import com.sevenight.coldcrayon.auth.service.AuthService;
+import com.sevenight.coldcrayon.game.entity.GameCategory;
 import com.sevenight.coldcrayon.room.dto.RoomDto;
 import com.sevenight.coldcrayon.room.dto.RoomRequestDto;
 import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
+import com.sevenight.coldcrayon.room.service.MatchmakingService;
 import com.sevenight.coldcrayon.room.service.RoomService;
 import com.sevenight.coldcrayon.util.HeaderUtil;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +26,7 @@ public class RoomController {
 
     private final RoomService roomService;
     private final AuthService authService;
+    private final MatchmakingService matchmakingService;
 
     @PostMapping("/create")
     public ResponseEntity<?> createRoom(@RequestHeader String Authorization){
@@ -71,6 +74,36 @@ public class RoomController {
     }
 
 
+    // 빠른 시작: 게임 종류만 보내면 방을 찾아서 /ws 유저 알림으로 matched {roomIdx} 를 보낸다.
+    @PostMapping("/quick-match")
+    public ResponseEntity<?> quickMatch(@RequestHeader String Authorization, @RequestBody RoomRequestDto roomRequestDto){
+        UserDto user = authService.selectOneMember(HeaderUtil.getAccessTokenString(Authorization));
+        return ResponseEntity.ok().body(matchmakingService.enqueue(user, roomRequestDto.getGameCategory()));
+    }
+
+    @DeleteMapping("/quick-match")
+    public ResponseEntity<?> cancelQuickMatch(@RequestHeader String Authorization){
+        UserDto user = authService.selectOneMember(HeaderUtil.getAccessTokenString(Authorization));
+        return ResponseEntity.ok().body(matchmakingService.cancel(user));
+    }
+
+    // 로비: 들어갈 수 있는 방 목록 (category, 현재 인원 범위로 거르고 page 단위로 조회)
+    // 이후 변경은 /ws 의 lobby 채널로 lobbyDiff 가 온다.
+    @GetMapping("/lobby")
+    public ResponseEntity<?> getLobbyRooms(@RequestParam(required = false) GameCategory category,
+                                           @RequestParam(defaultValue = "0") int minNow,
+                                           @RequestParam(defaultValue = "" + Integer.MAX_VALUE) int maxNow,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok().body(roomService.getLobbyRooms(category, minNow, maxNow, page, size));
+    }
+
+    // 방 주인 노드 조회 (프록시나 클라이언트가 주인 노드로 바로 접속할 때 사용)
+    @GetMapping("/{roomIdx}/owner")
+    public ResponseEntity<?> getRoomOwner(@PathVariable String roomIdx){
+        return ResponseEntity.ok().body(roomService.getRoomOwner(roomIdx));
+    }
+
     @GetMapping("/{roomIdx}")
     public ResponseEntity<RoomResponseDto> getRoom(@RequestHeader String Authorization, @PathVariable String roomIdx){
         RoomResponseDto roomResponseDto = roomService.getRoom(roomIdx);
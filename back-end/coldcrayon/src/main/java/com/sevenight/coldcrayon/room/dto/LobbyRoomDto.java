@@ -0,0 +1,37 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import com.sevenight.coldcrayon.game.entity.GameCategory;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class LobbyRoomDto {
+
+    private String roomIdx;
+
+    private GameCategory gameCategory;
+
+    // 방의 현재 인원 수, 최대 인원 수
+    private int roomNow;
+    private int roomMax;
+
+    private int maxRound;
+
+    private Long adminUserIdx;
+
+    public static LobbyRoomDto of(RoomHash roomHash) {
+        return LobbyRoomDto.builder()
+                .roomIdx(roomHash.getRoomIdx())
+                .gameCategory(roomHash.getGameCategory())
+                .roomNow(roomHash.getRoomNow())
+                .roomMax(roomHash.getRoomMax())
+                .maxRound(roomHash.getMaxRound())
+                .adminUserIdx(roomHash.getAdminUserIdx())
+                .build();
+    }
+}
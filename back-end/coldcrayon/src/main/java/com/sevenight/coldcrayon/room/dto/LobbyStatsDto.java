@@ -0,0 +1,23 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class LobbyStatsDto {
+
+    // 로비 목록에 있는 방 수 (들어갈 수 있는 방)
+    private long openRooms;
+
+    // 로비 목록 조회 수, 조회하다 지워진 방을 목록에서 뺀 수
+    private long listings;
+    private long staleRemoved;
+
+    // 방 변경 요청 수 (push-ms 로 합쳐지기 전), 보낸 lobbyDiff 수
+    private long changes;
+    private long pushes;
+}
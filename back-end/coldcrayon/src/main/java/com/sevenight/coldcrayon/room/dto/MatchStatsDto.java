@@ -0,0 +1,36 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class MatchStatsDto {
+
+    // 지금 기다리는 유저 수
+    private int waiting;
+
+    // 빠른 시작 요청 수, 대기 인원이 많아서 거절한 수, 취소한 수
+    private long enqueued;
+    private long rejected;
+    private long cancelled;
+
+    // 방을 찾은 유저 수 (있던 방에 들어간 수, 새로 만든 방 수), 실패한 수
+    private long matched;
+    private long joinedExisting;
+    private long roomsCreated;
+    private long failed;
+
+    // 돌린 batch 수, 최근 10초 동안 초당 방을 찾은 유저 수
+    private long batches;
+    private double matchedPerSecond;
+
+    // 최근 방을 찾은 유저들의 대기 시간
+    private long waitP50Millis;
+    private long waitP90Millis;
+    private long waitP99Millis;
+    private long waitMaxMillis;
+}
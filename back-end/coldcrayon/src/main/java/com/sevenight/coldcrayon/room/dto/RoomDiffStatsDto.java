@@ -0,0 +1,25 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomDiffStatsDto {
+
+    // 마지막 전송 상태를 들고 있는 방 수
+    private int rooms;
+
+    // 방 정보 변경 요청 수 (debounce 로 합쳐지기 전)
+    private long requested;
+
+    // 보낸 roomDiff 수, 다시 읽었더니 바뀐 것이 없어서 안 보낸 수
+    private long diffs;
+    private long unchanged;
+
+    // 한 세션에게 보낸 전체 상태 수
+    private long snapshots;
+}
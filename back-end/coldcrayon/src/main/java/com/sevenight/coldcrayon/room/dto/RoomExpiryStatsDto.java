@@ -0,0 +1,26 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomExpiryStatsDto {
+
+    // 만료 목록에 있는 방 수, 다음 기록 때 만료 시각을 미룰 방 수
+    private long tracked;
+    private int pendingTouches;
+
+    // 만료 시각을 미룬 방 수 (활동 기록)
+    private long touched;
+
+    // sweep 횟수, 정리한 방/유저/이미지 폴더 수, 이미지 파일 크기
+    private long sweeps;
+    private long roomsReclaimed;
+    private long usersReclaimed;
+    private long imageDirsDeleted;
+    private long imageBytesDeleted;
+}
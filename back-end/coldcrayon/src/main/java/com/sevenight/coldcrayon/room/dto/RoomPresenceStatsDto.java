@@ -0,0 +1,28 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomPresenceStatsDto {
+
+    // 이 노드에 접속한 유저가 있는 방 수, 접속중인 유저 수
+    private int rooms;
+    private int members;
+
+    // 끊기고 나서 다시 들어오길 기다리는 유저 수
+    private int departing;
+
+    // 참여 목록에는 있는데 세션이 없어서 지켜보는 중인 유저 수
+    private int suspects;
+
+    // grace-ms 안에 다시 들어오지 않아서 내보낸 유저 수
+    private long disconnectedPurged;
+
+    // 정리 작업이 찾아서 내보낸 유령 유저 수
+    private long ghostsPurged;
+}
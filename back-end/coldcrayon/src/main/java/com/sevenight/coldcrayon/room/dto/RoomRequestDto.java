@@ -1,5 +1,6 @@
 package com.sevenight.coldcrayon.room.dto;
 
+import com.sevenight.coldcrayon.game.entity.GameCategory;
 import lombok.*;
 
 @Builder
@@ -15,4 +16,7 @@ public class RoomRequestDto {
     private Long toUserIdx;
 
     private int roomMax;
+
+    // 빠른 시작 게임 종류
+    private GameCategory gameCategory;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomRosterDto {
+
+    // fail, success 중에 하나
+    private String status;
+
+    // noRoom, otherRoom, playing, full, notAdmin, noTarget (fail)
+    // joined, member, left, adminChanged, deleted (success)
+    private String reason;
+
+    // 스크립트가 끝난 뒤의 방장, 현재 인원, 참여 유저 (들어온 순서)
+    private Long adminUserIdx;
+    private int roomNow;
+    private List<Long> roster;
+
+    public boolean isSuccess() {
+        return "success".equals(status);
+    }
+}
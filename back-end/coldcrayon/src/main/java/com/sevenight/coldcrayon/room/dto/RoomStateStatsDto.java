@@ -0,0 +1,31 @@
+package com.sevenight.coldcrayon.room.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomStateStatsDto {
+
+    // 이 노드가 메모리에 들고 있는 방/유저 수
+    private int cachedRooms;
+    private int cachedUsers;
+
+    // 아직 Redis 에 쓰지 않은 방/유저 수
+    private int dirty;
+
+    // 메모리에서 바로 읽은 횟수, Redis 에서 읽은 횟수
+    private long hits;
+    private long misses;
+
+    // write-behind 로 보낸 pipeline 수와 필드 수
+    private long flushes;
+    private long fieldsWritten;
+
+    // 방 유저 여러 명을 한 번에 읽고 쓴 횟수
+    private long batchReads;
+    private long batchWrites;
+}
@@ -40,4 +40,7 @@ public class RoomHash {
     private String correct;
 
     private Long correctUser = -1L;
+
+    // 방 타이머와 상태를 가진 실시간 노드
+    private String ownerNode;
 }
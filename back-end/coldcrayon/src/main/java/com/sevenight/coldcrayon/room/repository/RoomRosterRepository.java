@@ -0,0 +1,95 @@
+package com.sevenight.coldcrayon.room.repository;
+
+import com.sevenight.coldcrayon.room.entity.UserHash;
+import com.sevenight.coldcrayon.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.convert.Bucket;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 방 유저 hash 를 여러 개 한 번에 읽습니다. (UserHashRepository.findById 를 유저마다 부르지 않는다.)
+ * 1. findRoster: 참여 목록과 유저 hash 를 스크립트 한 번으로 읽는다. (resources/redis/room-roster.lua)
+ * 2. findAllById: 이미 아는 유저들의 hash 를 pipeline 한 번으로 읽는다.
+ * 읽은 값은 Repository 와 같은 RedisConverter 로 UserHash 로 바꾼다.
+ */
+@Slf4j
+@Repository
+public class RoomRosterRepository {
+
+    private static final String USER_KEY_PREFIX = "user:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConverter redisConverter;
+    private final DefaultRedisScript<List<Object>> rosterScript = RedisScripts.list("redis/room-roster.lua");
+
+    public RoomRosterRepository(RedisTemplate<String, Object> redisTemplate, RedisConverter redisConverter) {
+        this.redisTemplate = redisTemplate;
+        this.redisConverter = redisConverter;
+    }
+
+    // 참여 순서대로, hash 가 없는 유저는 빼고 돌려준다.
+    public List<UserHash> findRoster(String roomIdx) {
+        List<Object> result = redisTemplate.execute(rosterScript, List.of(roomIdx), USER_KEY_PREFIX);
+        List<UserHash> userHashList = new ArrayList<>();
+        if (result == null) {
+            return userHashList;
+        }
+
+        int i = 0;
+        while (i + 1 < result.size()) {
+            String userIdx = result.get(i).toString();
+            int fieldCount = Integer.parseInt(result.get(i + 1).toString());
+            i += 2;
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int j = 0; j < fieldCount; j++, i += 2) {
+                fields.put(result.get(i).toString(), result.get(i + 1).toString());
+            }
+            if (fields.isEmpty()) {
+                log.debug("참여 목록에는 있지만 유저 정보가 없습니다. roomIdx = {}, userIdx = {}", roomIdx, userIdx);
+                continue;
+            }
+            userHashList.add(read(Bucket.newBucketFromStringMap(fields)));
+        }
+        return userHashList;
+    }
+
+    // 요청한 순서대로, hash 가 없는 유저는 빼고 돌려준다.
+    public List<UserHash> findAllById(Collection<Long> userIdxs) {
+        List<Long> ids = new ArrayList<>(userIdxs);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Long userIdx : ids) {
+                hGetAll(connection, userIdx);
+            }
+            return null;
+        });
+
+        List<UserHash> userHashList = new ArrayList<>();
+        for (int i = 0; i < ids.size() && i < results.size(); i++) {
+            Object fields = results.get(i);
+            if (fields instanceof Map && !((Map<?, ?>) fields).isEmpty()) {
+                Map<String, String> stringFields = new LinkedHashMap<>();
+                ((Map<?, ?>) fields).forEach((field, value) -> stringFields.put(field.toString(), value.toString()));
+                userHashList.add(read(Bucket.newBucketFromStringMap(stringFields)));
+            }
+        }
+        return userHashList;
+    }
+
+    private void hGetAll(RedisConnection connection, Long userIdx) {
+        connection.hashCommands().hGetAll((USER_KEY_PREFIX + userIdx).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // userIdx 는 hash 의 userIdx 필드에서 읽는다. (RedisData.setId 는 변환 없이 String 으로 넣는다.)
+    private UserHash read(Bucket bucket) {
+        return redisConverter.read(UserHash.class, new RedisData(bucket));
+    }
+}
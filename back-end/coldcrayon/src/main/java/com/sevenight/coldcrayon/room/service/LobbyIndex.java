@@ -0,0 +1,257 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.game.entity.GameCategory;
+import com.sevenight.coldcrayon.room.dto.LobbyRoomDto;
+import com.sevenight.coldcrayon.room.dto.LobbyStatsDto;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import com.sevenight.coldcrayon.room.entity.RoomStatus;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로비: 들어갈 수 있는 방(Ready, 자리 있음) 목록
+ * 1. lobby:open, lobby:open:{gameCategory} sorted set 에 방을 넣고, score 는 현재 인원이다. (room:* 를 훑지 않는다.)
+ * 2. 입장/퇴장은 참여 스크립트 안에서, 방 만들기/게임 시작/옵션 변경은 그 자리에서 sync 로 같이 고친다. (sync 도 현재 인원은 Redis 에서 읽는다.)
+ * 3. 바뀐 방은 push-ms 동안 모았다가 lobby 채널에 lobbyDiff {rooms, removed} 로 보낸다. (노드마다 따로 보내므로 순서 번호는 없다. 받은 방은 덮어쓰고 removed 는 지운다.)
+ */
+@Slf4j
+@Service
+public class LobbyIndex {
+
+    // 참여 스크립트도 같은 key 를 쓴다. (room-join.lua, room-leave.lua, room-lobby.lua)
+    public static final String OPEN_KEY = "lobby:open";
+    // 로비 목록 규칙(syncLobby, removeFromLobby): 로비 목록을 고치는 스크립트 앞에 붙인다.
+    public static final String LOBBY_LUA = "redis/lib/lobby.lua";
+
+    private static final byte[][] LISTING_FIELDS = fields("roomIdx", "gameCategory", "roomStatus", "roomNow", "roomMax", "maxRound", "adminUserIdx");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RoomStateCache roomStateCache;
+    private final ChannelRegistry channelRegistry;
+    private final int maxPageSize;
+    private final ScheduledExecutorService pusher;
+    private final DefaultRedisScript<Long> syncScript = RedisScripts.number("redis/room-lobby.lua", LOBBY_LUA);
+
+    // 다음 push 때 보낼 방
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong listings = new AtomicLong();
+    private final AtomicLong staleRemoved = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+
+    public LobbyIndex(RedisTemplate<String, Object> redisTemplate, RoomStateCache roomStateCache, ChannelRegistry channelRegistry,
+                      @Value("${room.lobby.push-ms:200}") long pushMillis,
+                      @Value("${room.lobby.max-page-size:50}") int maxPageSize) {
+        this.redisTemplate = redisTemplate;
+        this.roomStateCache = roomStateCache;
+        this.channelRegistry = channelRegistry;
+        this.maxPageSize = maxPageSize;
+
+        this.pusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("lobby-push-"));
+        this.pusher.scheduleWithFixedDelay(this::pushChanges, pushMillis, pushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static boolean isOpen(RoomHash roomHash) {
+        return roomHash.getRoomStatus() == RoomStatus.Ready && roomHash.getRoomNow() < roomHash.getRoomMax();
+    }
+
+    public static String categoryKey(GameCategory gameCategory) {
+        return OPEN_KEY + ":" + gameCategory;
+    }
+
+    // 전체 목록과 카테고리별 목록 key (지워진 방은 카테고리를 알 수 없어서 모든 목록에서 뺀다.)
+    public static List<String> openKeys() {
+        List<String> keys = new ArrayList<>();
+        keys.add(OPEN_KEY);
+        for (GameCategory gameCategory : GameCategory.values()) {
+            keys.add(categoryKey(gameCategory));
+        }
+        return keys;
+    }
+
+    // 방 상태, 최대 인원, 게임 종류가 바뀐 뒤 (카테고리가 바뀌었을 수도 있으니 다른 카테고리에서는 뺀다.)
+    // 현재 인원은 참여 스크립트만 쓰므로 roomHash 의 값(읽은 뒤 바뀌었을 수 있다)이 아니라 Redis 에 있는 값을 쓴다.
+    public void sync(RoomHash roomHash) {
+        List<String> keys = new ArrayList<>();
+        keys.add("room:" + roomHash.getRoomIdx());
+        keys.addAll(openKeys());
+        redisTemplate.execute(syncScript, keys,
+                roomHash.getRoomIdx(),
+                String.valueOf(roomHash.getRoomStatus()),
+                roomHash.getRoomMax() + "",
+                String.valueOf(roomHash.getGameCategory()));
+        markChanged(roomHash.getRoomIdx());
+    }
+
+    // 로비에 알릴 방 (참여 스크립트가 목록을 고친 뒤에도 부른다.)
+    public void markChanged(String roomIdx) {
+        changes.incrementAndGet();
+        changed.add(roomIdx);
+    }
+
+    // 사람이 많은 방부터, 같은 인원이면 roomIdx 순서
+    // gameCategory 가 null 이면 전체, minNow ~ maxNow 는 현재 인원 범위
+    public Map<String, Object> list(GameCategory gameCategory, int minNow, int maxNow, int page, int size) {
+        listings.incrementAndGet();
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        int offset = Math.max(0, page) * pageSize;
+        String key = gameCategory == null ? OPEN_KEY : categoryKey(gameCategory);
+
+        Set<Object> roomIdxs = redisTemplate.opsForZSet().reverseRangeByScore(key, minNow, maxNow, offset, pageSize);
+        Long total = redisTemplate.opsForZSet().count(key, minNow, maxNow);
+        List<String> ids = new ArrayList<>();
+        if (roomIdxs != null) {
+            roomIdxs.forEach(roomIdx -> ids.add(roomIdx.toString()));
+        }
+
+        Map<String, Object> responseMap = new HashMap<>();
+        responseMap.put("status", "success");
+        responseMap.put("page", Math.max(0, page));
+        responseMap.put("size", pageSize);
+        responseMap.put("total", total == null ? 0 : total);
+        responseMap.put("rooms", readRooms(ids));
+        return responseMap;
+    }
+
+    // 빠른 시작: 이 게임 종류의 사람이 있는 방을 많은 순서로
+    public List<LobbyRoomDto> findOpenRooms(GameCategory gameCategory, int limit) {
+        Set<Object> roomIdxs = redisTemplate.opsForZSet().reverseRangeByScore(categoryKey(gameCategory), 1, Integer.MAX_VALUE, 0, limit);
+        List<String> ids = new ArrayList<>();
+        if (roomIdxs != null) {
+            roomIdxs.forEach(roomIdx -> ids.add(roomIdx.toString()));
+        }
+        return readRooms(ids);
+    }
+
+    public LobbyStatsDto getStats() {
+        Long openRooms = redisTemplate.opsForZSet().zCard(OPEN_KEY);
+        return LobbyStatsDto.builder()
+                .openRooms(openRooms == null ? 0 : openRooms)
+                .listings(listings.get())
+                .staleRemoved(staleRemoved.get())
+                .changes(changes.get())
+                .pushes(pushes.get())
+                .build();
+    }
+
+    // 목록에 있는 방들의 필요한 필드만 pipeline 한 번으로 읽는다.
+    // 그 사이 지워졌거나 들어갈 수 없게 된 방은 목록에서 뺀다.
+    private List<LobbyRoomDto> readRooms(List<String> ids) {
+        List<LobbyRoomDto> rooms = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return rooms;
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String roomIdx : ids) {
+                connection.hashCommands().hMGet(bytes("room:" + roomIdx), LISTING_FIELDS);
+            }
+            return null;
+        });
+
+        List<String> stale = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            List<?> values = i < results.size() && results.get(i) instanceof List ? (List<?>) results.get(i) : null;
+            LobbyRoomDto room = values == null ? null : toLobbyRoom(values);
+            if (room == null) {
+                stale.add(ids.get(i));
+            } else {
+                rooms.add(room);
+            }
+        }
+        if (!stale.isEmpty()) {
+            staleRemoved.addAndGet(stale.size());
+            redisTemplate.opsForZSet().remove(OPEN_KEY, stale.toArray());
+            for (GameCategory gameCategory : GameCategory.values()) {
+                redisTemplate.opsForZSet().remove(categoryKey(gameCategory), stale.toArray());
+            }
+        }
+        return rooms;
+    }
+
+    // LISTING_FIELDS 순서
+    private LobbyRoomDto toLobbyRoom(List<?> values) {
+        if (values.get(0) == null || !RoomStatus.Ready.name().equals(String.valueOf(values.get(2)))) {
+            return null;
+        }
+        try {
+            LobbyRoomDto room = LobbyRoomDto.builder()
+                    .roomIdx(values.get(0).toString())
+                    .gameCategory(GameCategory.valueOf(values.get(1).toString()))
+                    .roomNow(Integer.parseInt(values.get(3).toString()))
+                    .roomMax(Integer.parseInt(values.get(4).toString()))
+                    .maxRound(Integer.parseInt(values.get(5).toString()))
+                    .adminUserIdx(values.get(6) == null ? null : Long.parseLong(values.get(6).toString()))
+                    .build();
+            return room.getRoomNow() < room.getRoomMax() ? room : null;
+        } catch (RuntimeException e) {
+            log.debug("로비 방 정보를 읽을 수 없습니다. values = {}, e = {}", values, e.toString());
+            return null;
+        }
+    }
+
+    // 모은 방을 lobbyDiff 하나로 보낸다. (들어갈 수 있으면 rooms, 아니면 removed)
+    private void pushChanges() {
+        try {
+            if (changed.isEmpty()) {
+                return;
+            }
+            List<String> roomIdxs = new ArrayList<>(changed);
+            changed.removeAll(roomIdxs);
+
+            List<LobbyRoomDto> rooms = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            for (String roomIdx : roomIdxs) {
+                Optional<RoomHash> roomHash = roomStateCache.findRoom(roomIdx).filter(LobbyIndex::isOpen);
+                if (roomHash.isPresent()) {
+                    rooms.add(LobbyRoomDto.of(roomHash.get()));
+                } else {
+                    removed.add(roomIdx);
+                }
+            }
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("type", "lobbyDiff");
+            payload.put("rooms", rooms);
+            payload.put("removed", removed);
+            channelRegistry.publishLobby(payload);
+            pushes.incrementAndGet();
+        } catch (Exception e) {
+            // 예외가 밖으로 나가면 scheduleWithFixedDelay 가 멈춘다.
+            log.error("lobby push 실패 e = {}", e.toString());
+        }
+    }
+
+    private static byte[][] fields(String... names) {
+        byte[][] raw = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            raw[i] = bytes(names[i]);
+        }
+        return raw;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pusher.shutdown();
+    }
+}
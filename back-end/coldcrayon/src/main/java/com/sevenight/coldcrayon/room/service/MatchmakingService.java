@@ -0,0 +1,312 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.game.entity.GameCategory;
+import com.sevenight.coldcrayon.room.dto.LobbyRoomDto;
+import com.sevenight.coldcrayon.room.dto.MatchStatsDto;
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 빠른 시작: 게임 종류를 고르면 들어갈 방을 대신 찾아 줍니다.
+ * 1. 요청은 게임 종류별 큐에 넣기만 한다. (lock 없이 바로 응답)
+ * 2. batch-ms 마다 한 스레드가 큐를 비우면서 사람이 있는 방(로비 목록, 많은 순서)부터 채우고, 남은 유저로만 방을 만든다.
+ * 3. 결과는 유저 알림 채널(user:{userIdx})로 matched 메시지를 보낸다. 이후 방 입장은 원래 방법(방 구독, userIn)과 같다.
+ */
+@Slf4j
+@Service
+public class MatchmakingService {
+
+    private static final int WAIT_SAMPLES = 4096;
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private final RoomService roomService;
+    private final LobbyIndex lobbyIndex;
+    private final ChannelRegistry channelRegistry;
+    private final int maxWaiting;
+    private final int maxBatch;
+    private final int candidateRooms;
+    private final ScheduledExecutorService matcher;
+
+    private final Map<GameCategory, Queue<Ticket>> queues = new EnumMap<>(GameCategory.class);
+    // userIdx, 기다리는 요청 (유저당 하나, 취소하면 지운다.)
+    private final Map<Long, Ticket> waiting = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+
+    // 대기 시간 (matcher 스레드만 쓴다.)
+    private final long[] waitNanos = new long[WAIT_SAMPLES];
+    private long waitRecorded;
+    // 초 단위 방을 찾은 유저 수 (matcher 스레드만 쓴다.)
+    private final long[] matchedPerSecond = new long[RATE_WINDOW_SECONDS];
+    private final long[] matchedSecond = new long[RATE_WINDOW_SECONDS];
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong matched = new AtomicLong();
+    private final AtomicLong joinedExisting = new AtomicLong();
+    private final AtomicLong roomsCreated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public MatchmakingService(RoomService roomService, LobbyIndex lobbyIndex, ChannelRegistry channelRegistry,
+                              @Value("${room.match.batch-ms:300}") long batchMillis,
+                              @Value("${room.match.max-waiting:10000}") int maxWaiting,
+                              @Value("${room.match.max-batch:500}") int maxBatch,
+                              @Value("${room.match.candidate-rooms:50}") int candidateRooms) {
+        this.roomService = roomService;
+        this.lobbyIndex = lobbyIndex;
+        this.channelRegistry = channelRegistry;
+        this.maxWaiting = maxWaiting;
+        this.maxBatch = maxBatch;
+        this.candidateRooms = candidateRooms;
+        for (GameCategory gameCategory : GameCategory.values()) {
+            queues.put(gameCategory, new ConcurrentLinkedQueue<>());
+        }
+
+        this.matcher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("room-match-"));
+        this.matcher.scheduleWithFixedDelay(this::matchAll, batchMillis, batchMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> enqueue(UserDto userDto, GameCategory gameCategory) {
+        Map<String, Object> responseMap = new HashMap<>();
+        if (gameCategory == null) {
+            responseMap.put("status", "fail");
+            responseMap.put("message", "게임 종류를 골라 주세요.");
+            return responseMap;
+        }
+        if (waitingCount.get() >= maxWaiting) {
+            rejected.incrementAndGet();
+            responseMap.put("status", "fail");
+            responseMap.put("message", "빠른 시작 대기 인원이 많습니다. 잠시 후 다시 시도해 주세요.");
+            return responseMap;
+        }
+
+        Ticket ticket = new Ticket(userDto, gameCategory, System.nanoTime());
+        if (waiting.putIfAbsent(userDto.getUserIdx(), ticket) != null) {
+            responseMap.put("status", "fail");
+            responseMap.put("message", "이미 빠른 시작을 기다리고 있습니다.");
+            return responseMap;
+        }
+        waitingCount.incrementAndGet();
+        queues.get(gameCategory).add(ticket);
+        enqueued.incrementAndGet();
+
+        responseMap.put("status", "queued");
+        responseMap.put("gameCategory", gameCategory);
+        return responseMap;
+    }
+
+    // 큐에는 남아 있어도 batch 에서 건너뛴다.
+    public Map<String, Object> cancel(UserDto userDto) {
+        Map<String, Object> responseMap = new HashMap<>();
+        Ticket ticket = waiting.remove(userDto.getUserIdx());
+        if (ticket == null) {
+            responseMap.put("status", "fail");
+            responseMap.put("message", "기다리고 있는 빠른 시작이 없습니다.");
+        } else {
+            waitingCount.decrementAndGet();
+            cancelled.incrementAndGet();
+            responseMap.put("status", "success");
+        }
+        return responseMap;
+    }
+
+    public MatchStatsDto getStats() {
+        long[] samples;
+        long[] perSecond;
+        long[] seconds;
+        synchronized (waitNanos) {
+            int count = (int) Math.min(waitRecorded, WAIT_SAMPLES);
+            samples = Arrays.copyOf(waitNanos, count);
+            perSecond = matchedPerSecond.clone();
+            seconds = matchedSecond.clone();
+        }
+        Arrays.sort(samples);
+
+        // 지금 진행중인 초는 빼고 최근 10초
+        long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long recent = 0;
+        for (int i = 0; i < RATE_WINDOW_SECONDS; i++) {
+            if (seconds[i] < now && seconds[i] >= now - RATE_WINDOW_SECONDS) {
+                recent += perSecond[i];
+            }
+        }
+
+        return MatchStatsDto.builder()
+                .waiting(waitingCount.get())
+                .enqueued(enqueued.get())
+                .rejected(rejected.get())
+                .cancelled(cancelled.get())
+                .matched(matched.get())
+                .joinedExisting(joinedExisting.get())
+                .roomsCreated(roomsCreated.get())
+                .failed(failed.get())
+                .batches(batches.get())
+                .matchedPerSecond((double) recent / RATE_WINDOW_SECONDS)
+                .waitP50Millis(percentileMillis(samples, 0.50))
+                .waitP90Millis(percentileMillis(samples, 0.90))
+                .waitP99Millis(percentileMillis(samples, 0.99))
+                .waitMaxMillis(samples.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(samples[samples.length - 1]))
+                .build();
+    }
+
+    private void matchAll() {
+        batches.incrementAndGet();
+        for (Map.Entry<GameCategory, Queue<Ticket>> entry : queues.entrySet()) {
+            try {
+                match(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                // 예외가 밖으로 나가면 scheduleWithFixedDelay 가 멈춘다.
+                log.error("빠른 시작 batch 실패 gameCategory = {}, e = {}", entry.getKey(), e.toString());
+            }
+        }
+    }
+
+    // 사람이 많은 방부터 빈자리를 채우고, 남은 유저는 먼저 온 유저가 방을 만들고 나머지가 들어간다.
+    private void match(GameCategory gameCategory, Queue<Ticket> queue) {
+        Deque<Ticket> pending = new ArrayDeque<>();
+        Ticket polled;
+        while (pending.size() < maxBatch && (polled = queue.poll()) != null) {
+            if (waiting.get(polled.userDto.getUserIdx()) == polled) {
+                pending.add(polled);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        for (LobbyRoomDto room : lobbyIndex.findOpenRooms(gameCategory, candidateRooms)) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            fill(room.getRoomIdx(), room.getRoomMax() - room.getRoomNow(), pending, false);
+        }
+
+        while (!pending.isEmpty()) {
+            Ticket host = pending.poll();
+            Map<String, Object> created = roomService.saveRoom(host.userDto);
+            if (!"success".equals(created.get("status"))) {
+                fail(host, String.valueOf(created.get("message")));
+                continue;
+            }
+            String roomIdx = created.get("roomIdx").toString();
+            roomService.changeRoomOption("gameMode", gameCategory.name(), roomIdx);
+            roomsCreated.incrementAndGet();
+            complete(host, roomIdx, true);
+            fill(roomIdx, Integer.MAX_VALUE, pending, true);
+        }
+    }
+
+    // 방이 찼거나 게임이 시작되면 멈추고, 그 유저는 다음 방으로 넘긴다.
+    private void fill(String roomIdx, int free, Deque<Ticket> pending, boolean created) {
+        while (free > 0 && !pending.isEmpty()) {
+            Ticket ticket = pending.poll();
+            RoomRosterDto roster = roomService.enterRoom(ticket.userDto, roomIdx);
+            if (roster.isSuccess()) {
+                if (!created) {
+                    joinedExisting.incrementAndGet();
+                }
+                complete(ticket, roomIdx, false);
+                free--;
+            } else if ("otherRoom".equals(roster.getReason())) {
+                fail(ticket, "다른 방에 참여중인 유저입니다.");
+            } else {
+                pending.addFirst(ticket);
+                return;
+            }
+        }
+    }
+
+    private void complete(Ticket ticket, String roomIdx, boolean admin) {
+        if (!waiting.remove(ticket.userDto.getUserIdx(), ticket)) {
+            // 처리하는 사이 취소했지만 이미 방에 들어갔다. 알림은 그대로 보낸다.
+            log.debug("취소한 빠른 시작이 방에 들어갔습니다. userIdx = {}, roomIdx = {}", ticket.userDto.getUserIdx(), roomIdx);
+        } else {
+            waitingCount.decrementAndGet();
+        }
+        matched.incrementAndGet();
+        record(System.nanoTime() - ticket.enqueuedNanos);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "matched");
+        payload.put("status", "success");
+        payload.put("roomIdx", roomIdx);
+        payload.put("gameCategory", ticket.gameCategory);
+        payload.put("admin", admin);
+        notify(ticket, payload);
+    }
+
+    private void fail(Ticket ticket, String message) {
+        if (waiting.remove(ticket.userDto.getUserIdx(), ticket)) {
+            waitingCount.decrementAndGet();
+        }
+        failed.incrementAndGet();
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", "matched");
+        payload.put("status", "fail");
+        payload.put("message", message);
+        notify(ticket, payload);
+    }
+
+    private void notify(Ticket ticket, Map<String, Object> payload) {
+        try {
+            channelRegistry.notifyUser(ticket.userDto.getUserIdx(), payload);
+        } catch (Exception e) {
+            log.error("빠른 시작 결과 전송 실패 userIdx = {}, e = {}", ticket.userDto.getUserIdx(), e.toString());
+        }
+    }
+
+    private void record(long nanos) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        int slot = (int) (second % RATE_WINDOW_SECONDS);
+        synchronized (waitNanos) {
+            waitNanos[(int) (waitRecorded++ % WAIT_SAMPLES)] = nanos;
+            if (matchedSecond[slot] != second) {
+                matchedSecond[slot] = second;
+                matchedPerSecond[slot] = 0;
+            }
+            matchedPerSecond[slot]++;
+        }
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdown();
+    }
+
+    private static class Ticket {
+        private final UserDto userDto;
+        private final GameCategory gameCategory;
+        private final long enqueuedNanos;
+
+        Ticket(UserDto userDto, GameCategory gameCategory, long enqueuedNanos) {
+            this.userDto = userDto;
+            this.gameCategory = gameCategory;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.room.dto.RoomDiffStatsDto;
+import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
+import com.sevenight.coldcrayon.room.entity.UserHash;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.RoundTimerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 방 정보(roomInfo, userList) 변경 전송
+ * 1. 옵션 변경, 입장, 퇴장이 몰려도 debounce-ms 동안 모아서 한 번만 읽고 보냅니다.
+ * 2. 지난번에 보낸 상태와 비교해서 바뀐 필드, 들어온 유저, 나간 유저만 roomDiff 로 보냅니다. (version 이 1씩 오른다.)
+ * 3. 전체 상태(userIn)는 입장한 세션과, version 이 빈 클라이언트가 roomSnapshot 을 요청할 때만 보냅니다.
+ * 전송은 방 명령 실행기에서 하기 때문에 같은 방의 userIn, 옵션 변경과 순서가 섞이지 않습니다.
+ */
+@Slf4j
+@Service
+public class RoomDiffPublisher {
+
+    private final RoomService roomService;
+    private final RoomBroadcaster roomBroadcaster;
+    private final RoundTimerService roundTimerService;
+    private final RoomCommandExecutor roomCommandExecutor;
+    private final long debounceMillis;
+
+    // roomIdx, 마지막으로 보낸 상태
+    private final Map<String, RoomView> views = new ConcurrentHashMap<>();
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong diffs = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+
+    public RoomDiffPublisher(RoomService roomService, RoomBroadcaster roomBroadcaster, RoundTimerService roundTimerService,
+                             RoomCommandExecutor roomCommandExecutor,
+                             @Value("${room.diff.debounce-ms:50}") long debounceMillis) {
+        this.roomService = roomService;
+        this.roomBroadcaster = roomBroadcaster;
+        this.roundTimerService = roundTimerService;
+        this.roomCommandExecutor = roomCommandExecutor;
+        this.debounceMillis = debounceMillis;
+    }
+
+    // 방 정보가 바뀌었다: debounce-ms 안에 다시 불려도 한 번만 보낸다.
+    public void publish(String roomIdx) {
+        requested.incrementAndGet();
+        RoomView view = views.computeIfAbsent(roomIdx, key -> new RoomView());
+        if (view.scheduled.compareAndSet(false, true)) {
+            roundTimerService.schedule(() -> roomCommandExecutor.execute(roomIdx, "roomDiff", () -> flush(roomIdx, view)),
+                    debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 한 세션에게만 전체 상태를 보낸다. (입장, version 이 빈 클라이언트)
+    // 같은 방 명령 실행기에서 불러야 version 과 상태가 맞는다.
+    public void sendSnapshot(String roomIdx, WebSocketSession session, Map<String, Object> snapshot) throws IOException {
+        RoomView view = views.computeIfAbsent(roomIdx, key -> new RoomView());
+        snapshot.put("version", view.version);
+        snapshots.incrementAndGet();
+        roomBroadcaster.send(roomIdx, session, snapshot);
+    }
+
+    public void sendSnapshot(String roomIdx, WebSocketSession session) throws IOException {
+        sendSnapshot(roomIdx, session, roomService.firstRoom(roomIdx));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void flush(String roomIdx, RoomView view) throws IOException {
+        // 읽기 전에 풀어야 읽는 동안 바뀐 것도 다음 번에 보낸다.
+        view.scheduled.set(false);
+        Map<String, Object> snapshot = roomService.firstRoom(roomIdx);
+        RoomResponseDto roomInfo = (RoomResponseDto) snapshot.get("roomInfo");
+        if (!"success".equals(roomInfo.getStatus())) {
+            // 방이 없어졌다.
+            views.remove(roomIdx, view);
+            return;
+        }
+        Map<String, Object> info = toMap(roomInfo);
+        Map<Long, UserHash> users = new LinkedHashMap<>();
+        for (UserHash userHash : (List<UserHash>) snapshot.get("userList")) {
+            users.put(userHash.getUserIdx(), userHash);
+        }
+
+        Map<String, Object> changedInfo = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : info.entrySet()) {
+            if (!Objects.equals(entry.getValue(), view.info.get(entry.getKey()))) {
+                changedInfo.put(entry.getKey(), entry.getValue());
+            }
+        }
+        List<UserHash> added = new ArrayList<>();
+        List<UserHash> updated = new ArrayList<>();
+        for (UserHash userHash : users.values()) {
+            UserHash before = view.users.get(userHash.getUserIdx());
+            if (before == null) {
+                added.add(userHash);
+            } else if (!sameUser(before, userHash)) {
+                updated.add(userHash);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Long userIdx : view.users.keySet()) {
+            if (!users.containsKey(userIdx)) {
+                removed.add(userIdx);
+            }
+        }
+
+        view.info = info;
+        view.users = users;
+        if (changedInfo.isEmpty() && added.isEmpty() && updated.isEmpty() && removed.isEmpty()) {
+            unchanged.incrementAndGet();
+            return;
+        }
+        view.version++;
+
+        Map<String, Object> diff = new HashMap<>();
+        diff.put("type", "roomDiff");
+        diff.put("version", view.version);
+        diff.put("roomInfo", changedInfo);
+        diff.put("added", added);
+        diff.put("updated", updated);
+        diff.put("removed", removed);
+        diffs.incrementAndGet();
+        roomBroadcaster.broadcast(roomIdx, diff);
+    }
+
+    private Map<String, Object> toMap(RoomResponseDto roomInfo) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("gameCategory", roomInfo.getGameCategory());
+        info.put("nowRound", roomInfo.getNowRound());
+        info.put("maxRound", roomInfo.getMaxRound());
+        info.put("adminUserIdx", roomInfo.getAdminUserIdx());
+        info.put("roomStatus", roomInfo.getRoomStatus());
+        info.put("roomMax", roomInfo.getRoomMax());
+        info.put("roomNow", roomInfo.getRoomNow());
+        return info;
+    }
+
+    private boolean sameUser(UserHash a, UserHash b) {
+        return a.getUserScore() == b.getUserScore()
+                && Objects.equals(a.getUserNickname(), b.getUserNickname())
+                && Objects.equals(a.getUserProfile(), b.getUserProfile())
+                && Objects.equals(a.getRoomIdx(), b.getRoomIdx());
+    }
+
+    // 방에 아무도 남지 않았을 때
+    public void release(String roomIdx) {
+        views.remove(roomIdx);
+    }
+
+    public RoomDiffStatsDto getStats() {
+        return RoomDiffStatsDto.builder()
+                .rooms(views.size())
+                .requested(requested.get())
+                .diffs(diffs.get())
+                .unchanged(unchanged.get())
+                .snapshots(snapshots.get())
+                .build();
+    }
+
+    // 방 하나의 마지막 전송 상태 (scheduled 말고는 그 방 명령 실행기에서만 바뀐다.)
+    private static class RoomView {
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long version;
+        private Map<String, Object> info = Collections.emptyMap();
+        private Map<Long, UserHash> users = Collections.emptyMap();
+    }
+}
@@ -0,0 +1,247 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.room.dto.RoomExpiryStatsDto;
+import com.sevenight.coldcrayon.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 버려진 방 정리
+ * 1. 방 활동(만들기, 입장, 접속중인 세션)이 있으면 만료 목록(expiry:room, score 는 만료 시각)의 시각을 ttl-ms 뒤로 미룬다.
+ *    기록은 메모리에 모았다가 touch-ms 마다 스크립트 한 번으로 쓰고, 이때 방/참여 목록/유저 key 에 Redis TTL 도 다시 건다.
+ *    (Redis TTL 은 ttl-ms 의 두 배라서 sweeper 가 돌지 못할 때만 쓰인다. 만료 목록에는 TTL 을 걸지 않는다.)
+ * 2. sweep-ms 마다 만료 시각이 지난 방만 골라서 방, 참여 목록, 그 방 유저, 방 id set, 로비 목록을 한 번에 지운다. (room:* 를 훑지 않는다.)
+ *    Redis TTL 로 hash 만 사라진 방도 만료 목록에는 남아 있으므로, 다음 sweep 에서 방 id set 과 로비 목록에 남은 id 를 지운다.
+ * 3. 지운 방은 모든 노드에 알려서 각 노드가 메모리 캐시와 라운드 이미지 폴더를 지운다.
+ */
+@Slf4j
+@Service
+public class RoomExpiryService {
+
+    public static final String EXPIRY_KEY = "expiry:room";
+
+    // Spring Data Redis 가 @RedisHash id 를 모아 두는 set
+    private static final String ROOM_INDEX_KEY = "room";
+    private static final String USER_INDEX_KEY = "user";
+    // roomIdx 는 32자리 uuid (폴더 이름으로 쓰기 전에 확인)
+    private static final Pattern ROOM_IDX = Pattern.compile("[A-Za-z0-9]+");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RoomStateCache roomStateCache;
+    private final LobbyIndex lobbyIndex;
+    private final long ttlMillis;
+    private final int sweepBatch;
+    private final String imageDir;
+    private final String expiredChannel;
+    private final RedisMessageListenerContainer container;
+    private final ScheduledExecutorService worker;
+    private final DefaultRedisScript<Long> touchScript = new DefaultRedisScript<>();
+    private final DefaultRedisScript<List<Object>> expireScript = RedisScripts.list("redis/room-expire.lua", LobbyIndex.LOBBY_LUA);
+
+    // 다음 기록 때 만료 시각을 미룰 방
+    private final Set<String> touches = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong touched = new AtomicLong();
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong roomsReclaimed = new AtomicLong();
+    private final AtomicLong usersReclaimed = new AtomicLong();
+    private final AtomicLong imageDirsDeleted = new AtomicLong();
+    private final AtomicLong imageBytesDeleted = new AtomicLong();
+
+    public RoomExpiryService(RedisTemplate<String, Object> redisTemplate, RedisConnectionFactory redisConnectionFactory,
+                             RoomStateCache roomStateCache, LobbyIndex lobbyIndex,
+                             @Value("${room.expiry.ttl-ms:1800000}") long ttlMillis,
+                             @Value("${room.expiry.touch-ms:10000}") long touchMillis,
+                             @Value("${room.expiry.sweep-ms:60000}") long sweepMillis,
+                             @Value("${room.expiry.sweep-batch:100}") int sweepBatch,
+                             @Value("${room.expiry.image-dir:/getchacrayon/image/history/}") String imageDir,
+                             @Value("${room.expiry.channel:room-expiry:expired}") String expiredChannel) {
+        this.redisTemplate = redisTemplate;
+        this.roomStateCache = roomStateCache;
+        this.lobbyIndex = lobbyIndex;
+        this.ttlMillis = ttlMillis;
+        this.sweepBatch = sweepBatch;
+        this.imageDir = imageDir;
+        this.expiredChannel = expiredChannel;
+
+        this.touchScript.setLocation(new ClassPathResource("redis/room-touch.lua"));
+        this.touchScript.setResultType(Long.class);
+
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(redisConnectionFactory);
+        this.container.addMessageListener(this::onExpired, new ChannelTopic(expiredChannel));
+
+        this.worker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("room-expiry-"));
+        this.worker.execute(this::backfill);
+        this.worker.scheduleWithFixedDelay(this::flushTouches, touchMillis, touchMillis, TimeUnit.MILLISECONDS);
+        this.worker.scheduleWithFixedDelay(this::sweep, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PostConstruct
+    public void start() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    // 방 활동: 메모리에만 남기고 touch-ms 마다 한 번에 쓴다.
+    public void touch(String roomIdx) {
+        touches.add(roomIdx);
+    }
+
+    public RoomExpiryStatsDto getStats() {
+        Long tracked = redisTemplate.opsForZSet().zCard(EXPIRY_KEY);
+        return RoomExpiryStatsDto.builder()
+                .tracked(tracked == null ? 0 : tracked)
+                .pendingTouches(touches.size())
+                .touched(touched.get())
+                .sweeps(sweeps.get())
+                .roomsReclaimed(roomsReclaimed.get())
+                .usersReclaimed(usersReclaimed.get())
+                .imageDirsDeleted(imageDirsDeleted.get())
+                .imageBytesDeleted(imageBytesDeleted.get())
+                .build();
+    }
+
+    private void flushTouches() {
+        try {
+            if (touches.isEmpty()) {
+                return;
+            }
+            List<String> roomIdxs = new ArrayList<>(touches);
+            touches.removeAll(roomIdxs);
+
+            List<Object> args = new ArrayList<>();
+            args.add(Long.toString(System.currentTimeMillis() + ttlMillis));
+            args.add(Long.toString(ttlMillis * 2));
+            args.addAll(roomIdxs);
+            Long count = redisTemplate.execute(touchScript, List.of(EXPIRY_KEY), args.toArray());
+            touched.addAndGet(count == null ? 0 : count);
+        } catch (RuntimeException e) {
+            // 예외가 밖으로 나가면 scheduleWithFixedDelay 가 멈춘다.
+            log.error("방 활동 기록 실패 e = {}", e.toString());
+        }
+    }
+
+    // 만료 시각이 지난 방을 sweep-batch 개씩 정리한다. (다른 노드와 같이 돌아도 스크립트가 한 번만 지운다.)
+    private void sweep() {
+        try {
+            sweeps.incrementAndGet();
+            long now = System.currentTimeMillis();
+            Set<Object> expired = redisTemplate.opsForZSet().rangeByScore(EXPIRY_KEY, 0, now, 0, sweepBatch);
+            if (expired == null) {
+                return;
+            }
+            for (Object id : expired) {
+                String roomIdx = id.toString();
+                List<Object> args = new ArrayList<>();
+                args.add(roomIdx);
+                args.add(Long.toString(now));
+                args.addAll(LobbyIndex.openKeys());
+                List<Object> result = redisTemplate.execute(expireScript, List.of(EXPIRY_KEY, ROOM_INDEX_KEY, USER_INDEX_KEY), args.toArray());
+                // alive: 다시 활동한 방, gone: 나가기 스크립트가 지웠거나 Redis TTL 로 hash 가 사라진 방 (남은 id 만 지운다.)
+                if (result == null || result.isEmpty() || !"expired".equals(result.get(0).toString())) {
+                    continue;
+                }
+                long users = result.size() > 1 ? Long.parseLong(result.get(1).toString()) : 0;
+                roomsReclaimed.incrementAndGet();
+                usersReclaimed.addAndGet(users);
+                log.info("버려진 방을 정리했습니다. roomIdx = {}, users = {}", roomIdx, users);
+                lobbyIndex.markChanged(roomIdx);
+                redisTemplate.convertAndSend(expiredChannel, roomIdx);
+            }
+        } catch (RuntimeException e) {
+            log.error("버려진 방 정리 실패 e = {}", e.toString());
+        }
+    }
+
+    // 만료 목록이 생기기 전에 만든 방도 정리되도록, 목록에 없는 방은 지금부터 ttl-ms 뒤로 넣는다.
+    private void backfill() {
+        try {
+            Set<Object> roomIdxs = redisTemplate.opsForSet().members(ROOM_INDEX_KEY);
+            if (roomIdxs == null || roomIdxs.isEmpty()) {
+                return;
+            }
+            byte[] key = EXPIRY_KEY.getBytes(StandardCharsets.UTF_8);
+            double deadline = System.currentTimeMillis() + ttlMillis;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Object roomIdx : roomIdxs) {
+                    connection.zSetCommands().zAdd(key, deadline, roomIdx.toString().getBytes(StandardCharsets.UTF_8),
+                            RedisZSetCommands.ZAddArgs.ifNotExists());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("만료 목록 채우기 실패 e = {}", e.toString());
+        }
+    }
+
+    // 모든 노드: 메모리 캐시와 이 노드 디스크의 라운드 이미지를 지운다.
+    private void onExpired(Message message, byte[] pattern) {
+        String roomIdx = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            roomStateCache.evict(roomIdx);
+            deleteImages(roomIdx);
+        } catch (RuntimeException e) {
+            log.error("만료된 방 정리 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+    }
+
+    private void deleteImages(String roomIdx) {
+        if (!ROOM_IDX.matcher(roomIdx).matches()) {
+            return;
+        }
+        File dir = new File(imageDir, roomIdx);
+        if (!dir.isDirectory()) {
+            return;
+        }
+        imageBytesDeleted.addAndGet(deleteRecursively(dir));
+        imageDirsDeleted.incrementAndGet();
+    }
+
+    // 지운 파일 크기
+    private long deleteRecursively(File file) {
+        long bytes = 0;
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                bytes += deleteRecursively(child);
+            }
+        }
+        if (file.isFile()) {
+            bytes += file.length();
+        }
+        if (!file.delete()) {
+            log.debug("이미지 삭제 실패 path = {}", file.getPath());
+        }
+        return bytes;
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        worker.shutdown();
+        container.destroy();
+    }
+}
@@ -0,0 +1,112 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
+import com.sevenight.coldcrayon.room.entity.UserHash;
+import com.sevenight.coldcrayon.util.RedisScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 방 참여/나가기/방장 위임을 Redis 스크립트 한 번으로 처리합니다.
+ * 방 확인, 참여 목록, 유저 저장, 현재 인원, 방장을 같은 스크립트 안에서 바꾸므로 동시에 들어와도 인원이 넘치거나 어긋나지 않는다.
+ * 결과는 {status, reason, adminUserIdx, roomNow, 참여 유저...} 형태이다. (resources/redis/*.lua)
+ * 인원이 바뀌면 로비 목록(LobbyIndex)도 같은 스크립트 안에서 고친다.
+ * 방 key 와 유저 key 를 같이 쓰므로 Redis Cluster 가 아닌 단일 Redis 기준이다.
+ */
+@Slf4j
+@Service
+public class RoomMembershipScripts {
+
+    private static final String ROOM_KEYSPACE = "room";
+    private static final String USER_KEYSPACE = "user";
+    private static final int JOIN_SCORE = 10;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final DefaultRedisScript<List<Object>> joinScript = RedisScripts.list("redis/room-join.lua", LobbyIndex.LOBBY_LUA);
+    private final DefaultRedisScript<List<Object>> leaveScript = RedisScripts.list("redis/room-leave.lua", LobbyIndex.LOBBY_LUA);
+    private final DefaultRedisScript<List<Object>> adminScript = RedisScripts.list("redis/room-admin.lua");
+
+    public RoomMembershipScripts(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    // 방에 참여: 방이 있고, 게임중이 아니고, 자리가 있고, 다른 방 유저가 아닐 때만 들어간다.
+    public RoomRosterDto join(UserHash userHash) {
+        String roomIdx = userHash.getRoomIdx();
+        List<String> keys = List.of(roomKey(roomIdx), roomIdx, userKey(userHash.getUserIdx()), USER_KEYSPACE);
+        List<Object> args = new ArrayList<>(List.of(
+                userHash.getUserIdx() + "",
+                roomIdx,
+                nullToEmpty(userHash.getUserNickname()),
+                nullToEmpty(userHash.getUserProfile()),
+                JOIN_SCORE + "",
+                UserHash.class.getName()));
+        args.addAll(LobbyIndex.openKeys());
+        return execute(joinScript, keys, args.toArray());
+    }
+
+    // 여러 유저를 한 번에 내보낸다. 남은 유저가 없으면 방을 지우고(reason = deleted), 방장이 나갔으면 먼저 들어온 유저에게 넘긴다.
+    public RoomRosterDto leave(String roomIdx, Collection<Long> userIdxs) {
+        List<String> keys = new ArrayList<>();
+        keys.add(roomKey(roomIdx));
+        keys.add(roomIdx);
+        keys.add(ROOM_KEYSPACE);
+        keys.add(USER_KEYSPACE);
+        keys.add(RoomExpiryService.EXPIRY_KEY);
+        List<Object> args = new ArrayList<>();
+        args.add(roomIdx);
+        for (Long userIdx : userIdxs) {
+            keys.add(userKey(userIdx));
+            args.add(userIdx + "");
+        }
+        args.addAll(LobbyIndex.openKeys());
+        return execute(leaveScript, keys, args.toArray());
+    }
+
+    // 방장 위임: 요청한 유저가 방장이고 받을 유저가 방에 있을 때만
+    public RoomRosterDto changeAdmin(String roomIdx, Long adminUserIdx, Long toUserIdx) {
+        return execute(adminScript, List.of(roomKey(roomIdx), roomIdx), adminUserIdx + "", toUserIdx + "");
+    }
+
+    private RoomRosterDto execute(DefaultRedisScript<List<Object>> script, List<String> keys, Object... args) {
+        List<Object> result = redisTemplate.execute(script, keys, args);
+        if (result == null || result.size() < 2) {
+            log.error("방 스크립트 결과가 없습니다. keys = {}, result = {}", keys, result);
+            return RoomRosterDto.builder().status("fail").reason("noResult").roster(Collections.emptyList()).build();
+        }
+
+        RoomRosterDto roomRosterDto = RoomRosterDto.builder()
+                .status(result.get(0).toString())
+                .reason(result.get(1).toString())
+                .roster(new ArrayList<>())
+                .build();
+        if (result.size() >= 4) {
+            String admin = result.get(2).toString();
+            roomRosterDto.setAdminUserIdx(admin.isEmpty() ? null : Long.parseLong(admin));
+            roomRosterDto.setRoomNow(Integer.parseInt(result.get(3).toString()));
+            for (int i = 4; i < result.size(); i++) {
+                roomRosterDto.getRoster().add(Long.parseLong(result.get(i).toString()));
+            }
+        }
+        return roomRosterDto;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String roomKey(String roomIdx) {
+        return ROOM_KEYSPACE + ":" + roomIdx;
+    }
+
+    private static String userKey(Long userIdx) {
+        return USER_KEYSPACE + ":" + userIdx;
+    }
+}
@@ -0,0 +1,378 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.config.RedisMethods;
+import com.sevenight.coldcrayon.game.service.RoundLifecycleService;
+import com.sevenight.coldcrayon.room.dto.RoomPresenceStatsDto;
+import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
+import com.sevenight.coldcrayon.socket.service.DrawBatcher;
+import com.sevenight.coldcrayon.socket.service.InboundRateLimiter;
+import com.sevenight.coldcrayon.socket.service.NodeRegistry;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.RoundTimerService;
+import io.netty.util.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 방에 접속한 유저 관리
+ * 1. userIn 한 세션의 유저를 기억하고, 세션이 끊기면 유저마다 grace-ms 동안 자리를 잡아 둡니다.
+ * 2. 그 안에 다시 들어오지 않으면 내보냅니다. 같은 때에 시간이 다 된 유저는 한 번에 내보냅니다. (방장 위임, 인원 재계산 포함)
+ * 3. 접속중인 유저는 heartbeat-ms 마다 presence:{roomIdx} (score 는 마지막으로 본 시각)에 기록합니다. 같은 방 세션이 여러 노드에 나뉘어 있어도 된다.
+ * 4. reconcile-ms 마다 이 노드가 주인인 방의 Redis 참여 목록을 보고, 어느 노드에서도 grace-ms 이상 보이지 않은 유령 유저를 정리합니다.
+ * 방에 세션이 하나도 남지 않으면 그때 방의 그림 기록, 라운드 상태, 메모리 캐시를 정리합니다.
+ * 세션이 있는 방은 reconcile 때마다 활동으로 기록해서 만료되지 않게 합니다. (RoomExpiryService)
+ */
+@Slf4j
+@Service
+public class RoomPresenceService {
+
+    public static final String USER_ATTRIBUTE = "userIdx";
+
+    // Spring Data Redis 가 @RedisHash("room") id 를 모아 두는 set
+    private static final String ROOM_INDEX_KEY = "room";
+    private static final String PRESENCE_PREFIX = "presence:";
+
+    private final RoomService roomService;
+    private final RoomStateCache roomStateCache;
+    private final RedisMethods redisMethods;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final NodeRegistry nodeRegistry;
+    private final RoomBroadcaster roomBroadcaster;
+    private final DrawBatcher drawBatcher;
+    private final RoundLifecycleService roundLifecycleService;
+    private final RoundTimerService roundTimerService;
+    private final long graceMillis;
+    private final long heartbeatMillis;
+    // 끊긴 유저 내보내기는 같은 방의 다른 명령과 순서를 맞춘다.
+    private final RoomCommandExecutor roomCommandExecutor;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final RoomDiffPublisher roomDiffPublisher;
+    private final RoomExpiryService roomExpiryService;
+    // 유령 유저 정리 작업
+    private final ScheduledExecutorService worker;
+
+    // roomIdx, 접속 정보
+    private final Map<String, RoomPresence> rooms = new ConcurrentHashMap<>();
+    // "roomIdx:userIdx", 세션 없이 참여 목록에만 있는 것을 처음 본 시각
+    private final Map<String, Long> suspects = new ConcurrentHashMap<>();
+
+    private final AtomicLong disconnectedPurged = new AtomicLong();
+    private final AtomicLong ghostsPurged = new AtomicLong();
+
+    public RoomPresenceService(RoomService roomService, RoomStateCache roomStateCache, RedisMethods redisMethods,
+                               RedisTemplate<String, Object> redisTemplate, NodeRegistry nodeRegistry,
+                               RoomBroadcaster roomBroadcaster, DrawBatcher drawBatcher,
+                               RoundLifecycleService roundLifecycleService, RoundTimerService roundTimerService,
+                               RoomCommandExecutor roomCommandExecutor, InboundRateLimiter inboundRateLimiter,
+                               RoomDiffPublisher roomDiffPublisher, RoomExpiryService roomExpiryService,
+                               @Value("${room.presence.grace-ms:30000}") long graceMillis,
+                               @Value("${room.presence.reconcile-ms:60000}") long reconcileMillis,
+                               @Value("${room.presence.heartbeat-ms:10000}") long heartbeatMillis) {
+        this.roomService = roomService;
+        this.roomStateCache = roomStateCache;
+        this.redisMethods = redisMethods;
+        this.redisTemplate = redisTemplate;
+        this.nodeRegistry = nodeRegistry;
+        this.roomBroadcaster = roomBroadcaster;
+        this.drawBatcher = drawBatcher;
+        this.roundLifecycleService = roundLifecycleService;
+        this.roundTimerService = roundTimerService;
+        this.roomCommandExecutor = roomCommandExecutor;
+        this.inboundRateLimiter = inboundRateLimiter;
+        this.roomDiffPublisher = roomDiffPublisher;
+        this.roomExpiryService = roomExpiryService;
+        this.graceMillis = graceMillis;
+        this.heartbeatMillis = heartbeatMillis;
+
+        this.worker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("room-presence-"));
+        this.worker.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        this.worker.scheduleWithFixedDelay(this::reconcile, reconcileMillis, reconcileMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // userIn 이 성공했거나 이어서 접속한 세션
+    public void bind(String roomIdx, Long userIdx, WebSocketSession session) {
+        session.getAttributes().put(USER_ATTRIBUTE, userIdx);
+        RoomPresence presence = rooms.computeIfAbsent(roomIdx, key -> new RoomPresence());
+        synchronized (presence) {
+            presence.sessions.computeIfAbsent(userIdx, key -> new HashSet<>()).add(session.getId());
+            presence.departing.remove(userIdx);
+        }
+        suspects.remove(suspectKey(roomIdx, userIdx));
+        roomExpiryService.touch(roomIdx);
+        try {
+            redisTemplate.opsForZSet().add(presenceKey(roomIdx), userIdx.toString(), System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.error("접속 기록 실패 roomIdx = {}, userIdx = {}, e = {}", roomIdx, userIdx, e.toString());
+        }
+    }
+
+    // 세션이 끊겼을 때: 유저의 마지막 세션이면 자리를 잡아 두고 grace-ms 뒤에 정리한다.
+    public void unbind(String roomIdx, WebSocketSession session) {
+        Object userIdx = session.getAttributes().get(USER_ATTRIBUTE);
+        RoomPresence presence = rooms.computeIfAbsent(roomIdx, key -> new RoomPresence());
+        synchronized (presence) {
+            if (userIdx instanceof Long) {
+                Set<String> sessionIds = presence.sessions.get(userIdx);
+                if (sessionIds != null && sessionIds.remove(session.getId()) && sessionIds.isEmpty()) {
+                    presence.sessions.remove(userIdx);
+                    presence.departing.put((Long) userIdx, System.currentTimeMillis() + graceMillis);
+                }
+            }
+            // 예약된 정리가 없을 때만 건다. (먼저 끊긴 유저의 정리가 더 빠르고, 그때 다음 정리를 다시 건다.)
+            if (presence.flush == null) {
+                scheduleFlush(roomIdx, presence, graceMillis);
+            }
+        }
+    }
+
+    // presence 락을 잡고 부른다.
+    private void scheduleFlush(String roomIdx, RoomPresence presence, long delayMillis) {
+        presence.flush = roundTimerService.schedule(() -> roomCommandExecutor.execute(roomIdx, "presenceFlush", () -> flush(roomIdx)),
+                Math.max(1, delayMillis), TimeUnit.MILLISECONDS);
+    }
+
+    private void flush(String roomIdx) {
+        RoomPresence presence = rooms.get(roomIdx);
+        if (presence == null) {
+            return;
+        }
+        try {
+            // 내보내는 동안 다시 들어온 유저가 같이 지워지지 않도록 락을 잡고 한다.
+            synchronized (presence) {
+                presence.flush = null;
+                long now = System.currentTimeMillis();
+                List<Long> leaving = new ArrayList<>();
+                long next = Long.MAX_VALUE;
+                for (Iterator<Map.Entry<Long, Long>> it = presence.departing.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Long, Long> departing = it.next();
+                    if (departing.getValue() <= now) {
+                        leaving.add(departing.getKey());
+                        it.remove();
+                    } else {
+                        next = Math.min(next, departing.getValue());
+                    }
+                }
+                // 그 사이 다른 노드로 다시 들어온 유저는 내보내지 않는다.
+                leaving.removeIf(userIdx -> seenSince(roomIdx, userIdx, now - graceMillis));
+                if (!leaving.isEmpty()) {
+                    purge(roomIdx, leaving);
+                    disconnectedPurged.addAndGet(leaving.size());
+                }
+                // 아직 기다리는 유저는 가장 먼저 시간이 다 되는 유저에 맞춰 다시 건다.
+                if (next != Long.MAX_VALUE) {
+                    scheduleFlush(roomIdx, presence, next - now);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("끊긴 유저 정리 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+        releaseIfIdle(roomIdx, presence);
+    }
+
+    // 방에 세션도, 다시 들어오길 기다리는 유저도 없으면 방 자원을 정리한다.
+    private void releaseIfIdle(String roomIdx, RoomPresence presence) {
+        if (roomBroadcaster.countSessions(roomIdx) > 0) {
+            return;
+        }
+        synchronized (presence) {
+            if (!presence.sessions.isEmpty() || !presence.departing.isEmpty() || presence.flush != null) {
+                return;
+            }
+            rooms.remove(roomIdx, presence);
+        }
+        drawBatcher.release(roomIdx);
+        roundLifecycleService.release(roomIdx);
+        roomStateCache.evict(roomIdx);
+        inboundRateLimiter.release(roomIdx);
+        roomDiffPublisher.release(roomIdx);
+    }
+
+    private void purge(String roomIdx, List<Long> userIdxs) {
+        RoomResponseDto result = roomService.outRoomUsers(roomIdx, userIdxs);
+        log.info("방에서 내보낸 유저 roomIdx = {}, users = {}, message = {}", roomIdx, userIdxs, result.getMessage());
+        if (!userIdxs.isEmpty()) {
+            redisTemplate.opsForZSet().remove(presenceKey(roomIdx), userIdxs.stream().map(String::valueOf).toArray());
+        }
+        if ("success".equals(result.getStatus()) && result.getRoomNow() > 0) {
+            // 남은 유저에게 나간 유저와 바뀐 방장 전달
+            roomDiffPublisher.publish(roomIdx);
+        }
+    }
+
+    // 이 노드에 세션이 있는 유저를 presence:{roomIdx} 에 다시 기록한다. (끊기고 기다리는 유저는 기록하지 않는다.)
+    private void heartbeat() {
+        try {
+            Map<String, List<String>> present = new HashMap<>();
+            rooms.forEach((roomIdx, presence) -> {
+                List<String> userIdxs = new ArrayList<>();
+                synchronized (presence) {
+                    presence.sessions.keySet().forEach(userIdx -> userIdxs.add(userIdx.toString()));
+                }
+                if (!userIdxs.isEmpty()) {
+                    present.put(roomIdx, userIdxs);
+                }
+            });
+            if (present.isEmpty()) {
+                return;
+            }
+            double now = System.currentTimeMillis();
+            // 방이 사라져도 key 가 남지 않도록 TTL 을 건다.
+            long ttlMillis = graceMillis * 2 + heartbeatMillis;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                present.forEach((roomIdx, userIdxs) -> {
+                    byte[] key = presenceKey(roomIdx).getBytes(StandardCharsets.UTF_8);
+                    for (String userIdx : userIdxs) {
+                        connection.zSetCommands().zAdd(key, now, userIdx.getBytes(StandardCharsets.UTF_8));
+                    }
+                    connection.keyCommands().pExpire(key, ttlMillis);
+                });
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("접속 기록 실패 e = {}", e.toString());
+        }
+    }
+
+    // 이 노드가 주인인 방만 비교한다. 세션은 다른 노드에 있을 수 있으므로 presence:{roomIdx} 도 같이 본다.
+    private void reconcile() {
+        try {
+            rooms.keySet().forEach(roomExpiryService::touch);
+            Set<Object> roomIdxs = redisTemplate.opsForSet().members(ROOM_INDEX_KEY);
+            if (roomIdxs == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Set<String> seen = new HashSet<>();
+            for (Object id : roomIdxs) {
+                String roomIdx = id.toString();
+                if (nodeRegistry.getNodeId().equals(nodeRegistry.ownerOf(roomIdx))) {
+                    reconcileRoom(roomIdx, now, seen);
+                }
+            }
+            suspects.keySet().retainAll(seen);
+        } catch (RuntimeException e) {
+            log.error("유령 유저 정리 실패 e = {}", e.toString());
+        }
+    }
+
+    private void reconcileRoom(String roomIdx, long now, Set<String> seen) {
+        RoomPresence presence = rooms.get(roomIdx);
+        List<Object> members = redisMethods.getList(roomIdx);
+        // grace-ms 안에 어느 노드에서든 세션이 보인 유저
+        Set<Object> alive = redisTemplate.opsForZSet().rangeByScore(presenceKey(roomIdx), now - graceMillis, Double.POSITIVE_INFINITY);
+        List<Long> ghosts = new ArrayList<>();
+        boolean emptyRoom = members.isEmpty() && roomBroadcaster.countSessions(roomIdx) == 0;
+
+        for (Object member : members) {
+            Long userIdx = parseUserIdx(member);
+            if (userIdx == null || (presence != null && presence.isPresent(userIdx)) || (alive != null && alive.contains(member.toString()))) {
+                continue;
+            }
+            if (isSuspectLongEnough(suspectKey(roomIdx, userIdx), now, seen)) {
+                ghosts.add(userIdx);
+            }
+        }
+        // 참여 목록 없이 방만 남은 경우
+        if (emptyRoom && !isSuspectLongEnough(roomIdx, now, seen)) {
+            emptyRoom = false;
+        }
+        if (ghosts.isEmpty() && !emptyRoom) {
+            return;
+        }
+
+        if (presence == null) {
+            purge(roomIdx, ghosts);
+        } else {
+            synchronized (presence) {
+                ghosts.removeIf(presence::isPresent);
+                purge(roomIdx, ghosts);
+            }
+        }
+        ghostsPurged.addAndGet(ghosts.size());
+        for (Long ghost : ghosts) {
+            suspects.remove(suspectKey(roomIdx, ghost));
+        }
+        suspects.remove(roomIdx);
+    }
+
+    // since 뒤에 어느 노드에서든 세션이 보였으면 true
+    private boolean seenSince(String roomIdx, Long userIdx, long since) {
+        Double lastSeen = redisTemplate.opsForZSet().score(presenceKey(roomIdx), userIdx.toString());
+        return lastSeen != null && lastSeen > since;
+    }
+
+    private boolean isSuspectLongEnough(String key, long now, Set<String> seen) {
+        seen.add(key);
+        return now - suspects.computeIfAbsent(key, k -> now) >= graceMillis;
+    }
+
+    private Long parseUserIdx(Object member) {
+        try {
+            return Long.parseLong(member.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String presenceKey(String roomIdx) {
+        return PRESENCE_PREFIX + roomIdx;
+    }
+
+    private String suspectKey(String roomIdx, Long userIdx) {
+        return roomIdx + ":" + userIdx;
+    }
+
+    public RoomPresenceStatsDto getStats() {
+        int members = 0;
+        int departing = 0;
+        for (RoomPresence presence : rooms.values()) {
+            synchronized (presence) {
+                members += presence.sessions.size();
+                departing += presence.departing.size();
+            }
+        }
+        return RoomPresenceStatsDto.builder()
+                .rooms(rooms.size())
+                .members(members)
+                .departing(departing)
+                .suspects(suspects.size())
+                .disconnectedPurged(disconnectedPurged.get())
+                .ghostsPurged(ghostsPurged.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    // 방 하나의 접속 정보 (이 객체로 동기화)
+    private static class RoomPresence {
+        // userIdx, 그 유저의 세션 id
+        private final Map<Long, Set<String>> sessions = new HashMap<>();
+        // 끊기고 나서 다시 들어오길 기다리는 유저, 내보낼 시각 (ms)
+        private final Map<Long, Long> departing = new LinkedHashMap<>();
+        private Timeout flush;
+
+        boolean isPresent(Long userIdx) {
+            synchronized (this) {
+                return sessions.containsKey(userIdx) || departing.containsKey(userIdx);
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.sevenight.coldcrayon.room.service;
 
 import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.game.entity.GameCategory;
 import com.sevenight.coldcrayon.room.dto.RoomDto;
 import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
 import com.sevenight.coldcrayon.room.dto.UserHashResponseDto;
 import com.sevenight.coldcrayon.room.entity.UserHash;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -17,8 +20,14 @@ public interface RoomService {
 
     Map<String, Object> joinRoom(UserDto userDto, String roomIdx);
 
+    // 참여만 하고 스크립트 결과(reason)를 그대로 돌려준다. (빠른 시작)
+    RoomRosterDto enterRoom(UserDto userDto, String roomIdx);
+
     RoomResponseDto outRoom(UserDto userDto);
 
+    // 연결이 끊긴 유저들을 한 번에 내보낸다.
+    RoomResponseDto outRoomUsers(String roomIdx, Collection<Long> userIdxs);
+
     RoomResponseDto changeAdminUser(UserDto user, String roomIdx, Long toUserIdx);
 
     RoomResponseDto changeMaxUser(UserDto user, String roomIdx, int roomMax);
@@ -32,5 +41,11 @@ public interface RoomService {
 
     int changeRoomOption(String type, String option, String roomIdx);
 
+    // 방 주인 노드와 접속 주소
+    Map<String, Object> getRoomOwner(String roomIdx);
+
+    // 로비: 들어갈 수 있는 방 목록 (사람이 많은 방부터)
+    Map<String, Object> getLobbyRooms(GameCategory gameCategory, int minNow, int maxNow, int page, int size);
+
 
 }
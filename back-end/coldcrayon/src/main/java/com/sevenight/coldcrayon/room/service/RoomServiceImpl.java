@@ -5,12 +5,12 @@ import com.sevenight.coldcrayon.config.RedisMethods;
 import com.sevenight.coldcrayon.game.entity.GameCategory;
 import com.sevenight.coldcrayon.joinlist.service.JoinListService;
 import com.sevenight.coldcrayon.room.dto.RoomResponseDto;
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
 import com.sevenight.coldcrayon.room.dto.UserHashResponseDto;
 import com.sevenight.coldcrayon.room.entity.RoomHash;
 import com.sevenight.coldcrayon.room.entity.RoomStatus;
 import com.sevenight.coldcrayon.room.entity.UserHash;
-import com.sevenight.coldcrayon.room.repository.RoomRepository;
-import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.socket.service.NodeRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,14 +26,17 @@ import java.util.*;
 public class RoomServiceImpl implements RoomService{
 
     final RedisMethods redisMethods;
-    final RoomRepository roomRepository;
+    final RoomStateCache roomStateCache;
     final JoinListService joinListService;
-    final UserHashRepository userHashRepository;
+    final NodeRegistry nodeRegistry;
+    final RoomMembershipScripts roomMembershipScripts;
+    final LobbyIndex lobbyIndex;
+    final RoomExpiryService roomExpiryService;
 
     // 방 만들기
     public Map<String, Object> saveRoom(UserDto userDto){
         Map<String, Object> responseMap = new HashMap<>();
-        if(userHashRepository.findById(userDto.getUserIdx()).isPresent()){
+        if(roomStateCache.findUser(userDto.getUserIdx()).isPresent()){
             responseMap.put("status", "fail");
             responseMap.put("message", "다른 방에 참여하고 있는 유저 입니다.");
         } else {
@@ -51,15 +54,19 @@ public class RoomServiceImpl implements RoomService{
                     .roomNow(1)
                     .adminUserIdx(userHash.getUserIdx())
                     .roomCreateTime(LocalDateTime.now())
+                    .ownerNode(nodeRegistry.ownerOf(roomIdx))
                     .build();
 
-            roomRepository.save(roomHash);
+            roomStateCache.createRoom(roomHash);
             joinListService.createJoinList(roomIdx, userHash.getUserIdx());
-            userHashRepository.save(userHash);
+            roomStateCache.saveUser(userHash);
+            lobbyIndex.sync(roomHash);
+            roomExpiryService.touch(roomIdx);
 
             responseMap.put("status", "success");
             responseMap.put("roomIdx", roomIdx);
             responseMap.put("adminUserIdx", userDto.getUserIdx());
+            responseMap.put("ownerNode", roomHash.getOwnerNode());
 
         }
 
@@ -69,7 +76,7 @@ public class RoomServiceImpl implements RoomService{
 
     // 방 조회하기
     public RoomResponseDto getRoom(String roomIdx){
-        Optional<RoomHash> roomHashOptional = roomRepository.findById(roomIdx);
+        Optional<RoomHash> roomHashOptional = roomStateCache.findRoom(roomIdx);
         if(roomHashOptional.isPresent()){
             return RoomResponseDto.of(roomHashOptional, "success", "방 정보입니다.");
         }
@@ -77,59 +84,58 @@ public class RoomServiceImpl implements RoomService{
     }
 
     public void CorrectUser(String roomIdx, Long userIdx){
-        Optional<RoomHash> roomHashOptional = roomRepository.findById(roomIdx);
+        Optional<RoomHash> roomHashOptional = roomStateCache.findRoom(roomIdx);
         if(roomHashOptional.isPresent()){
             RoomHash roomHash = roomHashOptional.get();
             log.debug("roomHash.getCorrectUser() : " + roomHash.getCorrectUser().toString());
             log.debug("userIdx : " + userIdx.toString());
             if (roomHash.getCorrectUser().equals(-1L)){
                 roomHash.setCorrectUser(userIdx);
-                roomRepository.save(roomHash);
+                roomStateCache.saveRoom(roomHash);
             }
         }
     }
 
     // 방에 참여하기
+    // 방 확인, 인원 확인, 유저 저장, 참여 목록 추가는 스크립트 한 번으로 한다. (동시에 들어와도 최대 인원을 넘지 않는다.)
     public Map<String, Object> joinRoom(UserDto userDto, String roomIdx){
 
         Map<String, Object> joinRoomResponse = new HashMap<>();
         List<UserHash> userHashList = new ArrayList<>();
 
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
-        String status = "fail";
+        RoomRosterDto roster = this.enterRoom(userDto, roomIdx);
+
+        String status = roster.isSuccess() ? "success" : "fail";
         String message;
-        if(optionalRoomHash.isEmpty()){
-            message = "조회하신 방이 없습니다.";
-        } else {
-            RoomHash roomHash = optionalRoomHash.get();
-            if(roomHash.getRoomStatus().equals(RoomStatus.Playing)){
+        switch (roster.getReason()) {
+            case "joined":
+            case "member":
+                message = "방의 정보 입니다.";
+                break;
+            case "playing":
                 message = "게임중인 방에는 입장할 수 없습니다.";
-
-            } else if(roomHash.getRoomMax() == roomHash.getRoomNow()){
+                break;
+            case "full":
                 message = "방이 가득 찼습니다.";
-
-            } else if(userHashRepository.findById(userDto.getUserIdx()).isPresent()){
+                break;
+            case "otherRoom":
                 message = "다른 방에 참여중인 유저입니다.";
+                break;
+            default:
+                message = "조회하신 방이 없습니다.";
+        }
 
-            } else {
-                status = "success";
-                message = "방의 정보 입니다.";
-                UserHash userHash = UserHash.createUserHash(userDto, roomIdx);
-                roomHash.setRoomNow(roomHash.getRoomNow()+1);
-
-                userHashRepository.save(userHash);
-                joinListService.createJoinList(roomIdx, userDto.getUserIdx());
-                roomRepository.save(roomHash);
-            }
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
+        if(optionalRoomHash.isEmpty()){
+            status = "fail";
+            message = "조회하신 방이 없습니다.";
+        } else if(roster.isSuccess()){
+            userHashList = this.getUserList(roster.getRoster());
+        } else {
             userHashList = this.getUserList(roomIdx);
         }
         RoomResponseDto roomResponseDto = RoomResponseDto.of(optionalRoomHash, status, message);
 
-//        Map<String, Object> roomData = new HashMap();
-//        roomData.put("roomInfo",roomResponseDto);
-//        roomData.put("userList",userHashList);
-//        joinRoomResponse.put("roomData",roomData);
-
         joinRoomResponse.put("type", "userIn");
         joinRoomResponse.put("userList", userHashList);
         joinRoomResponse.put("roomInfo",roomResponseDto);
@@ -137,11 +143,23 @@ public class RoomServiceImpl implements RoomService{
         return joinRoomResponse;
     }
 
+    public RoomRosterDto enterRoom(UserDto userDto, String roomIdx){
+        UserHash userHash = UserHash.createUserHash(userDto, roomIdx);
+        RoomRosterDto roster = roomStateCache.writeThrough(roomIdx, () -> roomMembershipScripts.join(userHash));
+        if("joined".equals(roster.getReason())){
+            lobbyIndex.markChanged(roomIdx);
+        }
+        if(roster.isSuccess()){
+            roomExpiryService.touch(roomIdx);
+        }
+        return roster;
+    }
+
     public Map<String, Object> firstRoom(String roomIdx){
         Map<String, Object> joinRoomResponse = new HashMap<>();
         List<UserHash> userHashList = new ArrayList<>();
 
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
         String status = "fail";
         String message;
         if(optionalRoomHash.isEmpty()){
@@ -166,87 +184,74 @@ public class RoomServiceImpl implements RoomService{
     // 방에서 나가기
     public RoomResponseDto outRoom(UserDto userDto){
         // 방 정보 가지고 오기
-        Optional<UserHash> userHash = userHashRepository.findById(userDto.getUserIdx());
-        Optional<RoomHash> optionalRoomHash;
-        String status = "fail";
-        String message;
-
+        Optional<UserHash> userHash = roomStateCache.findUser(userDto.getUserIdx());
         if(userHash.isEmpty()){
-            message = "유저가 게임방에 들어간 적이 없습니다.";
-            optionalRoomHash = Optional.empty();
-        } else {
-            optionalRoomHash = roomRepository.findById(userHash.get().getRoomIdx());
+            return RoomResponseDto.of(Optional.empty(), "fail", "유저가 게임방에 들어간 적이 없습니다.");
+        }
 
-            if(optionalRoomHash.isPresent()){
+        String roomIdx = userHash.get().getRoomIdx();
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
+        RoomRosterDto roster = roomStateCache.writeThrough(roomIdx,
+                () -> roomMembershipScripts.leave(roomIdx, List.of(userDto.getUserIdx())));
 
+        if(!roster.isSuccess() || optionalRoomHash.isEmpty()){
+            return RoomResponseDto.of(Optional.empty(), "fail", "조회하신 방이 없습니다.");
+        }
+        lobbyIndex.markChanged(roomIdx);
 
-                RoomHash room = optionalRoomHash.get();
+        RoomHash room = optionalRoomHash.get();
+        room.setRoomNow(roster.getRoomNow());
+        if("deleted".equals(roster.getReason())){
+            return RoomResponseDto.of(Optional.of(room), "success", "방의 인원이 1명이라 방을 삭제합니다.");
+        }
+        room.setAdminUserIdx(roster.getAdminUserIdx());
+        return RoomResponseDto.of(Optional.of(room), "success", "방장을 위임합니다.");
+    }
 
-                if(room.getRoomNow() == 1){
-                    status = "Success";
-                    message = "방의 인원이 1명이라 방을 삭제합니다.";
-                    roomRepository.deleteById(room.getRoomIdx()); // 방 삭제
-                    redisMethods.removeList(room.getRoomIdx());   // 방에 참여 인원 List 삭제
-                    userHashRepository.deleteById(userDto.getUserIdx());
-                } else {
-                    // 방장 위임
-                    status = "success";
-                    message = "방장을 위임합니다.";
-                    if(room.getAdminUserIdx().equals(userDto.getUserIdx())){
-                        List<Object> userList = redisMethods.getList(room.getRoomIdx());
-                        int i=0;
-                        while(userList.get(i).equals(userDto.getUserIdx().toString())){
-                            i++;
-                        }
-
-                    RoomResponseDto roomResponseDto = this.changeAdminUser(userDto, room.getRoomIdx(), Long.parseLong(userList.get(i).toString()));
-                    room.setAdminUserIdx(roomResponseDto.getAdminUserIdx());
-
-                    }
-                    room.setRoomNow(room.getRoomNow()-1); // 방 현재 인원 -1
-                    redisMethods.removeElement(room.getRoomIdx(), userDto.getUserIdx()); //  방에 참여 인원 List에서 유저 삭제
-                    userHashRepository.deleteById(userDto.getUserIdx());
-                    roomRepository.save(room);
-                }
-            } else {
-                message = "조회하신 방이 없습니다.";
-            }
+    // 여러 유저를 한 번에 내보내기 (끊긴 세션, 유령 유저 정리)
+    // 현재 인원은 남은 참여 목록 크기로 다시 맞추고, 방장이 나갔으면 남은 유저 중 먼저 들어온 유저에게 넘긴다.
+    public RoomResponseDto outRoomUsers(String roomIdx, Collection<Long> userIdxs){
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
+        RoomRosterDto roster = roomStateCache.writeThrough(roomIdx, () -> roomMembershipScripts.leave(roomIdx, userIdxs));
+
+        if(!roster.isSuccess() || optionalRoomHash.isEmpty()){
+            return RoomResponseDto.of(Optional.empty(), "fail", "조회하신 방이 없습니다.");
         }
+        lobbyIndex.markChanged(roomIdx);
 
-        return RoomResponseDto.of(optionalRoomHash, status, message);
+        RoomHash room = optionalRoomHash.get();
+        room.setRoomNow(roster.getRoomNow());
+        if("deleted".equals(roster.getReason())){
+            return RoomResponseDto.of(Optional.of(room), "success", "방에 남은 유저가 없어 방을 삭제합니다.");
+        }
+        room.setAdminUserIdx(roster.getAdminUserIdx());
+        return RoomResponseDto.of(Optional.of(room), "success", "연결이 끊긴 유저를 내보냈습니다.");
     }
 
     // 방장 위임
     public RoomResponseDto changeAdminUser(UserDto user, String roomIdx, Long toUserIdx){
-        String status = "fail";
-        String message;
-
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
+        RoomRosterDto roster = roomStateCache.writeThrough(roomIdx,
+                () -> roomMembershipScripts.changeAdmin(roomIdx, user.getUserIdx(), toUserIdx));
 
-        if(optionalRoomHash.isPresent()){
-            RoomHash room = optionalRoomHash.get();
-
-            // 방장이랑 유저 idx랑 다르면 되돌려보내기
-
-            if(!user.getUserIdx().equals(room.getAdminUserIdx())){
+        String status = roster.isSuccess() ? "success" : "fail";
+        String message;
+        switch (roster.getReason()) {
+            case "adminChanged":
+                message = toUserIdx + " 에게 방장을 위임했습니다.";
+                break;
+            case "notAdmin":
                 message = "방에 설정된 방장이 아닙니다.";
-            } else{
-
-                List<Object> userList = redisMethods.getList(roomIdx);
-
-                if (userList.contains(toUserIdx + "")){ // 방장을 위임하는 유저가 있는 경우
-                    status = "success";
-                    room.setAdminUserIdx(toUserIdx);
-                    roomRepository.save(room);
-                    message = toUserIdx + " 에게 방장을 위임했습니다.";
-                } else {
-                    message = "위임하려는 유저가 없습니다.";
-                }
-            }
-
+                break;
+            case "noTarget":
+                message = "위임하려는 유저가 없습니다.";
+                break;
+            default:
+                message = "요청하신 방의 정보가 없습니다.";
+        }
 
-        } else {
-            message = "요청하신 방의 정보가 없습니다.";
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
+        if(optionalRoomHash.isEmpty()){
+            return RoomResponseDto.of(optionalRoomHash, "fail", "요청하신 방의 정보가 없습니다.");
         }
         return RoomResponseDto.of(optionalRoomHash, status, message);
     }
@@ -255,7 +260,7 @@ public class RoomServiceImpl implements RoomService{
     public RoomResponseDto changeMaxUser(UserDto user, String roomIdx, int roomMax){
         String status = "fail";
         String message;
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
 
         if(optionalRoomHash.isEmpty()){
             message = "요청하신 방의 정보가 없습니다.";
@@ -274,7 +279,8 @@ public class RoomServiceImpl implements RoomService{
             status = "success";
             message = roomMax + "인원으로 변경했습니다.";
             room.setRoomMax(roomMax);
-            roomRepository.save(room);
+            roomStateCache.saveRoom(room);
+            lobbyIndex.sync(room);
         }
 
         return RoomResponseDto.of(optionalRoomHash, status, message);
@@ -284,7 +290,7 @@ public class RoomServiceImpl implements RoomService{
 
         log.error("**************************** 여기는 changeRoomOption 입니다.");
 
-        Optional<RoomHash> optionalRoomHash = roomRepository.findById(roomIdx);
+        Optional<RoomHash> optionalRoomHash = roomStateCache.findRoom(roomIdx);
         if (optionalRoomHash.isPresent()) {
             RoomHash roomHash = optionalRoomHash.get();
             System.err.println("옵션 변경 전 방 정보입니다. : " + roomHash.toString());
@@ -305,7 +311,8 @@ public class RoomServiceImpl implements RoomService{
                 roomHash.setMaxRound(Integer.parseInt(option));
                 System.err.println("faefafaefawf 넣음 : " + option);
             }
-            roomRepository.save(roomHash);
+            roomStateCache.saveRoom(roomHash);
+            lobbyIndex.sync(roomHash);
 
 //            Optional<RoomHash> optionalRoomHash2 = roomRepository.findById(roomIdx);
 //            if (optionalRoomHash2.isPresent()) {
@@ -319,14 +326,42 @@ public class RoomServiceImpl implements RoomService{
     }
 
 
-    // 참여 인원 조회하기
+    // 참여 인원 조회하기 (참여 목록과 유저 정보를 한 번에 읽는다.)
     public List<UserHash> getUserList(String roomIdx){
-        List<Object> userList = redisMethods.getList(roomIdx);
-        List<UserHash> userHashList = new ArrayList<>();
-        for(Object userIdx: userList){
-            userHashList.add(userHashRepository.findById(Long.parseLong(userIdx.toString())).get());
+        return roomStateCache.findRoomUsers(roomIdx);
+    }
+
+    // 스크립트가 돌려준 참여 유저로 조회하기 (참여 목록을 다시 읽지 않는다.)
+    private List<UserHash> getUserList(List<Long> roster){
+        return roomStateCache.findUsers(roster);
+    }
+
+    // 로비: 들어갈 수 있는 방 목록 (gameCategory 가 null 이면 전체)
+    public Map<String, Object> getLobbyRooms(GameCategory gameCategory, int minNow, int maxNow, int page, int size){
+        return lobbyIndex.list(gameCategory, minNow, maxNow, page, size);
+    }
+
+    // 방 주인 노드 조회: 기록된 노드가 죽었으면 살아 있는 노드로 링에서 다시 고른다.
+    // (죽은 노드의 방만 옮겨지고 나머지 방은 그대로)
+    public Map<String, Object> getRoomOwner(String roomIdx){
+        Map<String, Object> responseMap = new HashMap<>();
+        Optional<RoomHash> roomHashOptional = roomStateCache.findRoom(roomIdx);
+        if(roomHashOptional.isEmpty()){
+            responseMap.put("status", "fail");
+            responseMap.put("message", "존재하지 않는 방입니다.");
+            return responseMap;
+        }
+        RoomHash roomHash = roomHashOptional.get();
+        if(!nodeRegistry.isAlive(roomHash.getOwnerNode())){
+            roomHash.setOwnerNode(nodeRegistry.ownerOf(roomIdx));
+            roomStateCache.saveRoom(roomHash);
         }
-        return userHashList;
+
+        responseMap.put("status", "success");
+        responseMap.put("roomIdx", roomIdx);
+        responseMap.put("ownerNode", roomHash.getOwnerNode());
+        responseMap.put("address", nodeRegistry.addressOf(roomHash.getOwnerNode()));
+        return responseMap;
     }
 
     // U : 유저 차단
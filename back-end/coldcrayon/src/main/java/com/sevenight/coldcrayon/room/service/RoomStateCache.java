@@ -0,0 +1,569 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.room.dto.RoomStateStatsDto;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import com.sevenight.coldcrayon.room.entity.UserHash;
+import com.sevenight.coldcrayon.room.repository.RoomRepository;
+import com.sevenight.coldcrayon.room.repository.RoomRosterRepository;
+import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.socket.service.NodeRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.mapping.RedisPersistentProperty;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 주인 노드(RoomHash.ownerNode)가 방과 그 방 유저를 메모리에 들고 있고, 바뀐 필드만 모아서 Redis 에 씁니다. (write-behind)
+ * 1. 메모리에는 Redis 에 저장되는 형태(RedisData) 그대로 두고, 읽을 때마다 새 객체로 만들어 준다. (Repository 와 같은 사용법)
+ * 2. save 는 메모리만 바꾸고, flush-ms 마다 마지막으로 쓴 값과 다른 필드만 pipeline 한 번으로 HSET 한다.
+ * 3. 주인이 아닌 노드는 Repository 로 바로 읽고 쓰고, 주인 노드에 다시 읽으라고 알린다. (room-state:refresh)
+ * 새로 만들기와 삭제는 다른 노드도 바로 봐야 하므로 항상 바로 쓴다.
+ * 방의 현재 인원(roomNow)과 방장(adminUserIdx)은 참여 스크립트만 쓴다. saveRoom 은 이 두 필드를 쓰지 않으므로, 스크립트 전에 읽은 방을 저장해도 되돌리지 않는다.
+ * 방 유저 전체를 읽고 쓸 때는 유저 수와 상관없이 Redis 왕복 한 번으로 한다. (findRoomUsers, findUsers, saveUsers)
+ */
+@Slf4j
+@Service
+public class RoomStateCache {
+
+    private static final String ROOM_KEYSPACE = "room";
+    private static final String USER_KEYSPACE = "user";
+    // 참여 스크립트(room-join.lua, room-leave.lua, room-admin.lua)만 쓰는 방 필드
+    private static final Set<String> SCRIPT_FIELDS = Set.of("roomNow", "adminUserIdx");
+
+    private static final byte[] UPDATE_IF_EXISTS = (
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end\n" +
+            "local n = tonumber(ARGV[1])\n" +
+            "for i = 2, n * 2, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end\n" +
+            "for i = n * 2 + 2, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end\n" +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private final RoomRepository roomRepository;
+    private final UserHashRepository userHashRepository;
+    private final RoomRosterRepository roomRosterRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConverter redisConverter;
+    private final NodeRegistry nodeRegistry;
+    private final String refreshChannel;
+    private final RedisMessageListenerContainer container;
+    private final ScheduledExecutorService flusher;
+    // RoomHash 가 Redis 에 쓰는 필드 이름 (null 이 된 필드를 지울 때)
+    private final Set<String> roomFields = new HashSet<>();
+
+    // "room:{roomIdx}", "user:{userIdx}" 형태의 key, 상태
+    private final Map<String, CachedState> states = new ConcurrentHashMap<>();
+    // roomIdx, 메모리에 있는 그 방 유저 key
+    private final Map<String, Set<String>> roomUsers = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong fieldsWritten = new AtomicLong();
+    private final AtomicLong batchReads = new AtomicLong();
+    private final AtomicLong batchWrites = new AtomicLong();
+
+    public RoomStateCache(RoomRepository roomRepository, UserHashRepository userHashRepository, RoomRosterRepository roomRosterRepository,
+                          RedisTemplate<String, Object> redisTemplate, RedisConnectionFactory redisConnectionFactory,
+                          RedisConverter redisConverter, NodeRegistry nodeRegistry,
+                          @Value("${room.cache.flush-ms:100}") long flushMillis,
+                          @Value("${room.cache.refresh-channel:room-state:refresh}") String refreshChannel) {
+        this.roomRepository = roomRepository;
+        this.userHashRepository = userHashRepository;
+        this.roomRosterRepository = roomRosterRepository;
+        this.redisTemplate = redisTemplate;
+        this.redisConverter = redisConverter;
+        this.nodeRegistry = nodeRegistry;
+        this.refreshChannel = refreshChannel;
+        redisConverter.getMappingContext().getRequiredPersistentEntity(RoomHash.class)
+                .doWithProperties((PropertyHandler<RedisPersistentProperty>) property -> roomFields.add(property.getName()));
+
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(redisConnectionFactory);
+        this.container.addMessageListener(this::onRefresh, new ChannelTopic(refreshChannel));
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("room-state-flush-"));
+        this.flusher.scheduleWithFixedDelay(this::flushDirty, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PostConstruct
+    public void start() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    public Optional<RoomHash> findRoom(String roomIdx) {
+        CachedState state = states.get(roomKey(roomIdx));
+        if (state != null) {
+            hits.incrementAndGet();
+            return Optional.of(redisConverter.read(RoomHash.class, state.current));
+        }
+        misses.incrementAndGet();
+        Optional<RoomHash> roomHash = roomRepository.findById(roomIdx);
+        roomHash.filter(this::isOwned).ifPresent(room -> cache(roomKey(roomIdx), room));
+        return roomHash;
+    }
+
+    // 새 방: 다른 노드도 바로 찾을 수 있게 전체를 바로 쓴다.
+    public void createRoom(RoomHash roomHash) {
+        roomRepository.save(roomHash);
+        if (isOwned(roomHash)) {
+            cache(roomKey(roomHash.getRoomIdx()), roomHash);
+        } else {
+            publishRefresh(roomHash.getRoomIdx());
+        }
+    }
+
+    // 방 변경: 스크립트가 쓰는 필드는 빼고 쓴다. 그 사이 지워진 방은 다시 만들지 않는다.
+    public void saveRoom(RoomHash roomHash) {
+        String key = roomKey(roomHash.getRoomIdx());
+        if (states.containsKey(key)) {
+            update(key, roomHash, SCRIPT_FIELDS);
+            return;
+        }
+        if (!writeRoom(roomHash)) {
+            log.debug("이미 지워진 방은 저장하지 않습니다. roomIdx = {}", roomHash.getRoomIdx());
+            return;
+        }
+        if (!isOwned(roomHash)) {
+            publishRefresh(roomHash.getRoomIdx());
+        }
+    }
+
+    public void deleteRoom(String roomIdx) {
+        boolean cached = states.containsKey(roomKey(roomIdx));
+        forget(roomKey(roomIdx));
+        Set<String> users = roomUsers.remove(roomIdx);
+        if (users != null) {
+            users.forEach(this::forget);
+        }
+        roomRepository.deleteById(roomIdx);
+        if (!cached) {
+            publishRefresh(roomIdx);
+        }
+    }
+
+    public Optional<UserHash> findUser(Long userIdx) {
+        CachedState state = states.get(userKey(userIdx));
+        if (state != null) {
+            hits.incrementAndGet();
+            return Optional.of(redisConverter.read(UserHash.class, state.current));
+        }
+        misses.incrementAndGet();
+        Optional<UserHash> userHash = userHashRepository.findById(userIdx);
+        userHash.filter(this::isCachedRoomMember).ifPresent(user -> cacheUser(user));
+        return userHash;
+    }
+
+    public void saveUser(UserHash userHash) {
+        String key = userKey(userHash.getUserIdx());
+        CachedState state = states.get(key);
+        if (state != null && Objects.equals(state.roomIdx, userHash.getRoomIdx())) {
+            update(key, userHash);
+            return;
+        }
+        if (state != null) {
+            // 다른 방으로 옮겨가는 경우: 밀린 값은 버리고 새로 쓴다.
+            forget(key);
+        }
+        userHashRepository.save(userHash);
+        if (isCachedRoomMember(userHash)) {
+            cacheUser(userHash);
+        } else if (userHash.getRoomIdx() != null) {
+            publishRefresh(userHash.getRoomIdx());
+        }
+    }
+
+    // 방 참여 유저 전체 (참여 순서): 참여 목록과 유저 hash 를 스크립트 한 번으로 읽고, 메모리에 있는 유저는 메모리 값을 쓴다.
+    public List<UserHash> findRoomUsers(String roomIdx) {
+        batchReads.incrementAndGet();
+        List<UserHash> userHashList = roomRosterRepository.findRoster(roomIdx);
+        for (int i = 0; i < userHashList.size(); i++) {
+            UserHash userHash = userHashList.get(i);
+            CachedState state = states.get(userKey(userHash.getUserIdx()));
+            if (state != null) {
+                hits.incrementAndGet();
+                userHashList.set(i, redisConverter.read(UserHash.class, state.current));
+            } else {
+                misses.incrementAndGet();
+                if (isCachedRoomMember(userHash)) {
+                    cacheUser(userHash);
+                }
+            }
+        }
+        return userHashList;
+    }
+
+    // 여러 유저 (요청한 순서, 없는 유저는 뺀다): 메모리에 없는 유저만 pipeline 한 번으로 읽는다.
+    public List<UserHash> findUsers(Collection<Long> userIdxs) {
+        Map<Long, UserHash> found = new HashMap<>();
+        List<Long> missed = new ArrayList<>();
+        for (Long userIdx : userIdxs) {
+            CachedState state = states.get(userKey(userIdx));
+            if (state != null) {
+                hits.incrementAndGet();
+                found.put(userIdx, redisConverter.read(UserHash.class, state.current));
+            } else {
+                misses.incrementAndGet();
+                missed.add(userIdx);
+            }
+        }
+        if (!missed.isEmpty()) {
+            batchReads.incrementAndGet();
+            for (UserHash userHash : roomRosterRepository.findAllById(missed)) {
+                found.put(userHash.getUserIdx(), userHash);
+                if (isCachedRoomMember(userHash)) {
+                    cacheUser(userHash);
+                }
+            }
+        }
+
+        List<UserHash> userHashList = new ArrayList<>();
+        for (Long userIdx : userIdxs) {
+            UserHash userHash = found.get(userIdx);
+            if (userHash != null) {
+                userHashList.add(userHash);
+            }
+        }
+        return userHashList;
+    }
+
+    // 여러 유저 점수 변경: 메모리에 있는 유저는 메모리만 바꾸고, 나머지는 pipeline 한 번으로 쓴다.
+    // 그 사이 방을 나가 지워진 유저는 다시 만들지 않는다.
+    public void saveUsers(Collection<UserHash> userHashes) {
+        List<UserHash> direct = new ArrayList<>();
+        for (UserHash userHash : userHashes) {
+            String key = userKey(userHash.getUserIdx());
+            CachedState state = states.get(key);
+            if (state != null && Objects.equals(state.roomIdx, userHash.getRoomIdx())) {
+                update(key, userHash);
+                continue;
+            }
+            if (state != null) {
+                forget(key);
+            }
+            direct.add(userHash);
+        }
+        if (direct.isEmpty()) {
+            return;
+        }
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (UserHash userHash : direct) {
+                Map<String, byte[]> fields = toRedisData(userHash).getBucket().asMap();
+                // KEYS[1], 바꿀 필드 수, (필드, 값)...
+                List<byte[]> args = new ArrayList<>();
+                args.add(userKey(userHash.getUserIdx()).getBytes(StandardCharsets.UTF_8));
+                args.add(Integer.toString(fields.size()).getBytes(StandardCharsets.UTF_8));
+                for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+                    args.add(field.getKey().getBytes(StandardCharsets.UTF_8));
+                    args.add(field.getValue());
+                }
+                connection.eval(UPDATE_IF_EXISTS, ReturnType.INTEGER, 1, args.toArray(new byte[0][]));
+            }
+            return null;
+        });
+        batchWrites.incrementAndGet();
+
+        Set<String> refreshRooms = new HashSet<>();
+        for (UserHash userHash : direct) {
+            if (isCachedRoomMember(userHash)) {
+                cacheUser(userHash);
+            } else if (userHash.getRoomIdx() != null) {
+                refreshRooms.add(userHash.getRoomIdx());
+            }
+        }
+        refreshRooms.forEach(this::publishRefresh);
+    }
+
+    public void deleteUser(UserHash userHash) {
+        String key = userKey(userHash.getUserIdx());
+        boolean cached = states.containsKey(key);
+        forget(key);
+        if (userHash.getRoomIdx() != null) {
+            Set<String> users = roomUsers.get(userHash.getRoomIdx());
+            if (users != null) {
+                users.remove(key);
+            }
+        }
+        userHashRepository.deleteById(userHash.getUserIdx());
+        if (!cached && userHash.getRoomIdx() != null) {
+            // 주인 노드가 들고 있을 수도 있다.
+            publishRefresh(userHash.getRoomIdx());
+        }
+    }
+
+    // 방에 이 노드의 세션이 하나도 남지 않았을 때: 밀린 값을 쓰고 메모리에서 내린다.
+    public void evict(String roomIdx) {
+        flush(roomIdx);
+        forget(roomKey(roomIdx));
+        Set<String> users = roomUsers.remove(roomIdx);
+        if (users != null) {
+            users.forEach(this::forget);
+        }
+    }
+
+    // Redis 에서 직접 바꾸는 작업(방 참여/나가기 스크립트): 밀린 값을 먼저 쓰고, 끝나면 메모리에서 내려서 다음에 다시 읽게 한다.
+    public <T> T writeThrough(String roomIdx, Supplier<T> action) {
+        boolean cached = states.containsKey(roomKey(roomIdx));
+        if (cached) {
+            flush(roomIdx);
+        }
+        try {
+            return action.get();
+        } finally {
+            if (cached) {
+                evict(roomIdx);
+            } else {
+                publishRefresh(roomIdx);
+            }
+        }
+    }
+
+    public RoomStateStatsDto getStats() {
+        int cachedRooms = 0;
+        for (String key : states.keySet()) {
+            if (key.startsWith(ROOM_KEYSPACE + ":")) {
+                cachedRooms++;
+            }
+        }
+        return RoomStateStatsDto.builder()
+                .cachedRooms(cachedRooms)
+                .cachedUsers(states.size() - cachedRooms)
+                .dirty(dirty.size())
+                .hits(hits.get())
+                .misses(misses.get())
+                .flushes(flushes.get())
+                .fieldsWritten(fieldsWritten.get())
+                .batchReads(batchReads.get())
+                .batchWrites(batchWrites.get())
+                .build();
+    }
+
+    private boolean isOwned(RoomHash roomHash) {
+        String owner = roomHash.getOwnerNode() != null ? roomHash.getOwnerNode() : nodeRegistry.ownerOf(roomHash.getRoomIdx());
+        return nodeRegistry.getNodeId().equals(owner);
+    }
+
+    private boolean isCachedRoomMember(UserHash userHash) {
+        return userHash.getRoomIdx() != null && states.containsKey(roomKey(userHash.getRoomIdx()));
+    }
+
+    private void cache(String key, Object entity) {
+        RedisData data = toRedisData(entity);
+        states.put(key, new CachedState(data, null));
+    }
+
+    private void cacheUser(UserHash userHash) {
+        String key = userKey(userHash.getUserIdx());
+        states.put(key, new CachedState(toRedisData(userHash), userHash.getRoomIdx()));
+        roomUsers.computeIfAbsent(userHash.getRoomIdx(), roomIdx -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void update(String key, Object entity) {
+        update(key, entity, Collections.emptySet());
+    }
+
+    // keep: 넘겨받은 값 대신 메모리에 있는 값을 그대로 둘 필드
+    private void update(String key, Object entity, Set<String> keep) {
+        RedisData data = toRedisData(entity);
+        CachedState state = states.get(key);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            Map<String, byte[]> current = state.current.getBucket().asMap();
+            for (String field : keep) {
+                byte[] value = current.get(field);
+                if (value == null) {
+                    data.getBucket().remove(field);
+                } else {
+                    data.getBucket().put(field, value);
+                }
+            }
+            state.current = data;
+        }
+        dirty.add(key);
+    }
+
+    // 메모리에 없는 방: 스크립트가 쓰는 필드를 뺀 나머지를 방이 있을 때만 바로 쓴다. (전체를 덮어쓰는 save 는 쓰지 않는다.)
+    private boolean writeRoom(RoomHash roomHash) {
+        Map<String, byte[]> fields = toRedisData(roomHash).getBucket().asMap();
+        // KEYS[1], 바꿀 필드 수, (필드, 값)..., 지울 필드...
+        List<byte[]> args = new ArrayList<>();
+        args.add(roomKey(roomHash.getRoomIdx()).getBytes(StandardCharsets.UTF_8));
+        args.add(null);
+        int changed = 0;
+        for (Map.Entry<String, byte[]> field : fields.entrySet()) {
+            if (!SCRIPT_FIELDS.contains(field.getKey())) {
+                args.add(field.getKey().getBytes(StandardCharsets.UTF_8));
+                args.add(field.getValue());
+                changed++;
+            }
+        }
+        for (String field : roomFields) {
+            if (!fields.containsKey(field) && !SCRIPT_FIELDS.contains(field)) {
+                args.add(field.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        args.set(1, Integer.toString(changed).getBytes(StandardCharsets.UTF_8));
+        Long written = redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.eval(UPDATE_IF_EXISTS, ReturnType.INTEGER, 1, args.toArray(new byte[0][])));
+        fieldsWritten.addAndGet(args.size() - 2 - changed);
+        return written != null && written == 1;
+    }
+
+    private void forget(String key) {
+        states.remove(key);
+        dirty.remove(key);
+    }
+
+    private RedisData toRedisData(Object entity) {
+        RedisData data = new RedisData();
+        redisConverter.write(entity, data);
+        return data;
+    }
+
+    private void flushDirty() {
+        try {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            List<String> keys = new ArrayList<>(dirty);
+            dirty.removeAll(keys);
+            write(keys);
+        } catch (RuntimeException e) {
+            // 예외가 밖으로 나가면 scheduleWithFixedDelay 가 멈춘다.
+            log.error("room state flush 실패 e = {}", e.toString());
+        }
+    }
+
+    // 한 방과 그 방 유저의 밀린 값을 바로 쓴다.
+    private void flush(String roomIdx) {
+        List<String> keys = new ArrayList<>();
+        keys.add(roomKey(roomIdx));
+        Set<String> users = roomUsers.get(roomIdx);
+        if (users != null) {
+            keys.addAll(users);
+        }
+        keys.removeIf(key -> !dirty.remove(key));
+        write(keys);
+    }
+
+    // 마지막으로 쓴 값과 다른 필드만 pipeline 으로 쓴다.
+    // 그 사이 다른 곳에서 지운 방/유저를 다시 만들지 않도록 key 가 있을 때만 쓴다.
+    private void write(List<String> keys) {
+        List<Runnable> commits = new ArrayList<>();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                CachedState state = states.get(key);
+                if (state == null) {
+                    continue;
+                }
+                Map<String, byte[]> current;
+                synchronized (state) {
+                    current = state.current.getBucket().asMap();
+                }
+                // KEYS[1], 바꿀 필드 수, (필드, 값)..., 지울 필드...
+                List<byte[]> args = new ArrayList<>();
+                args.add(key.getBytes(StandardCharsets.UTF_8));
+                args.add(null);
+                int changed = 0;
+                for (Map.Entry<String, byte[]> field : current.entrySet()) {
+                    byte[] before = state.persisted.get(field.getKey());
+                    if (!Arrays.equals(before, field.getValue())) {
+                        args.add(field.getKey().getBytes(StandardCharsets.UTF_8));
+                        args.add(field.getValue());
+                        changed++;
+                    }
+                }
+                for (String field : state.persisted.keySet()) {
+                    if (!current.containsKey(field)) {
+                        args.add(field.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                commits.add(() -> state.persisted = current);
+                if (args.size() == 2) {
+                    continue;
+                }
+                args.set(1, Integer.toString(changed).getBytes(StandardCharsets.UTF_8));
+                connection.eval(UPDATE_IF_EXISTS, ReturnType.INTEGER, 1, args.toArray(new byte[0][]));
+                fieldsWritten.addAndGet(changed + (args.size() - 2 - changed * 2));
+            }
+            return null;
+        });
+        commits.forEach(Runnable::run);
+        flushes.incrementAndGet();
+    }
+
+    // 주인이 아닌 노드가 Redis 에 직접 쓴 경우: 밀린 값을 먼저 쓰고 메모리에서 내려서 다음에 다시 읽게 한다.
+    private void onRefresh(Message message, byte[] pattern) {
+        String roomIdx = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!states.containsKey(roomKey(roomIdx))) {
+            return;
+        }
+        try {
+            evict(roomIdx);
+        } catch (RuntimeException e) {
+            log.error("room state refresh 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+    }
+
+    private void publishRefresh(String roomIdx) {
+        try {
+            redisTemplate.convertAndSend(refreshChannel, roomIdx);
+        } catch (RuntimeException e) {
+            log.error("room state refresh 알림 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+    }
+
+    private static String roomKey(String roomIdx) {
+        return ROOM_KEYSPACE + ":" + roomIdx;
+    }
+
+    private static String userKey(Long userIdx) {
+        return USER_KEYSPACE + ":" + userIdx;
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        flusher.shutdown();
+        flushDirty();
+        container.destroy();
+    }
+
+    private static class CachedState {
+        private RedisData current;
+        // 마지막으로 Redis 에 쓴 필드 값
+        private volatile Map<String, byte[]> persisted;
+        // 유저인 경우 방
+        private final String roomIdx;
+
+        CachedState(RedisData current, String roomIdx) {
+            this.current = current;
+            this.persisted = current.getBucket().asMap();
+            this.roomIdx = roomIdx;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.sevenight.coldcrayon.socket.controller;
+
+import com.sevenight.coldcrayon.game.service.RoundLifecycleService;
+import com.sevenight.coldcrayon.room.service.LobbyIndex;
+import com.sevenight.coldcrayon.room.service.MatchmakingService;
+import com.sevenight.coldcrayon.room.service.RoomDiffPublisher;
+import com.sevenight.coldcrayon.room.service.RoomExpiryService;
+import com.sevenight.coldcrayon.room.service.RoomPresenceService;
+import com.sevenight.coldcrayon.room.service.RoomStateCache;
+import com.sevenight.coldcrayon.socket.service.ChannelRegistry;
+import com.sevenight.coldcrayon.socket.service.DrawBatcher;
+import com.sevenight.coldcrayon.socket.service.InboundRateLimiter;
+import com.sevenight.coldcrayon.socket.service.NodeRegistry;
+import com.sevenight.coldcrayon.socket.service.RoomBroadcaster;
+import com.sevenight.coldcrayon.socket.service.RoomCommandExecutor;
+import com.sevenight.coldcrayon.socket.service.RoomBus;
+import com.sevenight.coldcrayon.socket.service.RoundTimerService;
+import com.sevenight.coldcrayon.socket.service.SessionResumeService;
+import com.sevenight.coldcrayon.socket.service.StrokeLog;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/socket")
+@RequiredArgsConstructor
+public class SocketStatsController {
+
+    private final RoomBroadcaster roomBroadcaster;
+    private final DrawBatcher drawBatcher;
+    private final RoundTimerService roundTimerService;
+    private final RoundLifecycleService roundLifecycleService;
+    private final RoomBus roomBus;
+    private final NodeRegistry nodeRegistry;
+    private final RoomStateCache roomStateCache;
+    private final StrokeLog strokeLog;
+    private final SessionResumeService sessionResumeService;
+    private final RoomPresenceService roomPresenceService;
+    private final RoomCommandExecutor roomCommandExecutor;
+    private final InboundRateLimiter inboundRateLimiter;
+    private final RoomDiffPublisher roomDiffPublisher;
+    private final ChannelRegistry channelRegistry;
+    private final LobbyIndex lobbyIndex;
+    private final MatchmakingService matchmakingService;
+    private final RoomExpiryService roomExpiryService;
+
+    // 느린 세션 확인용: 방/세션별 송신 큐 길이와 버린 메시지 수
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats(){
+        Map<String, Object> data = new HashMap<>();
+        data.put("outbound", roomBroadcaster.getStats());
+        data.put("draw", drawBatcher.getStats());
+        data.put("timers", roundTimerService.getStats());
+        data.put("rounds", roundLifecycleService.getStats());
+        data.put("bus", roomBus.getStats());
+        data.put("nodes", nodeRegistry.getNodes());
+        data.put("roomState", roomStateCache.getStats());
+        data.put("strokeLog", strokeLog.getStats());
+        data.put("resume", sessionResumeService.getStats());
+        data.put("presence", roomPresenceService.getStats());
+        data.put("commands", roomCommandExecutor.getStats());
+        data.put("rateLimit", inboundRateLimiter.getStats());
+        data.put("roomDiff", roomDiffPublisher.getStats());
+        data.put("channels", channelRegistry.getStats());
+        data.put("lobby", lobbyIndex.getStats());
+        data.put("match", matchmakingService.getStats());
+        data.put("expiry", roomExpiryService.getStats());
+        return ResponseEntity.ok().body(data);
+    }
+}
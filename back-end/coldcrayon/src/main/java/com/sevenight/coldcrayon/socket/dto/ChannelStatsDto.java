@@ -0,0 +1,23 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChannelStatsDto {
+
+    // 이 노드에 다중 채널(/ws)로 접속한 유저 수, 로비를 구독한 세션 수
+    private int users;
+    private int lobbySubscribers;
+
+    // 다중 채널 접속 수, 같은 유저가 다시 접속해서 닫은 이전 연결 수
+    private long connected;
+    private long replaced;
+
+    // 연결을 유지한 채로 방을 옮긴 수
+    private long roomSwitches;
+}
@@ -0,0 +1,31 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class CommandStatsDto {
+
+    // 처리중이거나 대기중인 명령이 있는 방 수, 대기중인 명령 수, 가장 긴 방 대기열
+    private int rooms;
+    private int queued;
+    private int maxRoomDepth;
+
+    // 일하고 있는 worker 수, 전체 worker 수
+    private int activeWorkers;
+    private int workers;
+
+    private long executed;
+    private long failed;
+
+    // 방 대기열이 가득 차서 거절한 명령 수
+    private long rejected;
+
+    // 대기열에 들어가서 실행되기까지 걸린 시간
+    private long avgWaitMillis;
+    private long maxWaitMillis;
+}
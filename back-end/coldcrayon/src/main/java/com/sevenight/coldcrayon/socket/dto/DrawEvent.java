@@ -0,0 +1,24 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// 선 그리기 이벤트 한 건
+// JSON 클라이언트에게서 받은 경우 json에 원문을 들고 있어서 그대로 다시 보낼 수 있다.
+@Getter
+@ToString
+@AllArgsConstructor
+public class DrawEvent {
+
+    // StrokeCodec.OP_*
+    private final byte op;
+
+    // 양자화된 좌표 (StrokeCodec.QUANTUM 배)
+    private final int x;
+
+    private final int y;
+
+    // JSON 원문 (바이너리로 받은 경우 null)
+    private final String json;
+}
@@ -0,0 +1,28 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class DrawStatsDto {
+
+    private long tickMillis;
+
+    // 클라이언트에게서 받은 draw 메시지 수
+    private long eventsIn;
+
+    // 방으로 내보낸 프레임 수 (drawBatch + 즉시 전송한 draw)
+    private long framesOut;
+
+    // drawBatch 프레임 크기 합 (수신자 수는 곱하지 않음)
+    private long jsonBytesOut;
+
+    private long binaryBytesOut;
+
+    // 버퍼에 쌓여 있는 방 수
+    private int bufferedRooms;
+}
@@ -0,0 +1,20 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class NodeDto {
+
+    private String nodeId;
+
+    // 클라이언트가 바로 붙을 웹소켓 주소 (설정이 없으면 null)
+    private String address;
+
+    // 응답한 노드 자신인지
+    private boolean self;
+}
@@ -0,0 +1,21 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import com.sevenight.coldcrayon.socket.entity.RateBudget;
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RateLimitStatsDto {
+
+    // 구분별로 제한에 걸려서 버린 메시지 수
+    private Map<RateBudget, Long> throttled;
+
+    // 제한에 걸린 메시지가 많은 방 (roomIdx, 버린 메시지 수)
+    private Map<String, Long> topRooms;
+}
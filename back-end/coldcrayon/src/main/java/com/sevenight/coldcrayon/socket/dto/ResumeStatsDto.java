@@ -0,0 +1,24 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumeStatsDto {
+
+    // 발급된 재접속 토큰 수 (접속중 + 재접속 대기중)
+    private int tickets;
+
+    // 메시지를 보관중인 방 수
+    private int sequencedRooms;
+
+    // 빠진 메시지만 받고 이어서 접속한 횟수
+    private long resumed;
+
+    // 토큰이 만료됐거나 보관된 메시지가 부족해서 새로 접속한 횟수
+    private long failed;
+}
@@ -0,0 +1,24 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+// 다른 노드로 보내는 방 메시지
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomBusEnvelope {
+
+    // 보낸 노드 (자기가 보낸 메시지는 무시)
+    private String nodeId;
+
+    // RoomFrame 의 text 원문
+    private String text;
+
+    // RoomFrame 의 binary (JSON 에서는 base64)
+    private byte[] binary;
+
+    private String coalesceKey;
+}
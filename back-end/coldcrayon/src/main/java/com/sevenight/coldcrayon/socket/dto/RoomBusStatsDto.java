@@ -0,0 +1,26 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomBusStatsDto {
+
+    // local, memory, redis
+    private String type;
+
+    private String nodeId;
+
+    // 이 노드가 구독중인 방 수
+    private int subscribedRooms;
+
+    // 다른 노드로 보낸 메시지 수
+    private long published;
+
+    // 다른 노드에서 받은 메시지 수
+    private long received;
+}
@@ -0,0 +1,32 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.web.socket.TextMessage;
+
+// 방 전체에 보낼 메시지 한 건
+// 한 번만 인코딩해서 모든 세션이 같은 TextMessage를 공유한다.
+@Getter
+@ToString
+@AllArgsConstructor
+public class RoomFrame {
+
+    // JSON 세션용 (바이너리 세션만 있는 방이면 null일 수 있음)
+    private final TextMessage text;
+
+    // crayon.stroke.v1 세션용 (없으면 text를 보낸다)
+    // BinaryMessage는 보내면서 ByteBuffer 위치가 바뀌므로 세션마다 감싸서 보낸다.
+    private final byte[] binary;
+
+    // 같은 key를 가진 메시지는 큐가 가득 찼을 때 최신 것 하나만 남긴다. (null이면 합치지 않음)
+    private final String coalesceKey;
+
+    public static RoomFrame of(TextMessage text){
+        return new RoomFrame(text, null, null);
+    }
+
+    public static RoomFrame of(TextMessage text, String coalesceKey){
+        return new RoomFrame(text, null, coalesceKey);
+    }
+}
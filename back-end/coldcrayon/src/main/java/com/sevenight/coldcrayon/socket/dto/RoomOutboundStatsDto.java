@@ -0,0 +1,30 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class RoomOutboundStatsDto {
+
+    private String roomIdx;
+
+    private int queueDepth;
+
+    private long dropped;
+
+    private long coalesced;
+
+    // 큐가 넘쳐서 끊어버린 세션 수
+    private long closed;
+
+    // 전송 제한 시간을 넘겨서 끊어버린 세션 수
+    private long stalled;
+
+    private List<SessionOutboundStatsDto> sessions;
+}
@@ -0,0 +1,23 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionOutboundStatsDto {
+
+    private String sessionId;
+
+    // 현재 송신 대기중인 메시지 수
+    private int queueDepth;
+
+    private long sent;
+
+    private long dropped;
+
+    private long coalesced;
+}
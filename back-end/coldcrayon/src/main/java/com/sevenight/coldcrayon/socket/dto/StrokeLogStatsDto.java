@@ -0,0 +1,36 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class StrokeLogStatsDto {
+
+    // 선 기록이 있는 방 수
+    private int rooms;
+
+    // 기록된 레코드 크기 합
+    private long bytes;
+
+    // 사용중인 버퍼, 재사용 대기중인 버퍼, 버퍼 하나 크기
+    private int chunksInUse;
+    private int chunksPooled;
+    private int chunkBytes;
+
+    private long compactions;
+
+    // 방 한도를 넘어서 기록을 포기한 횟수
+    private long truncations;
+
+    // 기록을 가장 많이 포기한 방 (roomIdx, 횟수)
+    private Map<String, Long> truncatedRooms;
+
+    // 늦게 들어온 세션에 보낸 횟수
+    private long replays;
+}
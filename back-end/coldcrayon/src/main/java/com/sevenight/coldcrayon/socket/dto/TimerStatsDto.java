@@ -0,0 +1,18 @@
+package com.sevenight.coldcrayon.socket.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimerStatsDto {
+
+    // 진행중인 라운드 카운트다운 수
+    private int activeCountdowns;
+
+    // 타이머 휠에 예약된 작업 수
+    private long pendingTimeouts;
+}
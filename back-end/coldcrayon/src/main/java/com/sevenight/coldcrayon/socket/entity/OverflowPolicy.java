@@ -0,0 +1,11 @@
+package com.sevenight.coldcrayon.socket.entity;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 세션 송신 큐가 가득 찼을 때의 처리 방식
+@Getter
+@RequiredArgsConstructor
+public enum OverflowPolicy {
+	DROP, COALESCE, CLOSE
+}
@@ -0,0 +1,17 @@
+package com.sevenight.coldcrayon.socket.entity;
+
+// 받은 메시지 속도 제한 구분 (세션마다 구분별로 따로 센다.)
+// DRAW 는 선 이동, DRAW_ACTION 은 선 시작, 채우기, 지우기 같은 나머지 draw action
+public enum RateBudget {
+	CHAT, DRAW, DRAW_ACTION, OTHER;
+
+	public static RateBudget of(String type) {
+		if ("chat".equals(type)) {
+			return CHAT;
+		}
+		if ("draw".equals(type)) {
+			return DRAW;
+		}
+		return OTHER;
+	}
+}
@@ -0,0 +1,139 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sevenight.coldcrayon.socket.dto.ChannelStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 다중 채널 연결 (/ws)
+ * 유저마다 연결 하나로 로비, 지금 들어가 있는 방, 유저 알림 채널을 같이 받습니다.
+ * 1. 접속하면 유저 알림 채널(user:{userIdx})에 자동으로 들어가고, 구독 응답과 알림은 이 채널로 보냅니다.
+ * 2. 같은 유저가 다시 접속하면 이전 연결을 닫습니다. (유저당 세션 하나)
+ * 3. 방 채널은 subscribe 로 바꿀 수 있어서 방을 옮겨도 새로 핸드셰이크하지 않습니다.
+ * 채널마다 writer 가 따로 있으므로 세션은 보내기를 직렬화하는 decorator 로 감싸서 채널에 넣습니다.
+ */
+@Slf4j
+@Service
+public class ChannelRegistry {
+
+    // 다중 채널 연결 주소의 마지막 경로 (/api/ws), 방 주소(/api/{roomIdx})와 겹치지 않는다.
+    public static final String MUX_ENDPOINT = "ws";
+    public static final String ROOM_CHANNEL = "room";
+    public static final String LOBBY_CHANNEL = "lobby";
+
+    // 감싼 세션을 원래 세션 속성에 넣어 둔다.
+    private static final String MUX_ATTRIBUTE = "muxSession";
+    private static final String USER_CHANNEL_PREFIX = "user:";
+    private static final CloseStatus REPLACED = new CloseStatus(4001, "replaced by a newer connection");
+
+    private final RoomBroadcaster roomBroadcaster;
+    private final int sendTimeLimit;
+    private final int bufferSizeLimit;
+
+    // userIdx, 그 유저의 다중 채널 세션
+    private final Map<Long, WebSocketSession> users = new ConcurrentHashMap<>();
+
+    private final AtomicLong connected = new AtomicLong();
+    private final AtomicLong replaced = new AtomicLong();
+    private final AtomicLong roomSwitches = new AtomicLong();
+
+    public ChannelRegistry(RoomBroadcaster roomBroadcaster,
+                           @Value("${socket.mux.send-time-limit-ms:10000}") int sendTimeLimit,
+                           @Value("${socket.mux.buffer-size-limit:1048576}") int bufferSizeLimit) {
+        this.roomBroadcaster = roomBroadcaster;
+        this.sendTimeLimit = sendTimeLimit;
+        this.bufferSizeLimit = bufferSizeLimit;
+    }
+
+    public static boolean isMuxPath(String path) {
+        return MUX_ENDPOINT.equals(path.substring(path.lastIndexOf('/') + 1));
+    }
+
+    public static String userChannel(Long userIdx) {
+        return USER_CHANNEL_PREFIX + userIdx;
+    }
+
+    // 다중 채널 세션이면 감싼 세션, 방 주소로 접속한 세션이면 그대로
+    public static WebSocketSession outboundOf(WebSocketSession session) {
+        Object mux = session.getAttributes().get(MUX_ATTRIBUTE);
+        return mux instanceof WebSocketSession ? (WebSocketSession) mux : session;
+    }
+
+    public static boolean isMux(WebSocketSession session) {
+        return session.getAttributes().containsKey(MUX_ATTRIBUTE);
+    }
+
+    // 새 다중 채널 연결: 유저 알림 채널에 넣고, 같은 유저의 이전 연결은 닫는다.
+    public WebSocketSession connect(Long userIdx, WebSocketSession session) {
+        WebSocketSession mux = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimit, bufferSizeLimit);
+        session.getAttributes().put(MUX_ATTRIBUTE, mux);
+        roomBroadcaster.subscribe(userChannel(userIdx), mux);
+        connected.incrementAndGet();
+
+        WebSocketSession previous = users.put(userIdx, mux);
+        if (previous != null && previous.isOpen()) {
+            replaced.incrementAndGet();
+            try {
+                previous.close(REPLACED);
+            } catch (IOException e) {
+                log.debug("이전 연결 종료 실패 userIdx = {}, e = {}", userIdx, e.toString());
+            }
+        }
+        return mux;
+    }
+
+    // 연결이 끊겼을 때 (방 채널은 핸들러가 따로 정리한다.)
+    public void disconnect(Long userIdx, WebSocketSession session) {
+        WebSocketSession mux = outboundOf(session);
+        roomBroadcaster.leave(LOBBY_CHANNEL, mux);
+        roomBroadcaster.leave(userChannel(userIdx), mux);
+        users.remove(userIdx, mux);
+    }
+
+    public void subscribeLobby(WebSocketSession session) {
+        roomBroadcaster.subscribe(LOBBY_CHANNEL, outboundOf(session));
+    }
+
+    public void unsubscribeLobby(WebSocketSession session) {
+        roomBroadcaster.leave(LOBBY_CHANNEL, outboundOf(session));
+    }
+
+    public void recordRoomSwitch() {
+        roomSwitches.incrementAndGet();
+    }
+
+    // 로비를 구독한 모든 세션 (다른 노드 포함)
+    public void publishLobby(Object payload) throws JsonProcessingException {
+        roomBroadcaster.broadcast(LOBBY_CHANNEL, payload);
+    }
+
+    // 유저의 다중 채널 연결로 알림 (다른 노드에 접속해 있어도 간다.)
+    public void notifyUser(Long userIdx, Object payload) throws JsonProcessingException {
+        roomBroadcaster.broadcast(userChannel(userIdx), payload);
+    }
+
+    // 이 세션에게만 (구독 응답)
+    public void reply(Long userIdx, WebSocketSession session, Object payload) throws JsonProcessingException {
+        roomBroadcaster.send(userChannel(userIdx), outboundOf(session), payload);
+    }
+
+    public ChannelStatsDto getStats() {
+        return ChannelStatsDto.builder()
+                .users(users.size())
+                .lobbySubscribers(roomBroadcaster.countSessions(LOBBY_CHANNEL))
+                .connected(connected.get())
+                .replaced(replaced.get())
+                .roomSwitches(roomSwitches.get())
+                .build();
+    }
+}
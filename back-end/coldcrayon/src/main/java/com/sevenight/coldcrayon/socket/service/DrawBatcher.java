@@ -0,0 +1,203 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.DrawEvent;
+import com.sevenight.coldcrayon.socket.dto.DrawStatsDto;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * draw 메시지를 방 단위로 모았다가 tick 마다 drawBatch 프레임 하나로 보냅니다.
+ * 선 그리기(startDraw, move, drawMove, cancelDraw)만 모으고,
+ * 나머지(fill, clearCanvas, goPrev 등)는 쌓인 것을 먼저 보내고 바로 보냅니다. (순서 유지)
+ * 방에 crayon.stroke.v1 세션이 있으면 같은 묶음을 바이너리로도 인코딩합니다.
+ * 보낸 순서대로 StrokeLog 에도 남겨서, 새로 들어온 세션은 지금까지의 그림을 먼저 받습니다.
+ */
+@Slf4j
+@Service
+public class DrawBatcher {
+
+    private final RoomBroadcaster roomBroadcaster;
+    private final StrokeLog strokeLog;
+    private final long tickMillis;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService flusher;
+
+    // roomIdx, 아직 보내지 않은 draw 메시지
+    private final Map<String, DrawBuffer> buffers = new ConcurrentHashMap<>();
+    private final Set<String> dirtyRooms = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong eventsIn = new AtomicLong();
+    private final AtomicLong framesOut = new AtomicLong();
+    private final AtomicLong jsonBytesOut = new AtomicLong();
+    private final AtomicLong binaryBytesOut = new AtomicLong();
+
+    public DrawBatcher(RoomBroadcaster roomBroadcaster, StrokeLog strokeLog,
+                       @Value("${socket.draw.tick-ms:33}") long tickMillis,
+                       @Value("${socket.draw.max-batch-size:256}") int maxBatchSize) {
+        this.roomBroadcaster = roomBroadcaster;
+        this.strokeLog = strokeLog;
+        this.tickMillis = tickMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("draw-flush-"));
+        this.flusher.scheduleAtFixedRate(this::flushDirtyRooms, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // JSON 클라이언트가 보낸 draw 메시지
+    // message: 원문, offsetX/offsetY: 좌표가 없는 action 이면 null
+    public void submit(String roomIdx, String action, TextMessage message, String offsetX, String offsetY) {
+        eventsIn.incrementAndGet();
+        DrawBuffer buffer = buffers.computeIfAbsent(roomIdx, key -> new DrawBuffer());
+
+        byte op = StrokeCodec.opOf(action);
+        synchronized (buffer) {
+            if (op >= 0) {
+                add(roomIdx, buffer, StrokeCodec.fromJson(op, offsetX, offsetY, message.getPayload()));
+            } else {
+                // 앞에 쌓인 선을 먼저 보내야 순서가 맞는다.
+                flush(roomIdx, buffer);
+                strokeLog.appendRaw(roomIdx, action, message.getPayload());
+                roomBroadcaster.broadcast(roomIdx, message);
+                framesOut.incrementAndGet();
+            }
+        }
+    }
+
+    // crayon.stroke.v1 클라이언트가 보낸 바이너리 프레임 (디코딩 완료)
+    public void submit(String roomIdx, List<DrawEvent> events) {
+        eventsIn.addAndGet(events.size());
+        DrawBuffer buffer = buffers.computeIfAbsent(roomIdx, key -> new DrawBuffer());
+
+        synchronized (buffer) {
+            for (DrawEvent event : events) {
+                add(roomIdx, buffer, event);
+            }
+        }
+    }
+
+    // 세션을 방에 넣고 지금까지의 그림을 보낸다. (resume 이 성공하면 이미 방에 들어가 있으므로 true)
+    // 아직 안 보낸 선을 먼저 기존 세션에 보내고 나서 넣어야, 새 세션이 같은 선을 두 번 받지 않는다.
+    public boolean attach(String roomIdx, WebSocketSession session, BooleanSupplier resume) {
+        DrawBuffer buffer = buffers.computeIfAbsent(roomIdx, key -> new DrawBuffer());
+        synchronized (buffer) {
+            flush(roomIdx, buffer);
+            // 이어서 접속했으면 빠진 메시지에 그림도 들어 있다.
+            if (resume.getAsBoolean()) {
+                return true;
+            }
+            roomBroadcaster.join(roomIdx, session);
+            String replay = strokeLog.replay(roomIdx);
+            if (replay != null) {
+                roomBroadcaster.send(roomIdx, session, new TextMessage(replay));
+            }
+            return false;
+        }
+    }
+
+    // buffer 락을 잡은 상태에서만 호출
+    private void add(String roomIdx, DrawBuffer buffer, DrawEvent event) {
+        strokeLog.append(roomIdx, event);
+        buffer.events.add(event);
+        if (buffer.events.size() >= maxBatchSize) {
+            flush(roomIdx, buffer);
+        } else {
+            dirtyRooms.add(roomIdx);
+        }
+    }
+
+    // 방에 남은 세션이 없을 때 호출
+    public void release(String roomIdx) {
+        DrawBuffer buffer = buffers.remove(roomIdx);
+        dirtyRooms.remove(roomIdx);
+        strokeLog.discard(roomIdx);
+        if (buffer != null) {
+            synchronized (buffer) {
+                buffer.events.clear();
+            }
+        }
+    }
+
+    private void flushDirtyRooms() {
+        try {
+            for (String roomIdx : dirtyRooms) {
+                dirtyRooms.remove(roomIdx);
+                DrawBuffer buffer = buffers.get(roomIdx);
+                if (buffer == null) {
+                    continue;
+                }
+                synchronized (buffer) {
+                    flush(roomIdx, buffer);
+                }
+            }
+        } catch (RuntimeException e) {
+            // 예외가 밖으로 나가면 scheduleAtFixedRate가 멈춘다.
+            log.error("draw flush 실패 e = {}", e.toString());
+        }
+    }
+
+    // buffer 락을 잡은 상태에서만 호출
+    private void flush(String roomIdx, DrawBuffer buffer) {
+        List<DrawEvent> events = buffer.events;
+        if (events.isEmpty()) {
+            return;
+        }
+        // 받는 세션이 있는 형식만 만든다.
+        // 다른 노드에 어떤 세션이 있는지 모르므로 분산 모드에서는 JSON 을 항상 만든다. (바이너리 세션은 JSON 도 받을 수 있다.)
+        int sessions = roomBroadcaster.countSessions(roomIdx);
+        int binarySessions = roomBroadcaster.countBinarySessions(roomIdx);
+
+        TextMessage text = null;
+        byte[] binary = null;
+        if (sessions > binarySessions || roomBroadcaster.isDistributed()) {
+            // JSON 으로 받은 이벤트는 원문을 다시 파싱하지 않고 이어 붙인다.
+            text = new TextMessage(StrokeCodec.toJsonBatch(events));
+            jsonBytesOut.addAndGet(text.getPayloadLength());
+        }
+        if (binarySessions > 0) {
+            binary = StrokeCodec.encode(events, 0);
+            binaryBytesOut.addAndGet(binary.length);
+        }
+        events.clear();
+
+        if (text != null || binary != null) {
+            roomBroadcaster.broadcast(roomIdx, new RoomFrame(text, binary, null));
+            framesOut.incrementAndGet();
+        }
+    }
+
+    public DrawStatsDto getStats() {
+        return DrawStatsDto.builder()
+                .tickMillis(tickMillis)
+                .eventsIn(eventsIn.get())
+                .framesOut(framesOut.get())
+                .jsonBytesOut(jsonBytesOut.get())
+                .binaryBytesOut(binaryBytesOut.get())
+                .bufferedRooms(dirtyRooms.size())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+    }
+
+    private static class DrawBuffer {
+        private final List<DrawEvent> events = new ArrayList<>();
+    }
+}
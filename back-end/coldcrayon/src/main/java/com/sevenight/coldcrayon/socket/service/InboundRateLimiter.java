@@ -0,0 +1,150 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RateLimitStatsDto;
+import com.sevenight.coldcrayon.socket.entity.RateBudget;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 세션이 보내는 메시지 속도 제한 (token bucket)
+ * 1. 세션마다 chat, 선 이동, 그 외 그리기 action, 그 외 구분별로 bucket 을 하나씩 둡니다. (초당 per-second 개, 최대 burst 개까지 몰아서)
+ * 2. bucket 은 "다음 토큰이 생기는 시각" 하나만 AtomicLong 에 두고 CAS 로 갱신합니다. (락 없음)
+ * 3. 넘친 메시지를 어떻게 할지는 호출하는 쪽에서 정하고, 버린 메시지는 방별로 셉니다.
+ */
+@Slf4j
+@Service
+public class InboundRateLimiter {
+
+    private static final String ATTRIBUTE = "rateLimit";
+    private static final long NOTICE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int TOP_ROOMS = 10;
+
+    private final Map<RateBudget, Limit> limits = new EnumMap<>(RateBudget.class);
+
+    private final Map<RateBudget, LongAdder> throttled = new EnumMap<>(RateBudget.class);
+    // roomIdx, 버린 메시지 수
+    private final Map<String, LongAdder> throttledByRoom = new ConcurrentHashMap<>();
+
+    public InboundRateLimiter(@Value("${socket.rate-limit.chat-per-second:5}") double chatPerSecond,
+                              @Value("${socket.rate-limit.chat-burst:10}") int chatBurst,
+                              @Value("${socket.rate-limit.draw-per-second:120}") double drawPerSecond,
+                              @Value("${socket.rate-limit.draw-burst:240}") int drawBurst,
+                              @Value("${socket.rate-limit.draw-action-per-second:20}") double drawActionPerSecond,
+                              @Value("${socket.rate-limit.draw-action-burst:40}") int drawActionBurst,
+                              @Value("${socket.rate-limit.other-per-second:10}") double otherPerSecond,
+                              @Value("${socket.rate-limit.other-burst:20}") int otherBurst) {
+        limits.put(RateBudget.CHAT, new Limit(chatPerSecond, chatBurst));
+        limits.put(RateBudget.DRAW, new Limit(drawPerSecond, drawBurst));
+        limits.put(RateBudget.DRAW_ACTION, new Limit(drawActionPerSecond, drawActionBurst));
+        limits.put(RateBudget.OTHER, new Limit(otherPerSecond, otherBurst));
+        for (RateBudget budget : RateBudget.values()) {
+            throttled.put(budget, new LongAdder());
+        }
+    }
+
+    // permits 개를 쓸 수 있으면 true (burst 보다 많이 한 번에 쓸 수는 없다.)
+    public boolean tryAcquire(WebSocketSession session, RateBudget budget, int permits) {
+        return bucketsOf(session).buckets.get(budget).tryAcquire(limits.get(budget), permits, System.nanoTime());
+    }
+
+    // 제한에 걸려서 버린 메시지 기록
+    public void recordThrottled(String roomIdx, RateBudget budget, int messages) {
+        throttled.get(budget).add(messages);
+        throttledByRoom.computeIfAbsent(roomIdx, key -> new LongAdder()).add(messages);
+    }
+
+    // 제한 안내는 세션마다 1초에 한 번만 보낸다.
+    public boolean shouldNotify(WebSocketSession session) {
+        AtomicLong lastNotice = bucketsOf(session).lastNotice;
+        long now = System.nanoTime();
+        long last = lastNotice.get();
+        return now - last >= NOTICE_INTERVAL_NANOS && lastNotice.compareAndSet(last, now);
+    }
+
+    // 방이 정리될 때
+    public void release(String roomIdx) {
+        throttledByRoom.remove(roomIdx);
+    }
+
+    private SessionBuckets bucketsOf(WebSocketSession session) {
+        return (SessionBuckets) session.getAttributes().computeIfAbsent(ATTRIBUTE, key -> new SessionBuckets(System.nanoTime()));
+    }
+
+    public RateLimitStatsDto getStats() {
+        Map<RateBudget, Long> totals = new EnumMap<>(RateBudget.class);
+        throttled.forEach((budget, count) -> totals.put(budget, count.sum()));
+
+        List<Map.Entry<String, Long>> rooms = new ArrayList<>();
+        throttledByRoom.forEach((roomIdx, count) -> rooms.add(Map.entry(roomIdx, count.sum())));
+        rooms.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> topRooms = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> room : rooms.subList(0, Math.min(TOP_ROOMS, rooms.size()))) {
+            topRooms.put(room.getKey(), room.getValue());
+        }
+
+        return RateLimitStatsDto.builder()
+                .throttled(totals)
+                .topRooms(topRooms)
+                .build();
+    }
+
+    // 구분별 설정: 토큰 하나가 생기는 간격과, 몰아서 쓸 수 있는 만큼의 시간
+    private static class Limit {
+        private final long intervalNanos;
+        private final int burst;
+        private final long burstNanos;
+
+        Limit(double perSecond, int burst) {
+            this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+            this.burst = Math.max(1, burst);
+            this.burstNanos = intervalNanos * this.burst;
+        }
+    }
+
+    private static class SessionBuckets {
+        private final Map<RateBudget, Bucket> buckets = new EnumMap<>(RateBudget.class);
+        private final AtomicLong lastNotice;
+
+        SessionBuckets(long now) {
+            for (RateBudget budget : RateBudget.values()) {
+                buckets.put(budget, new Bucket(now));
+            }
+            this.lastNotice = new AtomicLong(now - NOTICE_INTERVAL_NANOS);
+        }
+    }
+
+    // 남은 토큰 대신 "bucket 이 다시 가득 차는 시각(full)"을 둔다.
+    // full - now 가 지금 빌려 쓴 토큰 양(시간)이고, burstNanos 를 넘으면 토큰이 없는 것이다.
+    private static class Bucket {
+        private final AtomicLong full;
+
+        Bucket(long now) {
+            this.full = new AtomicLong(now);
+        }
+
+        boolean tryAcquire(Limit limit, int permits, long now) {
+            if (permits > limit.burst) {
+                return false;
+            }
+            long cost = limit.intervalNanos * permits;
+            while (true) {
+                long current = full.get();
+                long next = (current - now > 0 ? current : now) + cost;
+                if (next - now > limit.burstNanos) {
+                    return false;
+                }
+                if (full.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
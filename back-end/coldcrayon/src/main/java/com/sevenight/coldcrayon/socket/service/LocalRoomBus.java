@@ -0,0 +1,42 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RoomBusStatsDto;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.function.BiConsumer;
+
+// 노드가 하나뿐일 때: 다른 노드로 보낼 일이 없다.
+@Service
+@ConditionalOnProperty(name = "socket.bus.type", havingValue = "local", matchIfMissing = true)
+public class LocalRoomBus implements RoomBus {
+
+    @Override
+    public void setReceiver(BiConsumer<String, RoomFrame> receiver) {
+    }
+
+    @Override
+    public void subscribe(String roomIdx) {
+    }
+
+    @Override
+    public void unsubscribe(String roomIdx) {
+    }
+
+    @Override
+    public void publish(String roomIdx, RoomFrame frame) {
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return false;
+    }
+
+    @Override
+    public RoomBusStatsDto getStats() {
+        return RoomBusStatsDto.builder()
+                .type("local")
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.NodeDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 살아 있는 실시간 노드 목록을 Redis 에 heartbeat 으로 기록하고, 그 목록으로 consistent hash 링을 만듭니다.
+ * node:heartbeat (zset: nodeId, 마지막 heartbeat 시각), node:address (hash: nodeId, 접속 주소)
+ * heartbeat 이 ttl 동안 없으면 죽은 노드로 보고 링에서 뺍니다.
+ */
+@Slf4j
+@Service
+public class NodeRegistry {
+
+    private static final String HEARTBEAT_KEY = "node:heartbeat";
+    private static final String ADDRESS_KEY = "node:address";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String nodeId;
+    private final String nodeAddress;
+    private final long ttlMillis;
+    private final int virtualNodes;
+    private final ScheduledExecutorService heartbeat;
+
+    // 링은 살아 있는 노드가 바뀔 때만 새로 만든다.
+    private volatile Set<String> liveNodes;
+    private volatile ConsistentHashRing ring;
+
+    public NodeRegistry(RedisTemplate<String, Object> redisTemplate, NodeIdentity nodeIdentity,
+                        @Value("${socket.node-address:}") String nodeAddress,
+                        @Value("${socket.cluster.heartbeat-ms:2000}") long heartbeatMillis,
+                        @Value("${socket.cluster.ttl-ms:6000}") long ttlMillis,
+                        @Value("${socket.cluster.virtual-nodes:128}") int virtualNodes) {
+        this.redisTemplate = redisTemplate;
+        this.nodeId = nodeIdentity.getNodeId();
+        this.nodeAddress = nodeAddress;
+        this.ttlMillis = ttlMillis;
+        this.virtualNodes = virtualNodes;
+        updateRing(Set.of(nodeId));
+
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("node-heartbeat-"));
+        this.heartbeat.scheduleWithFixedDelay(this::beat, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 방 주인 노드 (살아 있는 노드 중에서 고른다.)
+    public String ownerOf(String roomIdx) {
+        String owner = ring.ownerOf(roomIdx);
+        return owner != null ? owner : nodeId;
+    }
+
+    public boolean isAlive(String nodeId) {
+        return nodeId != null && liveNodes.contains(nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String addressOf(String nodeId) {
+        if (this.nodeId.equals(nodeId)) {
+            return nodeAddress;
+        }
+        Object address = redisTemplate.opsForHash().get(ADDRESS_KEY, nodeId);
+        return address == null ? null : address.toString();
+    }
+
+    public List<NodeDto> getNodes() {
+        List<NodeDto> nodes = new ArrayList<>();
+        for (String liveNode : liveNodes) {
+            nodes.add(NodeDto.builder()
+                    .nodeId(liveNode)
+                    .address(addressOf(liveNode))
+                    .self(nodeId.equals(liveNode))
+                    .build());
+        }
+        return nodes;
+    }
+
+    private void beat() {
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().add(HEARTBEAT_KEY, nodeId, now);
+            if (!nodeAddress.isBlank()) {
+                redisTemplate.opsForHash().put(ADDRESS_KEY, nodeId, nodeAddress);
+            }
+
+            // 오래된 노드 정리
+            Set<Object> dead = redisTemplate.opsForZSet().rangeByScore(HEARTBEAT_KEY, 0, now - ttlMillis);
+            if (dead != null && !dead.isEmpty()) {
+                redisTemplate.opsForZSet().removeRangeByScore(HEARTBEAT_KEY, 0, now - ttlMillis);
+                redisTemplate.opsForHash().delete(ADDRESS_KEY, dead.toArray());
+            }
+
+            Set<Object> alive = redisTemplate.opsForZSet().rangeByScore(HEARTBEAT_KEY, now - ttlMillis, Double.MAX_VALUE);
+            Set<String> nodes = new TreeSet<>();
+            nodes.add(nodeId);
+            if (alive != null) {
+                for (Object node : alive) {
+                    nodes.add(node.toString());
+                }
+            }
+            if (!nodes.equals(liveNodes)) {
+                log.info("실시간 노드 변경 {} -> {}", liveNodes, nodes);
+                updateRing(nodes);
+            }
+        } catch (RuntimeException e) {
+            // Redis 가 잠깐 안 되면 마지막 링을 그대로 쓴다.
+            log.error("노드 heartbeat 실패 e = {}", e.toString());
+        }
+    }
+
+    private void updateRing(Set<String> nodes) {
+        ring = new ConsistentHashRing(nodes, virtualNodes);
+        liveNodes = Collections.unmodifiableSet(nodes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdown();
+        try {
+            redisTemplate.opsForZSet().remove(HEARTBEAT_KEY, nodeId);
+            redisTemplate.opsForHash().delete(ADDRESS_KEY, nodeId);
+        } catch (RuntimeException e) {
+            log.error("노드 등록 해제 실패 e = {}", e.toString());
+        }
+    }
+}
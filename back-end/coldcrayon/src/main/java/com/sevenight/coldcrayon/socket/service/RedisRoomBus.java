@@ -0,0 +1,146 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sevenight.coldcrayon.socket.dto.RoomBusEnvelope;
+import com.sevenight.coldcrayon.socket.dto.RoomBusStatsDto;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis pub/sub 으로 방 메시지를 다른 노드에 전달합니다.
+ * 방마다 채널(room-bus:{roomIdx})이 있고, 그 방 세션을 가진 노드만 구독합니다.
+ * 메시지에는 보낸 노드 id 가 들어 있어서 자기가 보낸 메시지는 다시 보내지 않습니다.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "socket.bus.type", havingValue = "redis")
+public class RedisRoomBus implements RoomBus, MessageListener {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer container;
+    private final ObjectWriter envelopeWriter;
+    private final ObjectReader envelopeReader;
+    private final String nodeId;
+    private final String channelPrefix;
+
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile BiConsumer<String, RoomFrame> receiver = (roomIdx, frame) -> {
+    };
+
+    public RedisRoomBus(RedisTemplate<String, Object> redisTemplate, RedisConnectionFactory redisConnectionFactory,
+                        ObjectMapper objectMapper, NodeIdentity nodeIdentity,
+                        @Value("${socket.bus.channel-prefix:room-bus:}") String channelPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.envelopeWriter = objectMapper.writerFor(RoomBusEnvelope.class);
+        this.envelopeReader = objectMapper.readerFor(RoomBusEnvelope.class);
+        this.nodeId = nodeIdentity.getNodeId();
+        this.channelPrefix = channelPrefix;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(redisConnectionFactory);
+    }
+
+    @PostConstruct
+    public void start() {
+        container.afterPropertiesSet();
+        container.start();
+    }
+
+    @Override
+    public void setReceiver(BiConsumer<String, RoomFrame> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void subscribe(String roomIdx) {
+        if (subscribed.add(roomIdx)) {
+            container.addMessageListener(this, new ChannelTopic(channelPrefix + roomIdx));
+        }
+    }
+
+    @Override
+    public void unsubscribe(String roomIdx) {
+        if (subscribed.remove(roomIdx)) {
+            container.removeMessageListener(this, new ChannelTopic(channelPrefix + roomIdx));
+        }
+    }
+
+    @Override
+    public void publish(String roomIdx, RoomFrame frame) {
+        RoomBusEnvelope envelope = RoomBusEnvelope.builder()
+                .nodeId(nodeId)
+                .text(frame.getText() == null ? null : frame.getText().getPayload())
+                .binary(frame.getBinary())
+                .coalesceKey(frame.getCoalesceKey())
+                .build();
+        try {
+            redisTemplate.convertAndSend(channelPrefix + roomIdx, envelopeWriter.writeValueAsString(envelope));
+            published.incrementAndGet();
+        } catch (JsonProcessingException | RuntimeException e) {
+            // 다른 노드 전달이 실패해도 이 노드의 세션에는 이미 보냈다.
+            log.error("방 메시지 publish 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+    }
+
+    // 리스너 컨테이너 스레드에서 실행
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String roomIdx = channel.substring(channelPrefix.length());
+        try {
+            RoomBusEnvelope envelope = envelopeReader.readValue(message.getBody());
+            if (nodeId.equals(envelope.getNodeId())) {
+                return;
+            }
+            received.incrementAndGet();
+            TextMessage text = envelope.getText() == null ? null : new TextMessage(envelope.getText());
+            receiver.accept(roomIdx, new RoomFrame(text, envelope.getBinary(), envelope.getCoalesceKey()));
+        } catch (IOException | RuntimeException e) {
+            log.error("방 메시지 수신 실패 channel = {}, e = {}", channel, e.toString());
+        }
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public RoomBusStatsDto getStats() {
+        return RoomBusStatsDto.builder()
+                .type("redis")
+                .nodeId(nodeId)
+                .subscribedRooms(subscribed.size())
+                .published(published.get())
+                .received(received.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        container.destroy();
+    }
+}
@@ -0,0 +1,248 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import com.sevenight.coldcrayon.socket.dto.RoomOutboundStatsDto;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 방 단위 브로드캐스트 엔진
+ * 1. 세션마다 크기가 정해진 송신 큐를 두고, 가득 차면 overflow-policy 대로 처리합니다.
+ * 2. 세션마다 drain 작업(SessionOutbound)이 하나만 돌기 때문에 같은 세션에 동시에 sendMessage 하지 않고, 느린 세션이 같은 방의 다른 세션을 막지 않습니다.
+ * 3. 보내는 메시지는 한 번만 인코딩해서 모든 세션이 같은 TextMessage를 사용합니다.
+ * 4. 방 세션이 다른 노드에도 있으면 RoomBus 로 같은 메시지를 전달합니다.
+ * 5. 방 메시지마다 seq 를 붙이고 최근 메시지를 보관해서, 다시 접속한 세션에게 빠진 메시지만 보냅니다.
+ */
+@Slf4j
+@Service
+public class RoomBroadcaster {
+
+    // 설정이 끝난 writer를 재사용한다.
+    private final ObjectWriter objectWriter;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitMs;
+    private final ExecutorService writerPool;
+    private final RoomBus roomBus;
+    private final int resumeBufferSize;
+    // 방 구독/해제 순서가 뒤바뀌지 않도록
+    private final Object subscriptionLock = new Object();
+
+    // roomIdx, 방 송신 채널
+    private final Map<String, RoomChannel> channels = new ConcurrentHashMap<>();
+    // roomIdx, 방 메시지 순서 (세션이 모두 끊겨도 discard 전까지 남겨서 재접속을 받는다.)
+    private final Map<String, RoomSequencer> sequencers = new ConcurrentHashMap<>();
+
+    public RoomBroadcaster(ObjectMapper objectMapper, RoomBus roomBus,
+                           @Value("${socket.outbound.queue-capacity:256}") int queueCapacity,
+                           @Value("${socket.outbound.overflow-policy:COALESCE}") OverflowPolicy overflowPolicy,
+                           @Value("${socket.outbound.writer-threads:4}") int writerThreads,
+                           @Value("${socket.outbound.send-time-limit-ms:5000}") long sendTimeLimitMs,
+                           @Value("${socket.resume.buffer-size:512}") int resumeBufferSize) {
+        this.objectWriter = objectMapper.writer();
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.writerPool = Executors.newFixedThreadPool(writerThreads, new CustomizableThreadFactory("room-writer-"));
+        this.roomBus = roomBus;
+        this.resumeBufferSize = resumeBufferSize;
+        roomBus.setReceiver(this::deliver);
+    }
+
+    public void join(String roomIdx, WebSocketSession session) {
+        sequencers.computeIfAbsent(roomIdx, key -> new RoomSequencer(resumeBufferSize));
+        subscribe(roomIdx, session);
+    }
+
+    // 로비, 유저 알림처럼 이어받기(seq)가 필요 없는 채널: 메시지 번호를 붙이지 않는다. (나갈 때는 leave)
+    public void subscribe(String roomIdx, WebSocketSession session) {
+        boolean[] created = new boolean[1];
+        channels.compute(roomIdx, (key, channel) -> {
+            if (channel == null) {
+                channel = new RoomChannel(key, writerPool, queueCapacity, overflowPolicy, sendTimeLimitMs);
+                created[0] = true;
+            }
+            channel.add(session);
+            return channel;
+        });
+        if (created[0]) {
+            syncSubscription(roomIdx);
+        }
+    }
+
+    public void leave(String roomIdx, WebSocketSession session) {
+        boolean[] removed = new boolean[1];
+        channels.computeIfPresent(roomIdx, (key, channel) -> {
+            channel.remove(session);
+            removed[0] = channel.isEmpty();
+            return removed[0] ? null : channel;
+        });
+        if (removed[0]) {
+            syncSubscription(roomIdx);
+        }
+    }
+
+    // 끊겼던 세션을 다시 방에 넣고 lastSeq 이후 메시지를 보낸다.
+    // 보관된 메시지로 채울 수 없으면 false (방에 넣지 않음)
+    public boolean resume(String roomIdx, WebSocketSession session, long lastSeq, TextMessage status) {
+        RoomSequencer sequencer = sequencers.get(roomIdx);
+        if (sequencer == null) {
+            return false;
+        }
+        // 다시 보내는 동안 새 메시지가 끼어들지 않도록 deliver 와 같은 락을 잡는다.
+        synchronized (sequencer) {
+            List<RoomFrame> missed = sequencer.framesAfter(lastSeq);
+            if (missed == null) {
+                return false;
+            }
+            join(roomIdx, session);
+            RoomChannel channel = channels.get(roomIdx);
+            if (channel == null) {
+                return false;
+            }
+            channel.send(session, RoomFrame.of(status));
+            for (RoomFrame frame : missed) {
+                channel.send(session, frame);
+            }
+            return true;
+        }
+    }
+
+    // 현재 방의 마지막 seq (새로 들어온 세션이 기억할 시작점)
+    public long currentSeq(String roomIdx) {
+        RoomSequencer sequencer = sequencers.get(roomIdx);
+        if (sequencer == null) {
+            return 0;
+        }
+        synchronized (sequencer) {
+            return sequencer.current();
+        }
+    }
+
+    // 재접속 대기가 끝났는데 방이 비어 있으면 보관한 메시지를 버린다.
+    public void discard(String roomIdx) {
+        if (!channels.containsKey(roomIdx)) {
+            sequencers.remove(roomIdx);
+        }
+    }
+
+    public int countSequencers() {
+        return sequencers.size();
+    }
+
+    // Redis 구독은 compute 밖에서 하고, 마지막 상태에 맞춘다.
+    private void syncSubscription(String roomIdx) {
+        synchronized (subscriptionLock) {
+            if (channels.containsKey(roomIdx)) {
+                roomBus.subscribe(roomIdx);
+            } else {
+                roomBus.unsubscribe(roomIdx);
+            }
+        }
+    }
+
+    // 다른 노드에도 같은 방 세션이 있을 수 있는지
+    public boolean isDistributed() {
+        return roomBus.isDistributed();
+    }
+
+    public List<WebSocketSession> getSessions(String roomIdx) {
+        RoomChannel channel = channels.get(roomIdx);
+        if (channel == null) {
+            return Collections.emptyList();
+        }
+        return channel.getSessions();
+    }
+
+    public int countSessions(String roomIdx) {
+        RoomChannel channel = channels.get(roomIdx);
+        return channel == null ? 0 : channel.size();
+    }
+
+    // crayon.stroke.v1 로 접속한 세션 수
+    public int countBinarySessions(String roomIdx) {
+        RoomChannel channel = channels.get(roomIdx);
+        return channel == null ? 0 : channel.countBinarySessions();
+    }
+
+    public TextMessage encode(Object payload) throws JsonProcessingException {
+        return new TextMessage(objectWriter.writeValueAsString(payload));
+    }
+
+    public void broadcast(String roomIdx, Object payload) throws JsonProcessingException {
+        broadcast(roomIdx, RoomFrame.of(encode(payload)));
+    }
+
+    public void broadcast(String roomIdx, TextMessage message) {
+        broadcast(roomIdx, RoomFrame.of(message));
+    }
+
+    public void broadcast(String roomIdx, RoomFrame frame) {
+        deliver(roomIdx, frame);
+        roomBus.publish(roomIdx, frame);
+    }
+
+    // 이 노드의 세션에만 보낸다. (다른 노드에서 온 메시지도 여기로 들어온다.)
+    private void deliver(String roomIdx, RoomFrame frame) {
+        RoomSequencer sequencer = sequencers.get(roomIdx);
+        if (sequencer == null) {
+            RoomChannel channel = channels.get(roomIdx);
+            if (channel != null) {
+                channel.broadcast(frame);
+            }
+            return;
+        }
+        synchronized (sequencer) {
+            RoomFrame stamped = sequencer.stamp(frame);
+            RoomChannel channel = channels.get(roomIdx);
+            if (channel != null) {
+                channel.broadcast(stamped);
+            }
+        }
+    }
+
+    // 한 세션에만 보내는 경우에도 같은 큐를 거쳐야 동시 전송이 생기지 않는다.
+    public void send(String roomIdx, WebSocketSession session, Object payload) throws JsonProcessingException {
+        RoomChannel channel = channels.get(roomIdx);
+        if (channel != null) {
+            channel.send(session, RoomFrame.of(encode(payload)));
+        }
+    }
+
+    public void send(String roomIdx, WebSocketSession session, TextMessage message) {
+        RoomChannel channel = channels.get(roomIdx);
+        if (channel != null) {
+            channel.send(session, RoomFrame.of(message));
+        }
+    }
+
+    public List<RoomOutboundStatsDto> getStats() {
+        List<RoomOutboundStatsDto> stats = new ArrayList<>();
+        for (RoomChannel channel : channels.values()) {
+            stats.add(channel.toStats());
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerPool.shutdown();
+    }
+}
@@ -0,0 +1,30 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RoomBusStatsDto;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 같은 방의 세션이 여러 노드에 나뉘어 있을 때 방 메시지를 다른 노드로 전달합니다.
+ * 같은 노드의 세션에는 RoomBroadcaster 가 직접 보내고, 버스는 다른 노드에만 보냅니다.
+ * socket.bus.type 으로 구현을 고릅니다. (local: 단일 노드, redis: pub/sub, memory: 테스트용 같은 JVM 안의 여러 컨텍스트)
+ */
+public interface RoomBus {
+
+    // 다른 노드에서 온 메시지를 받을 곳 (roomIdx, frame)
+    void setReceiver(BiConsumer<String, RoomFrame> receiver);
+
+    // 이 노드에 방의 첫 세션이 들어왔을 때 (여러 번 불려도 된다.)
+    void subscribe(String roomIdx);
+
+    // 이 노드에 방의 세션이 하나도 남지 않았을 때 (여러 번 불려도 된다.)
+    void unsubscribe(String roomIdx);
+
+    void publish(String roomIdx, RoomFrame frame);
+
+    // 다른 노드가 있을 수 있는지 (false 면 publish 는 아무것도 하지 않는다.)
+    boolean isDistributed();
+
+    RoomBusStatsDto getStats();
+}
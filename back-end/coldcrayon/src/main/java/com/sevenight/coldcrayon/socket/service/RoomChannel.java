@@ -0,0 +1,144 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import com.sevenight.coldcrayon.socket.dto.RoomOutboundStatsDto;
+import com.sevenight.coldcrayon.socket.dto.SessionOutboundStatsDto;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 방 하나의 송신 채널
+// 세션마다 송신 큐와 drain 작업이 따로 있어서, 한 세션의 전송이 막혀도 같은 방의 다른 세션은 계속 받는다.
+// 메시지 하나를 제한 시간보다 오래 보내고 있는 세션은 방에서 빼고 닫는다.
+@Slf4j
+class RoomChannel {
+
+    @Getter
+    private final String roomIdx;
+    private final Executor writerPool;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitMs;
+
+    // session.id, 송신 큐
+    private final Map<String, SessionOutbound> outbounds = new ConcurrentHashMap<>();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong stalled = new AtomicLong();
+
+    RoomChannel(String roomIdx, Executor writerPool, int queueCapacity, OverflowPolicy overflowPolicy, long sendTimeLimitMs) {
+        this.roomIdx = roomIdx;
+        this.writerPool = writerPool;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+    }
+
+    // 이미 들어와 있는 세션이면 보내던 큐를 그대로 둔다. (이어받기로 다시 join 해도 대기 메시지를 잃지 않는다.)
+    void add(WebSocketSession session) {
+        outbounds.computeIfAbsent(session.getId(),
+                id -> new SessionOutbound(session, writerPool, queueCapacity, overflowPolicy, sendTimeLimitMs));
+    }
+
+    void remove(WebSocketSession session) {
+        outbounds.remove(session.getId());
+    }
+
+    boolean isEmpty() {
+        return outbounds.isEmpty();
+    }
+
+    int size() {
+        return outbounds.size();
+    }
+
+    int countBinarySessions() {
+        int count = 0;
+        for (SessionOutbound outbound : outbounds.values()) {
+            if (outbound.isBinaryProtocol()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    List<WebSocketSession> getSessions() {
+        List<WebSocketSession> sessions = new ArrayList<>(outbounds.size());
+        for (SessionOutbound outbound : outbounds.values()) {
+            sessions.add(outbound.getSession());
+        }
+        return sessions;
+    }
+
+    void broadcast(RoomFrame frame) {
+        long now = System.nanoTime();
+        for (SessionOutbound outbound : outbounds.values()) {
+            enqueue(outbound, frame, now);
+        }
+    }
+
+    void send(WebSocketSession session, RoomFrame frame) {
+        SessionOutbound outbound = outbounds.get(session.getId());
+        if (outbound != null) {
+            enqueue(outbound, frame, System.nanoTime());
+        }
+    }
+
+    private void enqueue(SessionOutbound outbound, RoomFrame frame, long now) {
+        if (outbound.isStalled(now)) {
+            log.error("전송 제한 시간 초과로 세션을 종료합니다. roomIdx = {}, session = {}", roomIdx, outbound.getSession().getId());
+            stalled.incrementAndGet();
+            evict(outbound);
+            return;
+        }
+        if (!outbound.offer(frame)) {
+            log.error("송신 큐 초과로 세션을 종료합니다. roomIdx = {}, session = {}", roomIdx, outbound.getSession().getId());
+            closed.incrementAndGet();
+            evict(outbound);
+            return;
+        }
+        outbound.schedule();
+    }
+
+    // 방에서 먼저 빼고 닫는다. 닫기도 막힐 수 있으므로 writer 풀에서 한다.
+    private void evict(SessionOutbound outbound) {
+        if (outbounds.remove(outbound.getSession().getId(), outbound)) {
+            try {
+                writerPool.execute(outbound::close);
+            } catch (RejectedExecutionException e) {
+                outbound.close();
+            }
+        }
+    }
+
+    RoomOutboundStatsDto toStats() {
+        List<SessionOutboundStatsDto> sessions = new ArrayList<>();
+        int queueDepth = 0;
+        long dropped = 0;
+        long coalesced = 0;
+        for (SessionOutbound outbound : outbounds.values()) {
+            SessionOutboundStatsDto stats = outbound.toStats();
+            queueDepth += stats.getQueueDepth();
+            dropped += stats.getDropped();
+            coalesced += stats.getCoalesced();
+            sessions.add(stats);
+        }
+        return RoomOutboundStatsDto.builder()
+                .roomIdx(roomIdx)
+                .queueDepth(queueDepth)
+                .dropped(dropped)
+                .coalesced(coalesced)
+                .closed(closed.get())
+                .stalled(stalled.get())
+                .sessions(sessions)
+                .build();
+    }
+}
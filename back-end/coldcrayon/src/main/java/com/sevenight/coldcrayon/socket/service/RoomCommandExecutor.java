@@ -0,0 +1,175 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.CommandStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 오래 걸리는 방 명령(게임 시작, 라운드 진행, 방 설정 등)을 WebSocket 스레드 밖에서 실행합니다.
+ * 1. worker 수는 threads 로 고정합니다.
+ * 2. 같은 방 명령은 방 대기열에 넣고 들어온 순서대로 하나씩 실행합니다. (다른 방 명령과는 동시에 실행)
+ * 3. 명령 하나를 끝내면 다음 명령은 다시 worker 대기열 뒤로 넣어서, 한 방이 worker 를 오래 잡지 않게 합니다.
+ * 4. 클라이언트 명령은 방 대기열이 max-queue-per-room 을 넘으면 거절합니다.
+ * chat, draw 같은 중계 메시지는 여기를 거치지 않습니다.
+ */
+@Slf4j
+@Service
+public class RoomCommandExecutor {
+
+    @FunctionalInterface
+    public interface RoomCommand {
+        void run() throws Exception;
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final int maxQueuePerRoom;
+
+    // roomIdx, 방 대기열 (처리중인 명령이 있는 동안만 있다.)
+    // 대기열은 compute 안에서만 바꾼다.
+    private final Map<String, CommandQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final LongAccumulator maxWaitMillis = new LongAccumulator(Math::max, 0);
+
+    public RoomCommandExecutor(@Value("${socket.command.threads:8}") int threads,
+                               @Value("${socket.command.max-queue-per-room:32}") int maxQueuePerRoom) {
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("room-command-"));
+        this.maxQueuePerRoom = maxQueuePerRoom;
+    }
+
+    // 클라이언트가 보낸 명령: 방 대기열이 가득 찼으면 false
+    public boolean submit(String roomIdx, String name, RoomCommand command) {
+        return offer(roomIdx, name, command, true);
+    }
+
+    // 서버가 정한 명령(라운드 마감, 끊긴 유저 정리 등): 버리면 안 되므로 항상 넣는다.
+    public void execute(String roomIdx, String name, RoomCommand command) {
+        offer(roomIdx, name, command, false);
+    }
+
+    private boolean offer(String roomIdx, String name, RoomCommand command, boolean bounded) {
+        boolean[] accepted = new boolean[1];
+        boolean[] created = new boolean[1];
+        queues.compute(roomIdx, (key, queue) -> {
+            if (queue == null) {
+                queue = new CommandQueue();
+                created[0] = true;
+            }
+            if (!bounded || queue.pending.size() < maxQueuePerRoom) {
+                queue.pending.addLast(new PendingCommand(name, command, System.currentTimeMillis()));
+                accepted[0] = true;
+            }
+            return queue.pending.isEmpty() && created[0] ? null : queue;
+        });
+        if (!accepted[0]) {
+            rejected.incrementAndGet();
+            log.warn("방 명령 대기열이 가득 찼습니다. roomIdx = {}, command = {}", roomIdx, name);
+            return false;
+        }
+        queued.incrementAndGet();
+        if (created[0]) {
+            workers.execute(() -> runNext(roomIdx));
+        }
+        return true;
+    }
+
+    private void runNext(String roomIdx) {
+        PendingCommand[] next = new PendingCommand[1];
+        queues.computeIfPresent(roomIdx, (key, queue) -> {
+            next[0] = queue.pending.pollFirst();
+            return queue;
+        });
+        if (next[0] != null) {
+            run(roomIdx, next[0]);
+        }
+
+        // 남은 명령이 없으면 대기열을 없애고, 있으면 worker 대기열 뒤에 다시 넣는다.
+        boolean[] more = new boolean[1];
+        queues.computeIfPresent(roomIdx, (key, queue) -> {
+            more[0] = !queue.pending.isEmpty();
+            return more[0] ? queue : null;
+        });
+        if (more[0]) {
+            workers.execute(() -> runNext(roomIdx));
+        }
+    }
+
+    private void run(String roomIdx, PendingCommand pending) {
+        queued.decrementAndGet();
+        long waitMillis = System.currentTimeMillis() - pending.enqueuedAt;
+        totalWaitMillis.addAndGet(waitMillis);
+        maxWaitMillis.accumulate(waitMillis);
+        try {
+            pending.command.run();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("방 명령 처리 실패 roomIdx = {}, command = {}, e = {}", roomIdx, pending.name, e.toString());
+        } finally {
+            executed.incrementAndGet();
+        }
+    }
+
+    public CommandStatsDto getStats() {
+        int maxRoomDepth = 0;
+        for (CommandQueue queue : queues.values()) {
+            maxRoomDepth = Math.max(maxRoomDepth, queue.depth());
+        }
+        long count = executed.get();
+        return CommandStatsDto.builder()
+                .rooms(queues.size())
+                .queued(queued.get())
+                .maxRoomDepth(maxRoomDepth)
+                .activeWorkers(workers.getActiveCount())
+                .workers(workers.getMaximumPoolSize())
+                .executed(count)
+                .failed(failed.get())
+                .rejected(rejected.get())
+                .avgWaitMillis(count == 0 ? 0 : totalWaitMillis.get() / count)
+                .maxWaitMillis(maxWaitMillis.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private static class CommandQueue {
+        private final ArrayDeque<PendingCommand> pending = new ArrayDeque<>();
+
+        // 통계용 (compute 밖에서 읽으므로 대략적인 값)
+        int depth() {
+            return pending.size();
+        }
+    }
+
+    private static class PendingCommand {
+        private final String name;
+        private final RoomCommand command;
+        private final long enqueuedAt;
+
+        PendingCommand(String name, RoomCommand command, long enqueuedAt) {
+            this.name = name;
+            this.command = command;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
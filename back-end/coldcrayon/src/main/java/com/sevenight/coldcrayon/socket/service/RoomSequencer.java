@@ -0,0 +1,151 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// 방 메시지에 순서 번호(seq)를 붙이고 최근 capacity 개를 보관한다. (다시 접속한 세션에게 빠진 것만 보내기 위해)
+// JSON 은 맨 앞에 "seq" 필드를 끼워 넣고, 바이너리는 헤더의 seq varint 자리에 넣는다.
+// 클라이언트가 보낸 메시지를 그대로 중계할 때 들어 있던 최상위 "seq" 는 지우고 붙인다. (중복 키면 뒤의 값이 이긴다.)
+// 호출하는 쪽에서 방 단위로 동기화한다.
+class RoomSequencer {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final int capacity;
+    private final ArrayDeque<Sequenced> recent;
+    private long seq;
+
+    RoomSequencer(int capacity) {
+        this.capacity = capacity;
+        this.recent = new ArrayDeque<>(capacity);
+    }
+
+    RoomFrame stamp(RoomFrame frame) {
+        seq++;
+        TextMessage text = frame.getText() == null ? null : new TextMessage(stampJson(frame.getText().getPayload(), seq));
+        byte[] binary = frame.getBinary() == null ? null : stampBinary(frame.getBinary(), seq);
+        RoomFrame stamped = new RoomFrame(text, binary, frame.getCoalesceKey());
+
+        if (recent.size() == capacity) {
+            recent.pollFirst();
+        }
+        recent.addLast(new Sequenced(seq, stamped));
+        return stamped;
+    }
+
+    long current() {
+        return seq;
+    }
+
+    // lastSeq 다음부터 보관중인 메시지 (이미 버려진 메시지가 필요하면 null)
+    List<RoomFrame> framesAfter(long lastSeq) {
+        if (lastSeq > seq || lastSeq < 0) {
+            return null;
+        }
+        Sequenced oldest = recent.peekFirst();
+        if (lastSeq < seq && (oldest == null || oldest.seq > lastSeq + 1)) {
+            return null;
+        }
+        List<RoomFrame> frames = new ArrayList<>();
+        Iterator<Sequenced> iterator = recent.descendingIterator();
+        while (iterator.hasNext()) {
+            Sequenced sequenced = iterator.next();
+            if (sequenced.seq <= lastSeq) {
+                break;
+            }
+            frames.add(0, sequenced.frame);
+        }
+        return frames;
+    }
+
+    // {"seq":N, ... (객체가 아니면 그대로)
+    private static String stampJson(String payload, long seq) {
+        payload = stripSeq(payload);
+        int start = 0;
+        while (start < payload.length() && Character.isWhitespace(payload.charAt(start))) {
+            start++;
+        }
+        if (start >= payload.length() || payload.charAt(start) != '{') {
+            return payload;
+        }
+        int next = start + 1;
+        while (next < payload.length() && Character.isWhitespace(payload.charAt(next))) {
+            next++;
+        }
+        boolean empty = next < payload.length() && payload.charAt(next) == '}';
+        return "{\"seq\":" + seq + (empty ? "" : ",") + payload.substring(start + 1);
+    }
+
+    // 최상위 "seq" 필드를 뺀 JSON (없으면 원문 그대로, 키를 유니코드 이스케이프로 썼을 수 있으면 파싱해서 확인한다.)
+    private static String stripSeq(String payload) {
+        if (!payload.contains("seq") && !payload.contains("\\u")) {
+            return payload;
+        }
+        StringWriter writer = new StringWriter(payload.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(payload);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return payload;
+            }
+            boolean found = false;
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("seq".equals(field)) {
+                    parser.skipChildren();
+                    found = true;
+                    continue;
+                }
+                generator.writeFieldName(field);
+                generator.copyCurrentStructure(parser);
+            }
+            if (!found) {
+                return payload;
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            return payload;
+        }
+        return writer.toString();
+    }
+
+    // DrawBatcher 는 seq 0 (1 byte)으로 인코딩하므로 그 자리만 바꾼다.
+    private static byte[] stampBinary(byte[] frame, long seq) {
+        if (frame.length < 2 || frame[0] != StrokeCodec.MAGIC || frame[1] != 0) {
+            return frame;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(frame.length + 8);
+        out.write(StrokeCodec.MAGIC);
+        long value = seq;
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+        out.write(frame, 2, frame.length - 2);
+        return out.toByteArray();
+    }
+
+    private static class Sequenced {
+        private final long seq;
+        private final RoomFrame frame;
+
+        Sequenced(long seq, RoomFrame frame) {
+            this.seq = seq;
+            this.frame = frame;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import com.sevenight.coldcrayon.socket.dto.TimerStatsDto;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 방의 라운드 카운트다운을 스레드 하나짜리 타이머 휠에서 돌립니다.
+ * 라운드마다 마감 시각(roundDeadline)을 한 번만 보내고, 남은 시간은 클라이언트가 계산합니다.
+ * 연장하면 새 마감 시각을 다시 보내고, 남은 시간 tick(timeStart)은 일시 정지와 취소 때만 보냅니다.
+ */
+@Slf4j
+@Service
+public class RoundTimerService {
+
+    private final RoomBroadcaster roomBroadcaster;
+    private final HashedWheelTimer wheel;
+
+    // 첫 표시까지 1초, 마감 후 클라이언트가 0초를 보여 줄 유예 1초
+    private static final long START_DELAY_MILLIS = 1000;
+    private static final long DEADLINE_GRACE_MILLIS = 1000;
+
+    // roomIdx, 진행중인 카운트다운
+    private final Map<String, Countdown> countdowns = new ConcurrentHashMap<>();
+
+    public RoundTimerService(RoomBroadcaster roomBroadcaster,
+                             @Value("${socket.timer.tick-ms:100}") long tickMillis,
+                             @Value("${socket.timer.wheel-size:512}") int wheelSize) {
+        this.roomBroadcaster = roomBroadcaster;
+        this.wheel = new HashedWheelTimer(new CustomizableThreadFactory("round-timer-"), tickMillis, TimeUnit.MILLISECONDS, wheelSize);
+    }
+
+    // 다른 기능에서 쓰는 일반 예약 (task는 짧게 끝나야 한다.)
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return wheel.newTimeout(timeout -> task.run(), delay, unit);
+    }
+
+    // 남은 시간은 클라이언트가 roundDeadline 으로 직접 계산한다. (초마다 보내지 않는다.)
+    // 표시 시작 1초 + roundTime 초가 마감이고, 마감 후 유예 시간이 지나면 onDeadline을 실행한다.
+    // onDeadline은 타이머 스레드에서 실행되므로 오래 걸리는 일은 다른 스레드로 넘겨야 한다.
+    // 같은 방에 이미 돌고 있는 카운트다운이 있으면 취소하고 새로 시작한다.
+    public void startCountdown(String roomIdx, int roundTime, Runnable onDeadline) {
+        Countdown countdown = new Countdown(roomIdx, roundTime, onDeadline);
+        Countdown previous = countdowns.put(roomIdx, countdown);
+        if (previous != null) {
+            previous.cancel();
+        }
+        countdown.start(System.currentTimeMillis() + START_DELAY_MILLIS + roundTime * 1000L);
+    }
+
+    // 라운드 시간 연장: 새 마감 시각을 다시 알린다.
+    public boolean extend(String roomIdx, int seconds) {
+        Countdown countdown = countdowns.get(roomIdx);
+        return countdown != null && countdown.extend(seconds * 1000L);
+    }
+
+    // 일시 정지: 남은 시간을 tick 으로 한 번 보낸다.
+    public boolean pause(String roomIdx) {
+        Countdown countdown = countdowns.get(roomIdx);
+        return countdown != null && countdown.pause();
+    }
+
+    public boolean resume(String roomIdx) {
+        Countdown countdown = countdowns.get(roomIdx);
+        return countdown != null && countdown.resume();
+    }
+
+    // 남은 시간 / 전체 시간 (연장, 일시 정지를 반영한다. 카운트다운이 없으면 0)
+    public double remainingRatio(String roomIdx) {
+        Countdown countdown = countdowns.get(roomIdx);
+        return countdown == null ? 0.0 : countdown.remainingRatio();
+    }
+
+    // 취소: 클라이언트 시계를 멈추도록 남은 시간을 tick 으로 한 번 보낸다.
+    public void cancel(String roomIdx) {
+        Countdown countdown = countdowns.remove(roomIdx);
+        if (countdown != null && countdown.cancel()) {
+            countdown.sendTick(false);
+        }
+    }
+
+    public TimerStatsDto getStats() {
+        return TimerStatsDto.builder()
+                .activeCountdowns(countdowns.size())
+                .pendingTimeouts(wheel.pendingTimeouts())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    private class Countdown {
+        private final String roomIdx;
+        private final Runnable onDeadline;
+        // 연장한 시간까지 더한 라운드 전체 시간(초)
+        private int duration;
+        // 서버 시각 기준 마감 (epoch millis)
+        private long deadline;
+        // 일시 정지 중일 때 남은 시간, 진행 중이면 -1
+        private long pausedRemaining = -1;
+        private Timeout timeout;
+        private boolean cancelled;
+
+        Countdown(String roomIdx, int roundTime, Runnable onDeadline) {
+            this.roomIdx = roomIdx;
+            this.onDeadline = onDeadline;
+            this.duration = roundTime;
+        }
+
+        synchronized void start(long deadline) {
+            this.deadline = deadline;
+            arm();
+            announce();
+        }
+
+        synchronized boolean extend(long millis) {
+            if (cancelled) {
+                return false;
+            }
+            duration += (int) (millis / 1000);
+            if (pausedRemaining >= 0) {
+                pausedRemaining += millis;
+                sendTick(true);
+                return true;
+            }
+            deadline += millis;
+            timeout.cancel();
+            arm();
+            announce();
+            return true;
+        }
+
+        synchronized boolean pause() {
+            if (cancelled || pausedRemaining >= 0) {
+                return false;
+            }
+            pausedRemaining = Math.max(0, deadline - System.currentTimeMillis());
+            timeout.cancel();
+            sendTick(true);
+            return true;
+        }
+
+        synchronized boolean resume() {
+            if (cancelled || pausedRemaining < 0) {
+                return false;
+            }
+            deadline = System.currentTimeMillis() + pausedRemaining;
+            pausedRemaining = -1;
+            arm();
+            announce();
+            return true;
+        }
+
+        // 표시 시작 전 1초 동안은 남은 시간이 전체 시간보다 길어서 1 로 자른다.
+        synchronized double remainingRatio() {
+            if (cancelled || duration <= 0) {
+                return 0.0;
+            }
+            long remaining = pausedRemaining >= 0 ? pausedRemaining : deadline - System.currentTimeMillis();
+            return Math.min(1.0, Math.max(0.0, remaining / (duration * 1000.0)));
+        }
+
+        synchronized boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            return true;
+        }
+
+        private void arm() {
+            long delay = Math.max(0, deadline - System.currentTimeMillis()) + DEADLINE_GRACE_MILLIS;
+            timeout = wheel.newTimeout(t -> expire(), delay, TimeUnit.MILLISECONDS);
+        }
+
+        // 타이머 스레드에서 실행
+        private void expire() {
+            synchronized (this) {
+                if (cancelled || pausedRemaining >= 0) {
+                    return;
+                }
+                cancelled = true;
+            }
+            countdowns.remove(roomIdx, this);
+            try {
+                onDeadline.run();
+            } catch (RuntimeException e) {
+                log.error("라운드 마감 처리 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+            }
+        }
+
+        // 마감 시각 한 번만 보낸다. 클라이언트는 clockSync 로 구한 오차를 보정해서 남은 시간을 계산한다.
+        // duration 은 연장한 시간까지 더한 전체 시간이라 클라이언트가 남은 시간을 이 값으로 자른다.
+        private void announce() {
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", "roundDeadline");
+            response.put("deadline", deadline);
+            response.put("duration", duration);
+            response.put("serverTime", System.currentTimeMillis());
+            send(response, "roundDeadline");
+        }
+
+        // 일시 정지, 취소 때만 보내는 남은 시간(초)
+        // 표시 시작 전 1초 동안은 남은 시간이 전체 시간보다 길어서 전체 시간으로 자른다.
+        void sendTick(boolean paused) {
+            long remaining;
+            int total;
+            synchronized (this) {
+                remaining = pausedRemaining >= 0 ? pausedRemaining : deadline - System.currentTimeMillis();
+                total = duration;
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", "timeStart");
+            response.put("message", Math.min(total, Math.max(0, (remaining + 999) / 1000)));
+            response.put("paused", paused);
+            send(response, "timeStart");
+        }
+
+        private void send(Map<String, Object> response, String coalesceKey) {
+            try {
+                // 최신 값만 의미가 있으므로 밀려 있으면 합친다.
+                roomBroadcaster.broadcast(roomIdx, RoomFrame.of(roomBroadcaster.encode(response), coalesceKey));
+            } catch (JsonProcessingException e) {
+                log.error("{} 인코딩 실패 e = {}", coalesceKey, e.toString());
+            }
+        }
+    }
+}
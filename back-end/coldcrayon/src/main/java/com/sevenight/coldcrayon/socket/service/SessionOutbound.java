@@ -0,0 +1,243 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import com.sevenight.coldcrayon.socket.dto.SessionOutboundStatsDto;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 세션 하나의 송신 큐
+// offer는 여러 스레드에서 들어올 수 있지만 flush는 이 세션의 drain 작업 하나만 호출한다.
+// 세션마다 따로 drain 하므로 느린 세션 하나가 같은 방의 다른 세션 전송을 막지 않는다.
+@Slf4j
+class SessionOutbound {
+
+    // 톰캣이 sendMessage 한 번을 막고 있을 수 있는 최대 시간 (ms)
+    private static final String BLOCKING_SEND_TIMEOUT = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    @Getter
+    private final WebSocketSession session;
+    private final Executor writerPool;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long sendTimeLimitNanos;
+    // crayon.stroke.v1 로 접속한 세션인지
+    @Getter
+    private final boolean binaryProtocol;
+
+    private final Deque<RoomFrame> queue = new ArrayDeque<>();
+    private volatile int depth;
+    private volatile boolean closing;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    // 지금 보내고 있는 메시지를 시작한 시각 (보내는 중이 아니면 0)
+    private volatile long sendingSince;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    SessionOutbound(WebSocketSession session, Executor writerPool, int capacity, OverflowPolicy overflowPolicy, long sendTimeLimitMs) {
+        this.session = session;
+        this.writerPool = writerPool;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.binaryProtocol = StrokeCodec.PROTOCOL.equals(session.getAcceptedProtocol());
+        limitBlockingSend(sendTimeLimitMs);
+    }
+
+    // 막힌 소켓에서 writer 스레드가 끝없이 붙잡히지 않도록 컨테이너의 전송 대기 시간도 같이 줄인다.
+    private void limitBlockingSend(long sendTimeLimitMs) {
+        WebSocketSession delegate = WebSocketSessionDecorator.unwrap(session);
+        if (!(delegate instanceof NativeWebSocketSession)) {
+            return;
+        }
+        javax.websocket.Session nativeSession = ((NativeWebSocketSession) delegate).getNativeSession(javax.websocket.Session.class);
+        if (nativeSession != null) {
+            nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT, sendTimeLimitMs);
+        }
+    }
+
+    // false를 반환하면 큐가 넘쳐서 세션을 끊어야 한다.
+    synchronized boolean offer(RoomFrame frame) {
+        if (closing) {
+            return true;
+        }
+        if (queue.size() < capacity) {
+            queue.addLast(frame);
+            depth = queue.size();
+            return true;
+        }
+
+        switch (overflowPolicy) {
+            case DROP:
+                dropped.incrementAndGet();
+                return true;
+            case COALESCE:
+                if (coalesce(frame)) {
+                    depth = queue.size();
+                    return true;
+                }
+                // 합칠 수 있는 메시지가 하나도 없으면 끊는다.
+                return overflow();
+            case CLOSE:
+            default:
+                return overflow();
+        }
+    }
+
+    // 큐에 남은 메시지와 새 메시지를 모두 버리고 끊을 준비를 한다.
+    private boolean overflow() {
+        closing = true;
+        dropped.addAndGet(queue.size() + 1);
+        queue.clear();
+        depth = 0;
+        return false;
+    }
+
+    private boolean coalesce(RoomFrame frame) {
+        String key = frame.getCoalesceKey();
+        // 1. 같은 key의 메시지가 있으면 최신 것으로 교체
+        if (key != null) {
+            Iterator<RoomFrame> iterator = queue.iterator();
+            while (iterator.hasNext()) {
+                if (key.equals(iterator.next().getCoalesceKey())) {
+                    iterator.remove();
+                    queue.addLast(frame);
+                    coalesced.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+        // 2. 없으면 합쳐도 되는 가장 오래된 메시지를 버린다.
+        Iterator<RoomFrame> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getCoalesceKey() != null) {
+                iterator.remove();
+                queue.addLast(frame);
+                dropped.incrementAndGet();
+                return true;
+            }
+        }
+        // 3. 새 메시지 자체가 버려도 되는 메시지면 버린다.
+        if (key != null) {
+            dropped.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized RoomFrame poll() {
+        RoomFrame frame = queue.pollFirst();
+        depth = queue.size();
+        return frame;
+    }
+
+    boolean hasPending() {
+        return depth > 0;
+    }
+
+    // 보낼 메시지가 있으면 이 세션의 drain 을 writer 풀에 예약한다. (세션마다 drain 은 항상 하나)
+    void schedule() {
+        if (closing || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writerPool.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            log.error("writer 실행 거부 session = {}", session.getId());
+        }
+    }
+
+    private void drain() {
+        try {
+            flush();
+        } finally {
+            scheduled.set(false);
+        }
+        // drain 도중 들어온 메시지가 있으면 다시 예약
+        if (hasPending()) {
+            schedule();
+        }
+    }
+
+    // 메시지 하나를 보내는 데 제한 시간보다 오래 걸리고 있는지
+    boolean isStalled(long now) {
+        long since = sendingSince;
+        return since != 0 && now - since > sendTimeLimitNanos;
+    }
+
+    // drain 작업에서만 호출
+    private void flush() {
+        RoomFrame frame;
+        while ((frame = poll()) != null) {
+            if (!session.isOpen()) {
+                discard();
+                return;
+            }
+            WebSocketMessage<?> message = binaryProtocol && frame.getBinary() != null
+                    ? new BinaryMessage(frame.getBinary())
+                    : frame.getText();
+            if (message == null) {
+                continue;
+            }
+            sendingSince = System.nanoTime();
+            try {
+                session.sendMessage(message);
+                sent.incrementAndGet();
+            } catch (IOException | IllegalStateException e) {
+                log.error("메시지 전송 실패 session = {}, e = {}", session.getId(), e.toString());
+                discard();
+                return;
+            } finally {
+                sendingSince = 0;
+            }
+        }
+    }
+
+    // 더 이상 보내지 않고 큐를 비운 뒤 세션을 닫는다.
+    void close() {
+        closing = true;
+        discard();
+        try {
+            if (session.isOpen()) {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        } catch (IOException e) {
+            log.error("느린 세션 종료 실패 session = {}, e = {}", session.getId(), e.toString());
+        }
+    }
+
+    private synchronized void discard() {
+        dropped.addAndGet(queue.size());
+        queue.clear();
+        depth = 0;
+    }
+
+    SessionOutboundStatsDto toStats() {
+        return SessionOutboundStatsDto.builder()
+                .sessionId(session.getId())
+                .queueDepth(depth)
+                .sent(sent.get())
+                .dropped(dropped.get())
+                .coalesced(coalesced.get())
+                .build();
+    }
+}
@@ -0,0 +1,159 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.auth.dto.UserDto;
+import com.sevenight.coldcrayon.config.HandShakeInterceptor;
+import com.sevenight.coldcrayon.room.service.RoomPresenceService;
+import com.sevenight.coldcrayon.socket.dto.ResumeStatsDto;
+import io.netty.util.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 끊긴 소켓 이어 붙이기
+ * 1. 접속할 때 재접속 토큰을 발급하고 {"type":"session","resumeToken","seq"} 로 알려줍니다.
+ * 2. 소켓이 끊기면 grace-ms 동안 토큰을 남겨 둡니다.
+ * 3. 그 안에 ?resume=토큰&lastSeq=n 으로 다시 접속하면 lastSeq 이후 메시지만 보냅니다. (토큰은 새로 발급)
+ *    토큰은 발급받은 세션의 인증 유저에 묶여 있어서, 다른 유저로 인증한 세션은 그 토큰으로 이어 붙일 수 없습니다.
+ * seq 는 노드마다 따로 매기므로, 같은 방은 owner 노드로 다시 접속한다고 가정합니다.
+ */
+@Slf4j
+@Service
+public class SessionResumeService {
+
+    public static final String TOKEN_ATTRIBUTE = "resumeToken";
+
+    private final RoomBroadcaster roomBroadcaster;
+    private final RoundTimerService roundTimerService;
+    private final long graceMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    // token, 재접속 정보
+    private final Map<String, ResumeTicket> tickets = new ConcurrentHashMap<>();
+
+    private final AtomicLong resumed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public SessionResumeService(RoomBroadcaster roomBroadcaster, RoundTimerService roundTimerService,
+                                @Value("${socket.resume.grace-ms:30000}") long graceMillis) {
+        this.roomBroadcaster = roomBroadcaster;
+        this.roundTimerService = roundTimerService;
+        this.graceMillis = graceMillis;
+    }
+
+    // 새 토큰을 세션에 저장하고 세션에게 알려준다. (방에 join 된 뒤 호출)
+    public void issue(String roomIdx, WebSocketSession session) {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(token, new ResumeTicket(roomIdx, principalIdx(session)));
+        session.getAttributes().put(TOKEN_ATTRIBUTE, token);
+
+        String message = "{\"type\":\"session\",\"resumeToken\":\"" + token + "\",\"seq\":" + roomBroadcaster.currentSeq(roomIdx) + "}";
+        roomBroadcaster.send(roomIdx, session, new TextMessage(message));
+    }
+
+    // 다시 접속한 세션: 토큰이 유효하면 방에 넣고 lastSeq 이후 메시지를 보낸다.
+    public boolean resume(String token, long lastSeq, String roomIdx, WebSocketSession session) {
+        ResumeTicket ticket = token == null ? null : tickets.get(token);
+        // 다른 유저의 토큰이면 토큰은 그대로 두고 거절한다. (원래 유저는 계속 이어 붙일 수 있다.)
+        if (ticket == null || !ticket.roomIdx.equals(roomIdx) || !ticket.belongsTo(principalIdx(session))
+                || !tickets.remove(token, ticket)) {
+            failed.incrementAndGet();
+            return false;
+        }
+        ticket.cancel();
+        // 이어서 접속한 세션도 같은 유저로 본다.
+        if (ticket.userIdx != null) {
+            session.getAttributes().put(RoomPresenceService.USER_ATTRIBUTE, ticket.userIdx);
+        }
+        if (!roomBroadcaster.resume(roomIdx, session, lastSeq, new TextMessage("{\"type\":\"resume\",\"status\":\"success\"}"))) {
+            failed.incrementAndGet();
+            return false;
+        }
+        resumed.incrementAndGet();
+        return true;
+    }
+
+    // 소켓이 끊긴 뒤: grace-ms 가 지나면 토큰을 버리고, 방이 비어 있으면 보관한 메시지도 버린다.
+    public void release(String roomIdx, WebSocketSession session) {
+        Object token = session.getAttributes().get(TOKEN_ATTRIBUTE);
+        ResumeTicket ticket = token == null ? null : tickets.get(token);
+        if (ticket == null) {
+            discardIfIdle(roomIdx);
+            return;
+        }
+        ticket.userIdx = session.getAttributes().get(RoomPresenceService.USER_ATTRIBUTE);
+        ticket.arm(roundTimerService.schedule(() -> expire((String) token, ticket), graceMillis, TimeUnit.MILLISECONDS));
+    }
+
+    // 핸드셰이크에서 인증한 유저
+    private Long principalIdx(WebSocketSession session) {
+        Object principal = session.getAttributes().get(HandShakeInterceptor.PRINCIPAL_ATTRIBUTE);
+        return principal instanceof UserDto ? ((UserDto) principal).getUserIdx() : null;
+    }
+
+    private void expire(String token, ResumeTicket ticket) {
+        if (tickets.remove(token, ticket)) {
+            discardIfIdle(ticket.roomIdx);
+        }
+    }
+
+    // 접속한 세션도, 재접속을 기다리는 토큰도 없는 방
+    private void discardIfIdle(String roomIdx) {
+        if (roomBroadcaster.countSessions(roomIdx) > 0) {
+            return;
+        }
+        for (ResumeTicket ticket : tickets.values()) {
+            if (ticket.roomIdx.equals(roomIdx)) {
+                return;
+            }
+        }
+        roomBroadcaster.discard(roomIdx);
+    }
+
+    public ResumeStatsDto getStats() {
+        return ResumeStatsDto.builder()
+                .tickets(tickets.size())
+                .sequencedRooms(roomBroadcaster.countSequencers())
+                .resumed(resumed.get())
+                .failed(failed.get())
+                .build();
+    }
+
+    private static class ResumeTicket {
+        private final String roomIdx;
+        // 토큰을 발급받은 세션의 인증 유저
+        private final Long principalIdx;
+        private volatile Object userIdx;
+        private Timeout timeout;
+
+        ResumeTicket(String roomIdx, Long principalIdx) {
+            this.roomIdx = roomIdx;
+            this.principalIdx = principalIdx;
+        }
+
+        boolean belongsTo(Long principalIdx) {
+            return this.principalIdx != null && this.principalIdx.equals(principalIdx);
+        }
+
+        synchronized void arm(Timeout timeout) {
+            this.timeout = timeout;
+        }
+
+        synchronized void cancel() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
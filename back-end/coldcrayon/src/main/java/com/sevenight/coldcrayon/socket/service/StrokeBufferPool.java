@@ -0,0 +1,56 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 선 기록용 direct 버퍼 풀 (크기는 모두 같다.)
+// 반납된 버퍼는 maxPooled 개까지만 들고 있고 나머지는 GC 에 맡긴다.
+class StrokeBufferPool {
+
+    private final int chunkBytes;
+    private final int maxPooled;
+    private final ArrayDeque<ByteBuffer> pool = new ArrayDeque<>();
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    StrokeBufferPool(int chunkBytes, int maxPooled) {
+        this.chunkBytes = chunkBytes;
+        this.maxPooled = maxPooled;
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (pool) {
+            buffer = pool.pollLast();
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(chunkBytes);
+        }
+        buffer.clear();
+        inUse.incrementAndGet();
+        return buffer;
+    }
+
+    void release(ByteBuffer buffer) {
+        inUse.decrementAndGet();
+        synchronized (pool) {
+            if (pool.size() < maxPooled) {
+                pool.addLast(buffer);
+            }
+        }
+    }
+
+    int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    int countInUse() {
+        return inUse.get();
+    }
+
+    int countPooled() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+}
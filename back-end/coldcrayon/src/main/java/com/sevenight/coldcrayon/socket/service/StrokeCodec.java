@@ -0,0 +1,189 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.DrawEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 바이너리 선 그리기 프로토콜 (crayon.stroke.v1)
+ *
+ * [1 byte] MAGIC
+ * [varint] seq (사용하지 않으면 0)
+ * 이후 레코드 반복
+ *   [1 byte] op
+ *   op 가 MOVE, DRAW_MOVE 이면 [zigzag varint] dx, [zigzag varint] dy
+ *
+ * 좌표는 QUANTUM 배 해서 정수로 만들고, 같은 프레임 안의 직전 좌표와의 차이만 보낸다. (첫 좌표는 0,0 기준)
+ */
+public final class StrokeCodec {
+
+    public static final String PROTOCOL = "crayon.stroke.v1";
+    public static final String JSON_PROTOCOL = "crayon.json.v1";
+
+    public static final byte MAGIC = (byte) 0xC7;
+
+    public static final byte OP_START = 0;
+    public static final byte OP_MOVE = 1;
+    public static final byte OP_DRAW_MOVE = 2;
+    public static final byte OP_CANCEL = 3;
+
+    // 0.5px 단위로 양자화
+    public static final int QUANTUM = 2;
+
+    private static final String[] ACTIONS = {"startDraw", "move", "drawMove", "cancelDraw"};
+
+    private StrokeCodec() {
+    }
+
+    // 선 그리기 action 이 아니면 -1
+    public static byte opOf(String action) {
+        if (action == null) {
+            return -1;
+        }
+        switch (action) {
+            case "startDraw":
+                return OP_START;
+            case "move":
+                return OP_MOVE;
+            case "drawMove":
+                return OP_DRAW_MOVE;
+            case "cancelDraw":
+                return OP_CANCEL;
+            default:
+                return -1;
+        }
+    }
+
+    public static DrawEvent fromJson(byte op, String offsetX, String offsetY, String json) {
+        return new DrawEvent(op, quantize(offsetX), quantize(offsetY), json);
+    }
+
+    private static int quantize(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return (int) Math.round(Double.parseDouble(value) * QUANTUM);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean hasPoint(byte op) {
+        return op == OP_MOVE || op == OP_DRAW_MOVE;
+    }
+
+    public static byte[] encode(List<DrawEvent> events, long seq) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + events.size() * 4);
+        out.write(MAGIC);
+        writeVarLong(out, seq);
+        int prevX = 0;
+        int prevY = 0;
+        for (DrawEvent event : events) {
+            out.write(event.getOp());
+            if (hasPoint(event.getOp())) {
+                writeVarLong(out, zigzag(event.getX() - prevX));
+                writeVarLong(out, zigzag(event.getY() - prevY));
+                prevX = event.getX();
+                prevY = event.getY();
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // 잘못된 프레임이면 IllegalArgumentException
+    public static List<DrawEvent> decode(ByteBuffer buffer) {
+        if (!buffer.hasRemaining() || buffer.get() != MAGIC) {
+            throw new IllegalArgumentException("stroke 프레임이 아닙니다.");
+        }
+        readVarLong(buffer);    // seq: 클라이언트가 보낸 값은 사용하지 않는다.
+
+        List<DrawEvent> events = new ArrayList<>();
+        int x = 0;
+        int y = 0;
+        while (buffer.hasRemaining()) {
+            byte op = buffer.get();
+            if (op < OP_START || op > OP_CANCEL) {
+                throw new IllegalArgumentException("알 수 없는 op : " + op);
+            }
+            if (hasPoint(op)) {
+                x += unzigzag(readVarLong(buffer));
+                y += unzigzag(readVarLong(buffer));
+            }
+            events.add(new DrawEvent(op, x, y, null));
+        }
+        return events;
+    }
+
+    // JSON 클라이언트용 drawBatch 프레임
+    public static String toJsonBatch(List<DrawEvent> events) {
+        StringBuilder sb = new StringBuilder(32 + events.size() * 64);
+        sb.append("{\"type\":\"drawBatch\",\"events\":[");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendJson(sb, events.get(i));
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    private static void appendJson(StringBuilder sb, DrawEvent event) {
+        // JSON 으로 받은 이벤트는 원문 그대로
+        if (event.getJson() != null) {
+            sb.append(event.getJson());
+            return;
+        }
+        sb.append("{\"type\":\"draw\",\"action\":\"").append(ACTIONS[event.getOp()]).append('"');
+        if (hasPoint(event.getOp())) {
+            sb.append(",\"offsetX\":");
+            appendCoordinate(sb, event.getX());
+            sb.append(",\"offsetY\":");
+            appendCoordinate(sb, event.getY());
+        }
+        sb.append('}');
+    }
+
+    private static void appendCoordinate(StringBuilder sb, int quantized) {
+        if (quantized % QUANTUM == 0) {
+            sb.append(quantized / QUANTUM);
+        } else {
+            sb.append((double) quantized / QUANTUM);
+        }
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("varint 가 잘렸습니다.");
+            }
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint 가 너무 깁니다.");
+    }
+}
@@ -0,0 +1,348 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.DrawEvent;
+import com.sevenight.coldcrayon.socket.dto.StrokeLogStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 방의 이번 라운드 그림 기록 (늦게 들어오거나 다시 접속한 세션에게 한 번에 보내준다.)
+ * 1. 레코드는 풀에서 빌린 direct 버퍼에 이어 붙인다.
+ *    선: [op] (MOVE, DRAW_MOVE 이면 [zigzag varint] x, y 절대 좌표)
+ *    그 외 action: [OP_RAW] [varint 길이] action [varint 길이] JSON 원문
+ * 2. keyframe-interval 개마다 기록을 압축해서 새 keyframe 으로 바꾼다.
+ *    (clearCanvas 이전 기록, 연달아 온 move 중 마지막이 아닌 것, 선을 긋기 전에 다시 바뀐 설정 값은 버린다.)
+ * 3. 압축해도 max-bytes-per-room 을 넘으면 마지막 keyframe 까지만 남기고, 그 뒤 기록은 clearCanvas 전까지 받지 않는다.
+ * 라운드가 끝나거나 방이 비면 버퍼를 풀에 돌려준다.
+ */
+@Slf4j
+@Service
+public class StrokeLog {
+
+    static final byte OP_RAW = 4;
+
+    // 같은 값으로 덮어쓰는 설정 action (선을 긋기 전에 다시 오면 앞의 것은 필요 없다.)
+    private static final Set<String> SETTING_ACTIONS = Set.of("changeColor", "changeBrushWidth", "changeTool", "saveRatio");
+    private static final int TOP_ROOMS = 10;
+
+    private final StrokeBufferPool pool;
+    private final int maxBytesPerRoom;
+    private final int keyframeInterval;
+
+    // roomIdx, 기록
+    private final Map<String, RoomLog> logs = new ConcurrentHashMap<>();
+
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong truncations = new AtomicLong();
+    // roomIdx, 기록을 마지막 keyframe 에서 멈춘 횟수 (방이 비면 지운다.)
+    private final Map<String, LongAdder> truncationsByRoom = new ConcurrentHashMap<>();
+    private final AtomicLong replays = new AtomicLong();
+
+    public StrokeLog(@Value("${socket.stroke-log.chunk-bytes:4096}") int chunkBytes,
+                     @Value("${socket.stroke-log.max-pooled-chunks:1024}") int maxPooledChunks,
+                     @Value("${socket.stroke-log.max-bytes-per-room:262144}") int maxBytesPerRoom,
+                     @Value("${socket.stroke-log.keyframe-interval:1024}") int keyframeInterval) {
+        this.pool = new StrokeBufferPool(chunkBytes, maxPooledChunks);
+        this.maxBytesPerRoom = maxBytesPerRoom;
+        this.keyframeInterval = keyframeInterval;
+    }
+
+    // 선 그리기 이벤트 (StrokeCodec.OP_*)
+    public void append(String roomIdx, DrawEvent event) {
+        logs.computeIfAbsent(roomIdx, RoomLog::new).append(new Entry(event.getOp(), event.getX(), event.getY(), null, null));
+    }
+
+    // 선이 아닌 draw action (fill, goPrev, changeColor 등): 원문 그대로 다시 보낸다.
+    public void appendRaw(String roomIdx, String action, String json) {
+        RoomLog roomLog = logs.computeIfAbsent(roomIdx, RoomLog::new);
+        if ("clearCanvas".equals(action)) {
+            // 빈 캔버스에서 다시 시작하는 것과 같다.
+            roomLog.reset();
+            return;
+        }
+        roomLog.append(new Entry(OP_RAW, 0, 0, action == null ? "" : action, json));
+    }
+
+    // 지금까지의 그림을 drawBatch 한 건으로 (보낼 것이 없으면 null)
+    public String replay(String roomIdx) {
+        RoomLog roomLog = logs.get(roomIdx);
+        if (roomLog == null) {
+            return null;
+        }
+        List<Entry> entries = roomLog.snapshot();
+        if (entries.isEmpty()) {
+            return null;
+        }
+        List<DrawEvent> events = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            events.add(new DrawEvent(entry.op, entry.x, entry.y, entry.json));
+        }
+        replays.incrementAndGet();
+        return StrokeCodec.toJsonBatch(events);
+    }
+
+    // 라운드가 끝났을 때
+    public void release(String roomIdx) {
+        RoomLog roomLog = logs.remove(roomIdx);
+        if (roomLog != null) {
+            roomLog.reset();
+        }
+    }
+
+    // 방이 비었을 때: 기록과 방별 통계를 같이 지운다.
+    public void discard(String roomIdx) {
+        release(roomIdx);
+        truncationsByRoom.remove(roomIdx);
+    }
+
+    public StrokeLogStatsDto getStats() {
+        long bytes = 0;
+        for (RoomLog roomLog : logs.values()) {
+            bytes += roomLog.bytes;
+        }
+
+        List<Map.Entry<String, Long>> rooms = new ArrayList<>();
+        truncationsByRoom.forEach((roomIdx, count) -> rooms.add(Map.entry(roomIdx, count.sum())));
+        rooms.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> truncatedRooms = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> room : rooms.subList(0, Math.min(TOP_ROOMS, rooms.size()))) {
+            truncatedRooms.put(room.getKey(), room.getValue());
+        }
+
+        return StrokeLogStatsDto.builder()
+                .rooms(logs.size())
+                .bytes(bytes)
+                .chunksInUse(pool.countInUse())
+                .chunksPooled(pool.countPooled())
+                .chunkBytes(pool.getChunkBytes())
+                .compactions(compactions.get())
+                .truncations(truncations.get())
+                .truncatedRooms(truncatedRooms)
+                .replays(replays.get())
+                .build();
+    }
+
+    // keyframe: 다시 그렸을 때 결과가 같은 더 짧은 기록
+    static List<Entry> compact(List<Entry> entries) {
+        List<Entry> result = new ArrayList<>(entries.size());
+        // 마지막으로 선을 그은 뒤의 설정 action 위치
+        Map<String, Integer> pendingSettings = new HashMap<>();
+        for (Entry entry : entries) {
+            Entry last = result.isEmpty() ? null : result.get(result.size() - 1);
+            if (entry.op == StrokeCodec.OP_MOVE && last != null && last.op == StrokeCodec.OP_MOVE) {
+                result.set(result.size() - 1, entry);
+                continue;
+            }
+            if (entry.op == OP_RAW && SETTING_ACTIONS.contains(entry.action)) {
+                Integer previous = pendingSettings.put(entry.action, result.size());
+                if (previous != null) {
+                    result.set(previous, null);
+                }
+            } else if (entry.op != StrokeCodec.OP_MOVE) {
+                pendingSettings.clear();
+            }
+            result.add(entry);
+        }
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+
+    static class Entry {
+        final byte op;
+        final int x;
+        final int y;
+        final String action;
+        final String json;
+
+        Entry(byte op, int x, int y, String action, String json) {
+            this.op = op;
+            this.x = x;
+            this.y = y;
+            this.action = action;
+            this.json = json;
+        }
+    }
+
+    private class RoomLog {
+        private final String roomIdx;
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private volatile long bytes;
+        // 마지막 keyframe 의 레코드 수, 그 이후 레코드 수
+        private int keyframeRecords;
+        private int tailRecords;
+        // 한도를 넘어서 마지막 keyframe 뒤로는 기록하지 않는지
+        private boolean truncated;
+
+        RoomLog(String roomIdx) {
+            this.roomIdx = roomIdx;
+        }
+
+        synchronized void append(Entry entry) {
+            if (truncated) {
+                return;
+            }
+            write(entry);
+            tailRecords++;
+            if (tailRecords >= keyframeInterval || bytes > maxBytesPerRoom) {
+                keyframe();
+            }
+        }
+
+        synchronized List<Entry> snapshot() {
+            return read();
+        }
+
+        synchronized void reset() {
+            clear();
+            keyframeRecords = 0;
+            truncated = false;
+        }
+
+        private void keyframe() {
+            List<Entry> recorded = read();
+            List<Entry> entries = compact(recorded);
+            rewrite(entries);
+            compactions.incrementAndGet();
+            if (bytes <= maxBytesPerRoom) {
+                keyframeRecords = entries.size();
+                return;
+            }
+            // 마지막 keyframe 은 한도 안에 있었으므로 그것만 남긴다. (늦게 들어온 세션은 그 시점의 그림을 받는다.)
+            long overflow = bytes;
+            rewrite(recorded.subList(0, keyframeRecords));
+            truncated = true;
+            truncations.incrementAndGet();
+            truncationsByRoom.computeIfAbsent(roomIdx, key -> new LongAdder()).increment();
+            log.info("그림 기록이 한도를 넘어서 마지막 keyframe 에서 멈춥니다. roomIdx = {}, bytes = {}, max = {}, kept = {}",
+                    roomIdx, overflow, maxBytesPerRoom, bytes);
+        }
+
+        private void rewrite(List<Entry> entries) {
+            clear();
+            for (Entry entry : entries) {
+                write(entry);
+            }
+        }
+
+        private void clear() {
+            for (ByteBuffer chunk : chunks) {
+                pool.release(chunk);
+            }
+            chunks.clear();
+            bytes = 0;
+            tailRecords = 0;
+        }
+
+        private void write(Entry entry) {
+            put(entry.op);
+            if (entry.op == StrokeCodec.OP_MOVE || entry.op == StrokeCodec.OP_DRAW_MOVE) {
+                putVarLong(StrokeCodec.zigzag(entry.x));
+                putVarLong(StrokeCodec.zigzag(entry.y));
+            } else if (entry.op == OP_RAW) {
+                putString(entry.action);
+                putString(entry.json);
+            }
+        }
+
+        private void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+
+        private void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        private void put(byte b) {
+            ByteBuffer last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+            if (last == null || !last.hasRemaining()) {
+                last = pool.acquire();
+                chunks.add(last);
+            }
+            last.put(b);
+            bytes++;
+        }
+
+        private List<Entry> read() {
+            List<Entry> entries = new ArrayList<>();
+            ChunkReader reader = new ChunkReader(chunks);
+            while (reader.hasRemaining()) {
+                byte op = reader.get();
+                if (op == StrokeCodec.OP_MOVE || op == StrokeCodec.OP_DRAW_MOVE) {
+                    int x = (int) StrokeCodec.unzigzag(reader.getVarLong());
+                    int y = (int) StrokeCodec.unzigzag(reader.getVarLong());
+                    entries.add(new Entry(op, x, y, null, null));
+                } else if (op == OP_RAW) {
+                    String action = reader.getString();
+                    entries.add(new Entry(op, 0, 0, action, reader.getString()));
+                } else {
+                    entries.add(new Entry(op, 0, 0, null, null));
+                }
+            }
+            return entries;
+        }
+    }
+
+    // 여러 버퍼에 걸쳐 쓴 레코드를 차례대로 읽는다. (원래 버퍼 위치는 건드리지 않음)
+    private static class ChunkReader {
+        private final Iterator<ByteBuffer> chunks;
+        private ByteBuffer current;
+
+        ChunkReader(List<ByteBuffer> chunks) {
+            this.chunks = chunks.iterator();
+        }
+
+        boolean hasRemaining() {
+            while (current == null || !current.hasRemaining()) {
+                if (!chunks.hasNext()) {
+                    return false;
+                }
+                current = chunks.next().duplicate();
+                current.flip();
+            }
+            return true;
+        }
+
+        byte get() {
+            if (!hasRemaining()) {
+                throw new IllegalStateException("그림 기록이 잘렸습니다.");
+            }
+            return current.get();
+        }
+
+        long getVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("varint 가 너무 깁니다.");
+        }
+
+        String getString() {
+            byte[] bytes = new byte[(int) getVarLong()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = get();
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
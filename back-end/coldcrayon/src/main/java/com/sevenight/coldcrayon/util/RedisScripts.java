@@ -0,0 +1,52 @@
+package com.sevenight.coldcrayon.util;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// resources/redis/*.lua 스크립트
+// 여러 스크립트가 같이 쓰는 함수는 resources/redis/lib/*.lua 에 두고 prelude 로 앞에 붙인다.
+public final class RedisScripts {
+
+    private RedisScripts() {
+    }
+
+    // 결과가 배열(Lua table)인 스크립트: 값은 StringRedisSerializer 로 읽은 String, 숫자는 Long 이다.
+    @SuppressWarnings("unchecked")
+    public static DefaultRedisScript<List<Object>> list(String path, String... prelude) {
+        return load((Class<List<Object>>) (Class<?>) List.class, path, prelude);
+    }
+
+    // 결과가 숫자인 스크립트
+    public static DefaultRedisScript<Long> number(String path, String... prelude) {
+        return load(Long.class, path, prelude);
+    }
+
+    private static <T> DefaultRedisScript<T> load(Class<T> resultType, String path, String... prelude) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        if (prelude.length == 0) {
+            script.setLocation(new ClassPathResource(path));
+        } else {
+            StringBuilder text = new StringBuilder();
+            for (String lib : prelude) {
+                text.append(read(lib)).append('\n');
+            }
+            script.setScriptText(text.append(read(path)).toString());
+        }
+        script.setResultType(resultType);
+        return script;
+    }
+
+    private static String read(String path) {
+        try {
+            return StreamUtils.copyToString(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("스크립트를 읽지 못했습니다. path = " + path, e);
+        }
+    }
+}
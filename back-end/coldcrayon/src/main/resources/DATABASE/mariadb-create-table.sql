@@ -79,6 +79,12 @@ CREATE TABLE `suffix` (
                           PRIMARY KEY (`suffix_idx`)
 );
 
+CREATE TABLE `ngword` (
+                          `ngword_idx` Integer NOT NULL AUTO_INCREMENT,
+                          `ngword_content` VARCHAR(50),
+                          PRIMARY KEY (`ngword_idx`)
+);
+
 -- 이하 더미데이터
 insert into theme(theme_category, theme_keyword)
 VALUES
@@ -0,0 +1,35 @@
+-- 로비 목록 규칙: 스크립트를 읽을 때 앞에 붙인다. (room-join.lua, room-leave.lua, room-lobby.lua, room-expire.lua)
+-- lobbyKeys 는 lobby:open 이 처음이고 그 뒤로 모든 lobby:open:{gameCategory} 이다. (LobbyIndex.openKeys)
+-- Ready 이고 자리가 있는 방만 lobby:open 과 그 방의 lobby:open:{gameCategory} 에 넣고, score 는 현재 인원이다.
+
+-- 모든 로비 목록에서 뺀다. (hash 가 지워져서 게임 종류를 모르는 방도)
+local function removeFromLobby(lobbyKeys, roomIdx)
+    for i = 1, #lobbyKeys do
+        redis.call('ZREM', lobbyKeys[i], roomIdx)
+    end
+end
+
+-- 로비 목록을 고치고, 들어갈 수 있는 방이면 true (게임 종류가 바뀌었을 수 있으니 다른 카테고리 목록에서는 뺀다.)
+local function syncLobby(lobbyKeys, roomIdx, roomStatus, roomNow, roomMax, gameCategory)
+    if not roomNow or roomStatus ~= 'Ready' or tonumber(roomNow) >= tonumber(roomMax or '0') then
+        removeFromLobby(lobbyKeys, roomIdx)
+        return false
+    end
+    local byCategory = lobbyKeys[1] .. ':' .. tostring(gameCategory)
+    redis.call('ZADD', lobbyKeys[1], roomNow, roomIdx)
+    for i = 2, #lobbyKeys do
+        if lobbyKeys[i] == byCategory then
+            redis.call('ZADD', lobbyKeys[i], roomNow, roomIdx)
+        else
+            redis.call('ZREM', lobbyKeys[i], roomIdx)
+        end
+    end
+    return true
+end
+
+-- Redis 에 있는 방 hash 값으로 고친다. (참여 스크립트가 인원을 바꾼 뒤)
+local function syncLobbyFromRoom(lobbyKeys, roomKey, roomIdx)
+    local room = redis.call('HMGET', roomKey, 'roomStatus', 'roomNow', 'roomMax', 'gameCategory')
+    return syncLobby(lobbyKeys, roomIdx, room[1], room[2], room[3], room[4])
+end
+
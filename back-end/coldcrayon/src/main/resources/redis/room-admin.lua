@@ -0,0 +1,24 @@
+-- 방장 위임: 요청한 유저가 방장이고 받을 유저가 참여 목록에 있을 때만 바꾼다.
+-- KEYS[1] room:{roomIdx}, KEYS[2] {roomIdx} (참여 목록)
+-- ARGV[1] 요청한 userIdx, ARGV[2] 받을 userIdx
+-- 결과: {status, reason, adminUserIdx, roomNow, 참여 유저...}
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'fail', 'noRoom'}
+end
+if redis.call('HGET', KEYS[1], 'adminUserIdx') ~= ARGV[1] then
+    return {'fail', 'notAdmin'}
+end
+
+local members = redis.call('LRANGE', KEYS[2], 0, -1)
+local found = false
+for i = 1, #members do
+    if members[i] == ARGV[2] then found = true end
+end
+if not found then
+    return {'fail', 'noTarget'}
+end
+
+redis.call('HSET', KEYS[1], 'adminUserIdx', ARGV[2])
+local result = {'success', 'adminChanged', ARGV[2], tostring(#members)}
+for i = 1, #members do result[#result + 1] = members[i] end
+return result
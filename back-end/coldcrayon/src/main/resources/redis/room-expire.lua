@@ -0,0 +1,35 @@
+-- 만료된 방 정리: 방, 참여 목록, 그 방 유저, 방 id set, 로비 목록, 만료 목록을 한 번에 지운다.
+-- 그 사이 다시 활동이 기록된 방(만료 시각이 지나지 않은 방)은 건드리지 않는다.
+-- KEYS[1] expiry:room, KEYS[2] room (방 id set), KEYS[3] user (유저 id set)
+-- ARGV[1] roomIdx, ARGV[2] 지금 ms, ARGV[3..] 로비 key (lobby:open, lobby:open:{gameCategory}..., removeFromLobby 는 lib/lobby.lua)
+-- 결과: {'alive'}, {'gone'} (방 hash 가 이미 없는 방, 남은 id 만 지운다.) 또는 {'expired', 지운 유저 수}
+local deadline = redis.call('ZSCORE', KEYS[1], ARGV[1])
+if deadline and tonumber(deadline) > tonumber(ARGV[2]) then
+    return {'alive'}
+end
+
+local roomIdx = ARGV[1]
+local roomKey = 'room:' .. roomIdx
+-- 나가기 스크립트가 지웠거나 Redis TTL 로 hash 만 사라진 방이면 남은 id 만 지운다.
+local gone = redis.call('EXISTS', roomKey) == 0
+local members = redis.call('LRANGE', roomIdx, 0, -1)
+local users = 0
+for i = 1, #members do
+    local userKey = 'user:' .. members[i]
+    local userRoom = redis.call('HGET', userKey, 'roomIdx')
+    -- 다른 방으로 옮겨간 유저는 지우지 않는다. (TTL 로 hash 가 사라진 유저는 id set 에서만 뺀다.)
+    if userRoom == roomIdx or not userRoom then
+        redis.call('DEL', userKey)
+        redis.call('SREM', KEYS[3], members[i])
+        users = users + 1
+    end
+end
+
+redis.call('DEL', roomKey, roomIdx)
+redis.call('SREM', KEYS[2], roomIdx)
+removeFromLobby({unpack(ARGV, 3)}, roomIdx)
+redis.call('ZREM', KEYS[1], roomIdx)
+if gone then
+    return {'gone'}
+end
+return {'expired', tostring(users)}
@@ -0,0 +1,43 @@
+-- 방 참여: 방 확인, 인원 확인, 유저 저장, 참여 목록 추가를 한 번에 한다.
+-- KEYS[1] room:{roomIdx}, KEYS[2] {roomIdx} (참여 목록), KEYS[3] user:{userIdx}, KEYS[4] user (유저 id set)
+-- ARGV[1] userIdx, ARGV[2] roomIdx, ARGV[3] userNickname, ARGV[4] userProfile, ARGV[5] userScore, ARGV[6] _class, ARGV[7..] 로비 key (lobby:open, lobby:open:{gameCategory}...)
+-- 인원이 바뀌면 로비 목록도 같이 고친다. (syncLobbyFromRoom 은 lib/lobby.lua)
+-- 결과: {status, reason, adminUserIdx, roomNow, 참여 유저...}
+
+local function roster(status, reason)
+    local members = redis.call('LRANGE', KEYS[2], 0, -1)
+    local result = {status, reason, redis.call('HGET', KEYS[1], 'adminUserIdx') or '', tostring(#members)}
+    for i = 1, #members do result[#result + 1] = members[i] end
+    return result
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {'fail', 'noRoom'}
+end
+
+local current = redis.call('HGET', KEYS[3], 'roomIdx')
+if current == ARGV[2] then
+    -- 이미 이 방 유저 (새로고침, 재접속)
+    return roster('success', 'member')
+end
+if current then
+    return {'fail', 'otherRoom'}
+end
+
+if redis.call('HGET', KEYS[1], 'roomStatus') == 'Playing' then
+    return {'fail', 'playing'}
+end
+local roomMax = tonumber(redis.call('HGET', KEYS[1], 'roomMax') or '0')
+if redis.call('LLEN', KEYS[2]) >= roomMax then
+    return {'fail', 'full'}
+end
+
+redis.call('HSET', KEYS[3], '_class', ARGV[6], 'userIdx', ARGV[1], 'roomIdx', ARGV[2], 'userScore', ARGV[5])
+-- null 인 필드는 Spring Data Redis 처럼 쓰지 않는다.
+if ARGV[3] ~= '' then redis.call('HSET', KEYS[3], 'userNickname', ARGV[3]) end
+if ARGV[4] ~= '' then redis.call('HSET', KEYS[3], 'userProfile', ARGV[4]) end
+redis.call('SADD', KEYS[4], ARGV[1])
+redis.call('RPUSH', KEYS[2], ARGV[1])
+redis.call('HSET', KEYS[1], 'roomNow', redis.call('LLEN', KEYS[2]))
+syncLobbyFromRoom({unpack(ARGV, 7)}, KEYS[1], ARGV[2])
+return roster('success', 'joined')
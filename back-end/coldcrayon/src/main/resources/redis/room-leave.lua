@@ -0,0 +1,57 @@
+-- 방 나가기 (여러 유저 한 번에): 유저 삭제, 참여 목록 정리, 인원 재계산, 방장 위임, 빈 방 삭제를 한 번에 한다.
+-- KEYS[1] room:{roomIdx}, KEYS[2] {roomIdx} (참여 목록), KEYS[3] room (방 id set), KEYS[4] user (유저 id set), KEYS[5] expiry:room, KEYS[6..] user:{userIdx}
+-- ARGV[1] roomIdx, ARGV[2..] userIdx (KEYS[6..] 와 같은 순서), 그 뒤 로비 key (lobby:open, lobby:open:{gameCategory}...)
+-- 인원이 바뀌거나 방이 지워지면 로비 목록도 같이 고친다. (지워진 방은 방 id set, 만료 목록에서도 뺀다.)
+-- 로비 목록 함수(syncLobbyFromRoom, removeFromLobby)는 lib/lobby.lua
+-- 결과: {status, reason, adminUserIdx, roomNow, 남은 유저...}
+local users = #KEYS - 5
+local lobbyKeys = {unpack(ARGV, 2 + users)}
+
+-- 방 hash 가 없어도(Redis TTL) 방 id set, 로비 목록, 만료 목록에 id 가 남지 않게 한다.
+local function forget(roomIdx)
+    redis.call('SREM', KEYS[3], roomIdx)
+    removeFromLobby(lobbyKeys, roomIdx)
+    redis.call('ZREM', KEYS[5], roomIdx)
+end
+
+for i = 2, 1 + users do
+    local userKey = KEYS[i + 4]
+    -- 다른 방으로 옮겨간 유저는 지우지 않는다.
+    if redis.call('HGET', userKey, 'roomIdx') == ARGV[1] then
+        redis.call('DEL', userKey)
+        redis.call('SREM', KEYS[4], ARGV[i])
+    end
+    redis.call('LREM', KEYS[2], 0, ARGV[i])
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    redis.call('DEL', KEYS[2])
+    forget(ARGV[1])
+    return {'fail', 'noRoom'}
+end
+
+local members = redis.call('LRANGE', KEYS[2], 0, -1)
+if #members == 0 then
+    redis.call('DEL', KEYS[1], KEYS[2])
+    forget(ARGV[1])
+    return {'success', 'deleted', '', '0'}
+end
+
+local admin = redis.call('HGET', KEYS[1], 'adminUserIdx')
+local reason = 'left'
+local adminPresent = false
+for i = 1, #members do
+    if members[i] == admin then adminPresent = true end
+end
+if not adminPresent then
+    -- 남은 유저 중 먼저 들어온 유저에게 넘긴다.
+    admin = members[1]
+    reason = 'adminChanged'
+    redis.call('HSET', KEYS[1], 'adminUserIdx', admin)
+end
+redis.call('HSET', KEYS[1], 'roomNow', #members)
+syncLobbyFromRoom(lobbyKeys, KEYS[1], ARGV[1])
+
+local result = {'success', reason, admin, tostring(#members)}
+for i = 1, #members do result[#result + 1] = members[i] end
+return result
@@ -0,0 +1,12 @@
+-- 로비 목록 고치기 (방 만들기, 게임 시작/종료, 옵션 변경 뒤)
+-- 현재 인원은 참여 스크립트만 쓰므로 Redis 에 있는 값을 읽고, 나머지는 방금 바꾼 값을 받는다. (write-behind 로 아직 안 쓰였을 수 있다.)
+-- 규칙(syncLobby)은 참여 스크립트와 같이 lib/lobby.lua 에 있다.
+-- KEYS[1] room:{roomIdx}, KEYS[2] 로비 key (lobby:open), KEYS[3..] lobby:open:{gameCategory} (모든 게임 종류)
+-- ARGV[1] roomIdx, ARGV[2] roomStatus, ARGV[3] roomMax, ARGV[4] gameCategory
+-- 결과: 현재 인원 (방이 없으면 -1)
+local roomNow = redis.call('HGET', KEYS[1], 'roomNow')
+syncLobby({unpack(KEYS, 2)}, ARGV[1], ARGV[2], roomNow, ARGV[3], ARGV[4])
+if roomNow == false then
+    return -1
+end
+return tonumber(roomNow)
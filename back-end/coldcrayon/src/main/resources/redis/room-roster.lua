@@ -0,0 +1,13 @@
+-- 방 참여 유저 전체 조회: 참여 목록과 유저 hash 를 한 번에 읽는다.
+-- KEYS[1] {roomIdx} (참여 목록)
+-- ARGV[1] 유저 key 앞부분 (user:)
+-- 결과: {userIdx, 필드 수, 필드, 값, ..., userIdx, 필드 수, ...} (참여 순서, 없는 유저는 필드 수 0)
+local members = redis.call('LRANGE', KEYS[1], 0, -1)
+local result = {}
+for i = 1, #members do
+    local fields = redis.call('HGETALL', ARGV[1] .. members[i])
+    result[#result + 1] = members[i]
+    result[#result + 1] = tostring(#fields / 2)
+    for j = 1, #fields do result[#result + 1] = fields[j] end
+end
+return result
@@ -0,0 +1,20 @@
+-- 방 활동 기록: 만료 시각을 뒤로 미루고, 방/참여 목록/참여 유저 key 에 Redis TTL 도 다시 건다.
+-- KEYS[1] expiry:room (roomIdx, 만료 시각 ms)
+-- ARGV[1] 만료 시각 ms, ARGV[2] key TTL ms (sweeper 가 못 돌았을 때를 위한 여유 포함), ARGV[3..] roomIdx
+-- 결과: 기록한 방 수 (이미 지워진 방은 건너뛴다.)
+local touched = 0
+for i = 3, #ARGV do
+    local roomIdx = ARGV[i]
+    local roomKey = 'room:' .. roomIdx
+    if redis.call('EXISTS', roomKey) == 1 then
+        redis.call('ZADD', KEYS[1], ARGV[1], roomIdx)
+        redis.call('PEXPIRE', roomKey, ARGV[2])
+        redis.call('PEXPIRE', roomIdx, ARGV[2])
+        local members = redis.call('LRANGE', roomIdx, 0, -1)
+        for j = 1, #members do
+            redis.call('PEXPIRE', 'user:' .. members[j], ARGV[2])
+        end
+        touched = touched + 1
+    end
+end
+return touched
@@ -0,0 +1,94 @@
+package com.sevenight.coldcrayon.ngword.service;
+
+import com.sevenight.coldcrayon.ngword.repository.NgwordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 금지어 정규화, automaton, 원문 가리기를 확인합니다. (user-017)
+ * 1. 자모로 풀어 쓰거나, 받침을 따로 쓰거나, 전각/비슷하게 생긴 문자로 바꿔도 같은 문자열이 된다.
+ * 2. automaton 은 실패 링크로 다른 금지어 안에 들어 있는 금지어도 찾는다.
+ * 3. 찾은 구간은 원문 위치로 돌려서 가리고, 띄어쓰기와 금지어가 아닌 글자는 그대로 둔다.
+ */
+class NgwordFilterTest {
+
+    private Path wordFile;
+    private NgwordServiceImpl ngwordService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        wordFile = Files.createTempFile("ngword", ".txt");
+        Files.write(wordFile, List.of("# 주석", "바보", "noob"), StandardCharsets.UTF_8);
+        NgwordRepository repository = (NgwordRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{NgwordRepository.class}, (proxy, method, args) -> Collections.emptyList());
+        ngwordService = new NgwordServiceImpl(repository, wordFile.toUri().toString());
+        ngwordService.init();
+        // 다른 스레드에서 만드므로 다 만들어질 때까지 기다린다.
+        long until = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (ngwordService.getStats().getPatterns() == 0) {
+            assertThat(System.currentTimeMillis()).isLessThan(until);
+            Thread.sleep(10);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ngwordService.shutdown();
+        Files.deleteIfExists(wordFile);
+    }
+
+    @Test
+    void normalizesJamoBatchimAndLookAlikes() {
+        String babo = normalized("바보");
+        assertThat(normalized("ㅂㅏㅂㅗ")).isEqualTo(babo);
+        assertThat(normalized("바 보.")).isEqualTo(babo);
+        // zero-width space
+        assertThat(normalized("바\u200B보")).isEqualTo(babo);
+        // 받침은 같은 소리의 초성으로 바꾼다.
+        assertThat(normalized("바ㅂ")).isEqualTo(normalized("밥"));
+        assertThat(normalized("N00B")).isEqualTo("noob");
+        assertThat(normalized("Ｎｏｏｂ")).isEqualTo("noob");
+        // 키릴 문자 о
+        assertThat(normalized("nооb")).isEqualTo("noob");
+    }
+
+    @Test
+    void automatonFindsPatternInsideAnotherPattern() {
+        NgwordAutomaton automaton = NgwordAutomaton.build(List.of("abcd", "bc"));
+        char[] text = "xabce".toCharArray();
+
+        List<int[]> found = automaton.find(text, text.length);
+
+        assertThat(found).hasSize(1);
+        assertThat(found.get(0)).containsExactly(2, 3);
+        assertThat(automaton.find("abd".toCharArray(), 3)).isNull();
+    }
+
+    @Test
+    void masksOriginalCharacters() {
+        assertThat(ngwordService.filter("야 바보야")).isEqualTo("야 **야");
+        assertThat(ngwordService.filter("바 보")).isEqualTo("* *");
+        assertThat(ngwordService.filter("ㅂㅏㅂㅗ")).isEqualTo("****");
+        assertThat(ngwordService.filter("you N00B!")).isEqualTo("you ****!");
+        // 원문 위치는 UTF-16 기준이라 앞에 이모지(surrogate pair)가 있어도 어긋나지 않는다.
+        assertThat(ngwordService.filter("😀바보😀")).isEqualTo("😀**😀");
+
+        String clean = "그림 잘 그렸다";
+        assertThat(ngwordService.filter(clean)).isSameAs(clean);
+    }
+
+    private static String normalized(String text) {
+        return NgwordNormalizer.normalize(text).text();
+    }
+}
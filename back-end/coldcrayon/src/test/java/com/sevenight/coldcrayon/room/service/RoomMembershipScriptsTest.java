@@ -0,0 +1,276 @@
+package com.sevenight.coldcrayon.room.service;
+
+import com.sevenight.coldcrayon.game.entity.GameCategory;
+import com.sevenight.coldcrayon.room.dto.RoomRosterDto;
+import com.sevenight.coldcrayon.room.entity.RoomHash;
+import com.sevenight.coldcrayon.room.entity.RoomStatus;
+import com.sevenight.coldcrayon.room.entity.UserHash;
+import com.sevenight.coldcrayon.room.repository.RoomRepository;
+import com.sevenight.coldcrayon.room.repository.RoomRosterRepository;
+import com.sevenight.coldcrayon.room.repository.UserHashRepository;
+import com.sevenight.coldcrayon.socket.service.NodeIdentity;
+import com.sevenight.coldcrayon.socket.service.NodeRegistry;
+import com.sevenight.coldcrayon.util.RedisScripts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisKeyValueAdapter;
+import org.springframework.data.redis.core.RedisKeyValueTemplate;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.mapping.RedisMappingContext;
+import org.springframework.data.redis.repository.support.RedisRepositoryFactory;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 참여 스크립트를 embedded Redis 에 동시에 돌려서 최대 인원을 넘지 않는지 확인합니다. (user-021)
+ * 1. 6인 방에 여러 유저가 한꺼번에 들어오면 5명만 들어가고 나머지는 full 이다.
+ * 2. 스크립트 전에 읽은 방을 저장해도(메모리에 있는 방, 없는 방 모두) 현재 인원과 방장, 로비 목록은 되돌아가지 않는다.
+ * 3. Redis TTL 로 방 hash 만 사라져도 나가기, 만료 스크립트가 방 id set 과 로비 목록에 남은 id 를 지운다. (user-025)
+ */
+class RoomMembershipScriptsTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RoomMembershipScriptsTest.class);
+
+    private static final int ROOM_MAX = 6;
+    private static final int JOINERS = 30;
+    private static final Long ADMIN = 1L;
+
+    private RedisServer redisServer;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private NodeRegistry nodeRegistry;
+    private RoomStateCache roomStateCache;
+    private RoomMembershipScripts roomMembershipScripts;
+    private LobbyIndex lobbyIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new StringRedisSerializer());
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        RedisMappingContext mappingContext = new RedisMappingContext();
+        RedisKeyValueAdapter adapter = new RedisKeyValueAdapter(redisTemplate, mappingContext);
+        RedisRepositoryFactory repositoryFactory = new RedisRepositoryFactory(new RedisKeyValueTemplate(adapter, mappingContext));
+        nodeRegistry = new NodeRegistry(redisTemplate, new NodeIdentity("test-node"), "", 60000, 60000, 16);
+        roomStateCache = new RoomStateCache(repositoryFactory.getRepository(RoomRepository.class),
+                repositoryFactory.getRepository(UserHashRepository.class),
+                new RoomRosterRepository(redisTemplate, adapter.getConverter()),
+                redisTemplate, connectionFactory, adapter.getConverter(), nodeRegistry, 60000, "room-state:refresh");
+        roomMembershipScripts = new RoomMembershipScripts(redisTemplate);
+        lobbyIndex = new LobbyIndex(redisTemplate, roomStateCache, null, 60000, 50);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        lobbyIndex.shutdown();
+        roomStateCache.shutdown();
+        nodeRegistry.shutdown();
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @Test
+    void concurrentJoinsNeverOverfillTheRoom() throws Exception {
+        String roomIdx = createRoom("other-node");
+
+        List<RoomRosterDto> results = joinAll(roomIdx);
+
+        long joined = results.stream().filter(roster -> "joined".equals(roster.getReason())).count();
+        long full = results.stream().filter(roster -> "full".equals(roster.getReason())).count();
+        log.info("joiners = {}, joined = {}, full = {}", JOINERS, joined, full);
+        assertThat(joined).isEqualTo(ROOM_MAX - 1);
+        assertThat(full).isEqualTo(JOINERS - (ROOM_MAX - 1));
+        assertThat(redisTemplate.opsForList().size(roomIdx)).isEqualTo(ROOM_MAX);
+        assertThat(redisTemplate.opsForHash().get("room:" + roomIdx, "roomNow")).isEqualTo(String.valueOf(ROOM_MAX));
+        // 가득 찬 방은 로비에서 빠진다.
+        assertThat(redisTemplate.opsForZSet().score(LobbyIndex.OPEN_KEY, roomIdx)).isNull();
+    }
+
+    @Test
+    void staleSaveKeepsScriptFieldsOnOtherNode() throws Exception {
+        String roomIdx = createRoom("other-node");
+        RoomHash stale = roomStateCache.findRoom(roomIdx).orElseThrow();
+
+        joinAll(roomIdx);
+        String newAdmin = secondMember(roomIdx);
+        roomMembershipScripts.changeAdmin(roomIdx, ADMIN, Long.valueOf(newAdmin));
+        stale.setMaxRound(6);
+        roomStateCache.saveRoom(stale);
+        lobbyIndex.sync(stale);
+
+        assertScriptFieldsKept(roomIdx, newAdmin);
+        // 읽을 때는 자리가 있었지만 지금은 가득 찬 방이므로 로비에 다시 넣지 않는다.
+        assertThat(redisTemplate.opsForZSet().score(LobbyIndex.OPEN_KEY, roomIdx)).isNull();
+    }
+
+    @Test
+    void staleSaveKeepsScriptFieldsOnOwnerNode() throws Exception {
+        String roomIdx = createRoom(nodeRegistry.getNodeId());
+        RoomHash stale = roomStateCache.findRoom(roomIdx).orElseThrow();
+
+        // 메모리에 있는 방: 스크립트는 writeThrough 로 돌리고, 그 뒤 다시 읽은 방에 오래된 값을 저장한다.
+        roomStateCache.writeThrough(roomIdx, () -> {
+            try {
+                return joinAll(roomIdx);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        String newAdmin = secondMember(roomIdx);
+        roomStateCache.writeThrough(roomIdx, () -> roomMembershipScripts.changeAdmin(roomIdx, ADMIN, Long.valueOf(newAdmin)));
+        roomStateCache.findRoom(roomIdx);
+        stale.setMaxRound(6);
+        roomStateCache.saveRoom(stale);
+        assertThat(roomStateCache.findRoom(roomIdx).orElseThrow().getRoomNow()).isEqualTo(ROOM_MAX);
+        roomStateCache.evict(roomIdx);
+
+        assertScriptFieldsKept(roomIdx, newAdmin);
+    }
+
+    @Test
+    void saveDoesNotRecreateDeletedRoom() {
+        String roomIdx = createRoom("other-node");
+        RoomHash stale = roomStateCache.findRoom(roomIdx).orElseThrow();
+        redisTemplate.opsForZSet().add(RoomExpiryService.EXPIRY_KEY, roomIdx, System.currentTimeMillis());
+        roomMembershipScripts.leave(roomIdx, List.of(ADMIN));
+
+        roomStateCache.saveRoom(stale);
+
+        assertThat(redisTemplate.hasKey("room:" + roomIdx)).isFalse();
+        // 마지막 유저가 나가면서 지운 방은 만료 목록에서도 빠진다.
+        assertThat(redisTemplate.opsForZSet().score(RoomExpiryService.EXPIRY_KEY, roomIdx)).isNull();
+    }
+
+    @Test
+    void leaveForgetsRoomWhoseHashExpired() {
+        String roomIdx = createExpiredRoom();
+
+        RoomRosterDto result = roomMembershipScripts.leave(roomIdx, List.of(ADMIN));
+
+        assertThat(result.getReason()).isEqualTo("noRoom");
+        assertForgotten(roomIdx);
+    }
+
+    @Test
+    void sweepForgetsRoomWhoseHashExpired() {
+        String roomIdx = createExpiredRoom();
+
+        List<Object> args = new ArrayList<>();
+        args.add(roomIdx);
+        args.add(Long.toString(System.currentTimeMillis()));
+        args.addAll(LobbyIndex.openKeys());
+        List<Object> result = redisTemplate.execute(RedisScripts.list("redis/room-expire.lua", LobbyIndex.LOBBY_LUA),
+                List.of(RoomExpiryService.EXPIRY_KEY, "room", "user"), args.toArray());
+
+        assertThat(result).containsExactly("gone");
+        assertForgotten(roomIdx);
+        assertThat(redisTemplate.hasKey(roomIdx)).isFalse();
+        assertThat(redisTemplate.opsForSet().isMember("user", String.valueOf(ADMIN))).isFalse();
+    }
+
+    // 로비에 올라간 방의 hash 만 Redis TTL 로 사라진 상태
+    private String createExpiredRoom() {
+        String roomIdx = createRoom("other-node");
+        lobbyIndex.sync(roomStateCache.findRoom(roomIdx).orElseThrow());
+        redisTemplate.opsForZSet().add(RoomExpiryService.EXPIRY_KEY, roomIdx, System.currentTimeMillis() - 1);
+        redisTemplate.opsForSet().add("user", String.valueOf(ADMIN));
+        assertThat(redisTemplate.opsForZSet().score(LobbyIndex.OPEN_KEY, roomIdx)).isNotNull();
+        assertThat(redisTemplate.opsForSet().isMember("room", roomIdx)).isTrue();
+        redisTemplate.delete("room:" + roomIdx);
+        return roomIdx;
+    }
+
+    private void assertForgotten(String roomIdx) {
+        assertThat(redisTemplate.opsForSet().isMember("room", roomIdx)).isFalse();
+        for (String key : LobbyIndex.openKeys()) {
+            assertThat(redisTemplate.opsForZSet().score(key, roomIdx)).isNull();
+        }
+        assertThat(redisTemplate.opsForZSet().score(RoomExpiryService.EXPIRY_KEY, roomIdx)).isNull();
+    }
+
+    // 동시에 들어온 유저 중 누가 들어갔는지는 매번 다르므로 참여 목록에서 고른다.
+    private String secondMember(String roomIdx) {
+        return String.valueOf(redisTemplate.opsForList().index(roomIdx, 1));
+    }
+
+    private void assertScriptFieldsKept(String roomIdx, String admin) {
+        Map<Object, Object> room = redisTemplate.opsForHash().entries("room:" + roomIdx);
+        assertThat(room.get("roomNow")).isEqualTo(String.valueOf(ROOM_MAX));
+        assertThat(room.get("adminUserIdx")).isEqualTo(admin);
+        assertThat(room.get("maxRound")).isEqualTo("6");
+    }
+
+    private String createRoom(String ownerNode) {
+        String roomIdx = "room" + System.nanoTime();
+        roomStateCache.createRoom(RoomHash.builder()
+                .roomIdx(roomIdx)
+                .gameCategory(GameCategory.AiPainting)
+                .maxRound(4)
+                .roomStatus(RoomStatus.Ready)
+                .roomMax(ROOM_MAX)
+                .roomNow(1)
+                .adminUserIdx(ADMIN)
+                .roomCreateTime(LocalDateTime.now())
+                .correctUser(-1L)
+                .ownerNode(ownerNode)
+                .build());
+        redisTemplate.opsForList().rightPush(roomIdx, String.valueOf(ADMIN));
+        return roomIdx;
+    }
+
+    // 유저 JOINERS 명이 같은 순간에 참여 스크립트를 부른다.
+    private List<RoomRosterDto> joinAll(String roomIdx) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(JOINERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RoomRosterDto>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < JOINERS; i++) {
+                UserHash userHash = new UserHash();
+                userHash.setUserIdx(100L + i);
+                userHash.setRoomIdx(roomIdx);
+                userHash.setUserNickname("user" + i);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return roomMembershipScripts.join(userHash);
+                }));
+            }
+            start.countDown();
+            List<RoomRosterDto> results = new ArrayList<>();
+            for (Future<RoomRosterDto> future : futures) {
+                results.add(future.get(10, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
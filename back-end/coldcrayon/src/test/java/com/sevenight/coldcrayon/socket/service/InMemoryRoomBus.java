@@ -0,0 +1,104 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.sevenight.coldcrayon.socket.dto.RoomBusStatsDto;
+import com.sevenight.coldcrayon.socket.dto.RoomFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis 없이 같은 JVM 안의 여러 애플리케이션 컨텍스트를 노드처럼 연결합니다.
+ * 컨텍스트마다 인스턴스가 하나씩 생기고, 방 구독 정보는 static 으로 공유합니다.
+ * (테스트 전용: RoomBusMultiContextTest 가 socket.bus.type=memory 로 띄운 컨텍스트에서만 쓰인다.)
+ */
+@Service
+@ConditionalOnProperty(name = "socket.bus.type", havingValue = "memory")
+public class InMemoryRoomBus implements RoomBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryRoomBus.class);
+
+    // roomIdx, 구독중인 노드
+    private static final Map<String, Set<InMemoryRoomBus>> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile BiConsumer<String, RoomFrame> receiver = (roomIdx, frame) -> {
+    };
+
+    @Override
+    public void setReceiver(BiConsumer<String, RoomFrame> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void subscribe(String roomIdx) {
+        if (subscribed.add(roomIdx)) {
+            SUBSCRIBERS.computeIfAbsent(roomIdx, key -> ConcurrentHashMap.newKeySet()).add(this);
+        }
+    }
+
+    @Override
+    public void unsubscribe(String roomIdx) {
+        if (subscribed.remove(roomIdx)) {
+            SUBSCRIBERS.computeIfPresent(roomIdx, (key, nodes) -> {
+                nodes.remove(this);
+                return nodes.isEmpty() ? null : nodes;
+            });
+        }
+    }
+
+    @Override
+    public void publish(String roomIdx, RoomFrame frame) {
+        Set<InMemoryRoomBus> nodes = SUBSCRIBERS.get(roomIdx);
+        if (nodes == null) {
+            return;
+        }
+        for (InMemoryRoomBus node : nodes) {
+            if (node != this) {
+                published.incrementAndGet();
+                node.receive(roomIdx, frame);
+            }
+        }
+    }
+
+    private void receive(String roomIdx, RoomFrame frame) {
+        received.incrementAndGet();
+        try {
+            receiver.accept(roomIdx, frame);
+        } catch (RuntimeException e) {
+            log.error("방 메시지 전달 실패 roomIdx = {}, e = {}", roomIdx, e.toString());
+        }
+    }
+
+    @Override
+    public boolean isDistributed() {
+        return true;
+    }
+
+    @Override
+    public RoomBusStatsDto getStats() {
+        return RoomBusStatsDto.builder()
+                .type("memory")
+                .nodeId(Integer.toHexString(System.identityHashCode(this)))
+                .subscribedRooms(subscribed.size())
+                .published(published.get())
+                .received(received.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (String roomIdx : subscribed) {
+            unsubscribe(roomIdx);
+        }
+    }
+}
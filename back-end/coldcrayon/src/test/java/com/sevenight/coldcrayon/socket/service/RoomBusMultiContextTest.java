@@ -0,0 +1,210 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.*;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 JVM 안에 애플리케이션 컨텍스트 두 개를 노드처럼 띄우고 memory 버스로 방 메시지가 건너가는지 확인합니다. (user-008)
+ * Redis, DB 없이 RoomBroadcaster 와 RoomBus 구현만 올립니다.
+ */
+class RoomBusMultiContextTest {
+
+    private static final String ROOM_IDX = "1";
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        contexts.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void defaultBusIsLocal() {
+        YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+        yaml.setResources(new ClassPathResource("application.yml"));
+        assertThat(yaml.getObject().getProperty("socket.bus.type")).isEqualTo("local");
+
+        ConfigurableApplicationContext node = start();
+        assertThat(node.getBean(RoomBus.class)).isInstanceOf(LocalRoomBus.class);
+    }
+
+    @Test
+    void roomBroadcastReachesOtherContext() throws Exception {
+        ConfigurableApplicationContext nodeA = start("--socket.bus.type=memory");
+        ConfigurableApplicationContext nodeB = start("--socket.bus.type=memory");
+        assertThat(nodeA.getBean(RoomBus.class)).isInstanceOf(InMemoryRoomBus.class);
+
+        RecordingSession sessionA = new RecordingSession("a");
+        RecordingSession sessionB = new RecordingSession("b");
+        nodeA.getBean(RoomBroadcaster.class).join(ROOM_IDX, sessionA);
+        nodeB.getBean(RoomBroadcaster.class).join(ROOM_IDX, sessionB);
+
+        // A 노드에서 보낸 메시지는 A 세션에는 직접, B 세션에는 버스를 거쳐 간다.
+        nodeA.getBean(RoomBroadcaster.class).broadcast(ROOM_IDX, new TextMessage("{\"type\":\"chat\",\"message\":\"hi\"}"));
+        assertThat(sessionA.next()).contains("\"message\":\"hi\"");
+        assertThat(sessionB.next()).contains("\"message\":\"hi\"");
+
+        // 반대 방향도 한 번만 간다.
+        nodeB.getBean(RoomBroadcaster.class).broadcast(ROOM_IDX, new TextMessage("{\"type\":\"chat\",\"message\":\"back\"}"));
+        assertThat(sessionA.next()).contains("\"message\":\"back\"");
+        assertThat(sessionB.next()).contains("\"message\":\"back\"");
+        assertThat(sessionA.received).isEmpty();
+        assertThat(sessionB.received).isEmpty();
+    }
+
+    @Test
+    void leavingNodeStopsReceiving() throws Exception {
+        ConfigurableApplicationContext nodeA = start("--socket.bus.type=memory");
+        ConfigurableApplicationContext nodeB = start("--socket.bus.type=memory");
+
+        RecordingSession sessionA = new RecordingSession("a");
+        RecordingSession sessionB = new RecordingSession("b");
+        nodeA.getBean(RoomBroadcaster.class).join(ROOM_IDX, sessionA);
+        nodeB.getBean(RoomBroadcaster.class).join(ROOM_IDX, sessionB);
+        nodeB.getBean(RoomBroadcaster.class).leave(ROOM_IDX, sessionB);
+
+        nodeA.getBean(RoomBroadcaster.class).broadcast(ROOM_IDX, new TextMessage("{\"type\":\"chat\",\"message\":\"hi\"}"));
+        assertThat(sessionA.next()).contains("\"message\":\"hi\"");
+        assertThat(sessionB.received.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(nodeB.getBean(RoomBus.class).getStats().getReceived()).isZero();
+    }
+
+    // application.yml 은 읽지 않는다. (프로필 설정과 상관없이 버스 종류만 인자로 정한다.)
+    private ConfigurableApplicationContext start(String... args) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BusNode.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.config.location=optional:classpath:/no-config/", "spring.main.banner-mode=off")
+                .run(args);
+        contexts.add(context);
+        return context;
+    }
+
+    @Configuration
+    @Import({RoomBroadcaster.class, LocalRoomBus.class, InMemoryRoomBus.class})
+    static class BusNode {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    // 받은 메시지를 쌓아 두는 세션
+    static class RecordingSession implements WebSocketSession {
+
+        private final String id;
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        private final BlockingQueue<String> received = new LinkedBlockingQueue<>();
+
+        RecordingSession(String id) {
+            this.id = id;
+        }
+
+        String next() throws InterruptedException {
+            return received.poll(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return URI.create("ws://localhost/api/" + ROOM_IDX);
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return 0;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            received.add(String.valueOf(message.getPayload()));
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+        }
+    }
+}
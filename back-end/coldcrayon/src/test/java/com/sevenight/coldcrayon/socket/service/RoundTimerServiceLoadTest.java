@@ -0,0 +1,77 @@
+package com.sevenight.coldcrayon.socket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sevenight.coldcrayon.socket.entity.OverflowPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 방 수를 늘려도 라운드 카운트다운 스레드가 늘지 않는지 확인합니다. (user-005)
+ * 방마다 카운트다운을 걸어 두고 단계마다 살아 있는 스레드 수를 잽니다.
+ */
+class RoundTimerServiceLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RoundTimerServiceLoadTest.class);
+
+    private static final int[] ROOM_STEPS = {10, 100, 1000, 10000};
+    // 타이머 휠 스레드 하나 + 측정 오차 (JVM 이 따로 띄우는 스레드)
+    private static final int THREAD_SLACK = 3;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private RoomBroadcaster roomBroadcaster;
+    private RoundTimerService roundTimerService;
+
+    @BeforeEach
+    void setUp() {
+        roomBroadcaster = new RoomBroadcaster(new ObjectMapper(), new LocalRoomBus(), 256, OverflowPolicy.COALESCE, 4, 5000, 512);
+        roundTimerService = new RoundTimerService(roomBroadcaster, 100, 512);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roundTimerService.shutdown();
+        roomBroadcaster.shutdown();
+    }
+
+    @Test
+    void threadCountStaysFlatAsRoomsGrow() {
+        int baseline = threads.getThreadCount();
+        int started = 0;
+        for (int rooms : ROOM_STEPS) {
+            for (; started < rooms; started++) {
+                roundTimerService.startCountdown(String.valueOf(started), 60, () -> {
+                });
+            }
+            int live = threads.getThreadCount();
+            log.info("rooms = {}, activeCountdowns = {}, threads = {} (baseline {})",
+                    rooms, roundTimerService.getStats().getActiveCountdowns(), live, baseline);
+            assertThat(roundTimerService.getStats().getActiveCountdowns()).isEqualTo(rooms);
+            assertThat(live).isLessThanOrEqualTo(baseline + THREAD_SLACK);
+        }
+
+        for (int room = 0; room < started; room++) {
+            roundTimerService.cancel(String.valueOf(room));
+        }
+        assertThat(roundTimerService.getStats().getActiveCountdowns()).isZero();
+        assertThat(threads.getThreadCount()).isLessThanOrEqualTo(baseline + THREAD_SLACK);
+    }
+
+    @Test
+    void restartingCountdownReplacesPrevious() {
+        int baseline = threads.getThreadCount();
+        for (int round = 0; round < 1000; round++) {
+            roundTimerService.startCountdown("1", 60, () -> {
+            });
+        }
+        assertThat(roundTimerService.getStats().getActiveCountdowns()).isEqualTo(1);
+        assertThat(threads.getThreadCount()).isLessThanOrEqualTo(baseline + THREAD_SLACK);
+    }
+}
@@ -21,7 +21,6 @@ export default function AiPaintingGuess({ socket }: { socket: WebSocket }) {
     answers: { savedAnswers, inputedAnswers },
     gameDatas: { aiImages },
     userInfo: { userIdx, userNickname },
-    roomInfo: { adminUserIdx },
   } = useAppSelector((state) => state);
   const dispatch = useAppDispatch();
 
@@ -51,20 +50,18 @@ export default function AiPaintingGuess({ socket }: { socket: WebSocket }) {
   useEffect(() => {
     if (savedAnswers.length === 0) return;
     if (savedAnswers.length === inputedAnswers.length) {
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       setAnswerInputValue('');
       dispatch(endRound());
     }
-  }, [savedAnswers, inputedAnswers, dispatch, socket, userIdx, adminUserIdx]);
+  }, [savedAnswers, inputedAnswers, dispatch]);
 
   // 시간 초과
   useEffect(() => {
     if (leftTime === 0) {
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       setAnswerInputValue('');
       dispatch(endRound());
     }
-  }, [leftTime, dispatch, socket, userIdx, adminUserIdx]);
+  }, [leftTime, dispatch]);
 
   if (aiImages.length === 0) {
     return <Loading />;
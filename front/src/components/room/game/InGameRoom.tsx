@@ -1,4 +1,4 @@
-import React, { useEffect } from 'react';
+import React, { useCallback, useEffect, useRef } from 'react';
 
 import tw from 'tailwind-styled-components';
 
@@ -47,6 +47,34 @@ export default function InGameRoom({
   } = useAppSelector((state) => state);
   const dispatch = useAppDispatch();
 
+  // 서버 시계 - 내 시계 (ms), 왕복 시간이 가장 짧았던 측정값을 쓴다.
+  const clockOffset = useRef(0);
+  const bestRtt = useRef(Infinity);
+  // 남은 시간 계산용 interval
+  const countdown = useRef<ReturnType<typeof setInterval> | null>(null);
+
+  const stopCountdown = useCallback(() => {
+    if (countdown.current !== null) {
+      clearInterval(countdown.current);
+      countdown.current = null;
+    }
+  }, []);
+
+  // 시계 맞추기: 몇 번 보내서 가장 빠른 응답을 기준으로 삼는다.
+  useEffect(() => {
+    const pings = [0, 500, 1000].map((delay) =>
+      setTimeout(() => {
+        if (socket.readyState === WebSocket.OPEN) {
+          sendMessage(socket, 'clockSync', { clientTime: Date.now() });
+        }
+      }, delay),
+    );
+    return () => {
+      pings.forEach(clearTimeout);
+      stopCountdown();
+    };
+  }, [socket, stopCountdown]);
+
   useEffect(() => {
     dispatch(setTotalRound(maxRound));
   }, [dispatch, maxRound]);
@@ -70,9 +98,37 @@ export default function InGameRoom({
         return;
       }
 
-      // 시간
+      // 시계 맞추기 응답
+      if (data.type === 'clockSync') {
+        const { clientTime, serverTime } = data;
+        const rtt = Date.now() - clientTime;
+        if (rtt >= 0 && rtt < bestRtt.current) {
+          bestRtt.current = rtt;
+          clockOffset.current = serverTime + rtt / 2 - Date.now();
+        }
+        return;
+      }
+
+      // 라운드 마감 시각: 남은 시간은 직접 계산한다.
+      // duration은 연장한 시간까지 더한 전체 시간이라 표시 시작 전 1초만 잘린다.
+      if (data.type === 'roundDeadline') {
+        const { deadline, duration } = data;
+        const tick = () => {
+          const serverNow = Date.now() + clockOffset.current;
+          const left = Math.ceil((deadline - serverNow) / 1000);
+          dispatch(changeTime(Math.min(duration, Math.max(0, left))));
+          if (left <= 0) stopCountdown();
+        };
+        stopCountdown();
+        tick();
+        countdown.current = setInterval(tick, 250);
+        return;
+      }
+
+      // 시간 (일시 정지, 취소 때만 온다)
       if (data.type === 'timeStart') {
         const { message } = data;
+        stopCountdown();
         dispatch(changeTime(message));
         return;
       }
@@ -80,6 +136,7 @@ export default function InGameRoom({
       // 라운드 종료
       if (data.type === 'roundOver') {
         const { winnerUserIdx, userList } = data;
+        stopCountdown();
         dispatch(setWinner(winnerUserIdx));
         dispatch(setGameUsers(userList));
         dispatch(openIsScoreCheckModalOpened());
@@ -118,7 +175,15 @@ export default function InGameRoom({
     return () => {
       removeEvent(socket, messageHandler);
     };
-  }, [dispatch, socket, inputedAnswers, savedAnswers, userIdx, adminUserIdx]);
+  }, [
+    dispatch,
+    socket,
+    inputedAnswers,
+    savedAnswers,
+    userIdx,
+    adminUserIdx,
+    stopCountdown,
+  ]);
 
   // 시작
   useEffect(() => {
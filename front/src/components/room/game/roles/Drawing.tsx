@@ -28,8 +28,7 @@ export default function Drawing({ socket }: { socket: WebSocket }) {
   const {
     leftTime,
     answers: { savedAnswers, inputedAnswers },
-    userInfo: { userIdx },
-    roomInfo: { adminUserIdx, roomIdx },
+    roomInfo: { roomIdx },
     gameRound: { isRoundStarted },
   } = useAppSelector((state) => state);
   const dispatch = useAppDispatch();
@@ -263,7 +262,6 @@ export default function Drawing({ socket }: { socket: WebSocket }) {
       formData.append('img', dataUrl);
       await gameAPI.postCanvasImage(formData);
       clearCanvas();
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       dispatch(endRound());
     };
 
@@ -274,10 +272,7 @@ export default function Drawing({ socket }: { socket: WebSocket }) {
     savedAnswers,
     inputedAnswers,
     dispatch,
-    socket,
     clearCanvas,
-    userIdx,
-    adminUserIdx,
   ]);
 
   // 시간 초과
@@ -291,21 +286,11 @@ export default function Drawing({ socket }: { socket: WebSocket }) {
       formData.append('img', dataUrl);
       await gameAPI.postCanvasImage(formData);
       clearCanvas();
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       dispatch(endRound());
     };
 
     saveDrawImage();
-  }, [
-    roomIdx,
-    leftTime,
-    dispatch,
-    socket,
-    clearCanvas,
-    userIdx,
-    adminUserIdx,
-    isRoundStarted,
-  ]);
+  }, [roomIdx, leftTime, dispatch, clearCanvas, isRoundStarted]);
 
   return (
     <>
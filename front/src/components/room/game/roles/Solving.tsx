@@ -41,7 +41,6 @@ export default function Solving({
     gameDatas: { selectedUserIdx },
     gameUsers,
     leftTime,
-    roomInfo: { adminUserIdx },
   } = useAppSelector((state) => state);
   const dispatch = useAppDispatch();
 
@@ -239,9 +238,7 @@ export default function Solving({
 
   // 소켓 메시지 수신
   useEffect(() => {
-    const messageHandler = (event: MessageEvent) => {
-      const data = JSON.parse(event.data);
-      if (data.type !== 'draw') return;
+    const drawHandler = (data: any) => {
       switch (data.action) {
         // 비율 저장
         case 'saveRatio':
@@ -298,6 +295,16 @@ export default function Solving({
           return;
       }
     };
+    const messageHandler = (event: MessageEvent) => {
+      const data = JSON.parse(event.data);
+      // 서버가 일정 주기로 묶어서 보낸 그리기 이벤트
+      if (data.type === 'drawBatch') {
+        data.events.forEach(drawHandler);
+        return;
+      }
+      if (data.type !== 'draw') return;
+      drawHandler(data);
+    };
     listenEvent(socket, messageHandler);
 
     return () => {
@@ -351,30 +358,19 @@ export default function Solving({
     if (savedAnswers.length === 0) return;
     if (savedAnswers.length === inputedAnswers.length) {
       clearCanvas();
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       setAnswerInputValue('');
       dispatch(endRound());
     }
-  }, [
-    savedAnswers,
-    inputedAnswers,
-    dispatch,
-    socket,
-    ctx,
-    clearCanvas,
-    userIdx,
-    adminUserIdx,
-  ]);
+  }, [savedAnswers, inputedAnswers, dispatch, ctx, clearCanvas]);
 
   // 시간 초과
   useEffect(() => {
     if (leftTime === 0) {
       clearCanvas();
-      if (userIdx === adminUserIdx) sendMessage(socket, 'roundOver');
       setAnswerInputValue('');
       dispatch(endRound());
     }
-  }, [leftTime, dispatch, socket, ctx, clearCanvas, userIdx, adminUserIdx]);
+  }, [leftTime, dispatch, ctx, clearCanvas]);
 
   return (
     <>
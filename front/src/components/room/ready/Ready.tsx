@@ -6,11 +6,21 @@ import Chat from './more/Chat';
 import ReadyBtn from './more/ReadyBtn';
 import tw from 'tailwind-styled-components';
 import { useAppDispatch, useAppSelector } from '@/store/thunkhook';
-import { setRoomInfo } from '@/store/slice/game/gameRoomInfo';
+import { mergeRoomInfo, setRoomInfo } from '@/store/slice/game/gameRoomInfo';
 import { getCookie } from 'cookies-next';
 import { sendMessage } from '@/socket/messageSend';
 import { listenEvent, removeEvent } from '@/socket/socketEvent';
-import { setGameUsers } from '@/store/slice/game/gameUsersSlice';
+import { isResuming, markClosing, resetResume } from '@/socket/socketResume';
+import { openUserSocket } from '@/socket/userSocket';
+import {
+  applyGameUsersDiff,
+  setGameUsers,
+} from '@/store/slice/game/gameUsersSlice';
+import {
+  acceptRoomDiff,
+  resetRoomDiff,
+  setRoomVersion,
+} from '@/socket/roomDiff';
 
 interface RoomPropsType {
   socket: WebSocket | null;
@@ -35,19 +45,21 @@ export default function Ready({ socket, setSocket }: RoomPropsType) {
   /** 게시물 번호 */
   const [boardId, setBoardId] = useState<number | null>(null);
 
+  /** 방만 나가고 소켓은 다음 방에서 다시 쓴다 */
   const closeSocket = () => {
     if (socket) {
-      socket.close();
+      markClosing();
+      sendMessage(socket, 'unsubscribe', { channel: 'room' });
     }
   };
 
   useEffect(() => {
     if (socket) return;
     if (roomIdx !== null) {
-      const newSocket = new WebSocket(
-        `wss://getyourcrayon.co.kr/api/${roomIdx}`,
-      );
-      setSocket(newSocket);
+      resetResume();
+      resetRoomDiff();
+      /** 유저당 연결 하나: 이전 방에서 쓰던 소켓이 있으면 그대로 쓰고, 방은 subscribe로 들어간다 */
+      setSocket(openUserSocket());
     }
   }, [roomIdx, setSocket, socket]);
 
@@ -59,20 +71,41 @@ export default function Ready({ socket, setSocket }: RoomPropsType) {
       const roomInHandler = (event: MessageEvent) => {
         const data = JSON.parse(event.data);
         if (data.type !== 'userIn') return;
+        setRoomVersion(data.version);
         dispatch(setGameUsers(data.userList));
         dispatch(setRoomInfo(data.roomInfo));
       };
 
+      /** 바뀐 방 정보만 받는다 (version이 비면 전체 상태를 다시 요청) */
+      const roomDiffHandler = (event: MessageEvent) => {
+        const data = JSON.parse(event.data);
+        if (data.type !== 'roomDiff') return;
+        const gap = () => sendMessage(socket, 'roomSnapshot');
+        if (!acceptRoomDiff(data.version, gap)) return;
+        dispatch(mergeRoomInfo(data.roomInfo));
+        dispatch(
+          applyGameUsersDiff({
+            added: data.added,
+            updated: data.updated,
+            removed: data.removed,
+          }),
+        );
+      };
+
       const messageHandler = (event: MessageEvent) => {
         const data = JSON.parse(event.data);
         if (data.type !== 'chat') return;
         setMessageList((prev) => [...prev, data]);
       };
 
-      listenEvent(socket, roomInHandler);
-      listenEvent(socket, messageHandler);
-
-      socket.onopen = () => {
+      /** 방 구독이 끝나면 입장한다 (이어서 접속했으면 이미 방에 있다) */
+      let joinAfterSubscribe = !isResuming();
+      const subscribedHandler = (event: MessageEvent) => {
+        const data = JSON.parse(event.data);
+        if (data.type !== 'subscribed' || data.channel !== 'room') return;
+        if (data.status !== 'success') return;
+        if (!joinAfterSubscribe) return;
+        joinAfterSubscribe = false;
         sendMessage(socket, 'userIn', { authorization: token });
         sendMessage(socket, 'chat', {
           author: 'admin',
@@ -81,8 +114,15 @@ export default function Ready({ socket, setSocket }: RoomPropsType) {
         });
       };
 
+      listenEvent(socket, roomInHandler);
+      listenEvent(socket, roomDiffHandler);
+      listenEvent(socket, subscribedHandler);
+      listenEvent(socket, messageHandler);
+
       return () => {
         removeEvent(socket, roomInHandler);
+        removeEvent(socket, roomDiffHandler);
+        removeEvent(socket, subscribedHandler);
         removeEvent(socket, messageHandler);
       };
     }
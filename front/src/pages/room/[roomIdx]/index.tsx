@@ -16,8 +16,21 @@ import { setLogin } from '@/store/slice/loginSlice';
 import { setUser } from '@/store/slice/userSlice';
 import { changeStatus } from '@/store/slice/game/roomStatusSlice';
 import { listenEvent, removeEvent } from '@/socket/socketEvent';
+import { sendMessage } from '@/socket/messageSend';
+import {
+  finishResume,
+  markClosing,
+  reconnect,
+  resumeParams,
+  trackResume,
+} from '@/socket/socketResume';
+import { replaceUserSocket } from '@/socket/userSocket';
 import { resetRound } from '@/store/slice/game/gameRoundSlice';
 import Loading from '@/components/ui/Loading';
+import Swal from 'sweetalert2';
+
+/** 서버가 같은 유저의 이전 연결을 닫을 때 쓰는 코드 (ChannelRegistry.REPLACED) */
+const REPLACED_CODE = 4001;
 
 export default function Room({
   roomIdx,
@@ -67,6 +80,63 @@ export default function Room({
     };
   }, [socket, dispatch]);
 
+  /** 소켓이 끊기면 재접속 토큰으로 다시 접속해서 빠진 메시지만 받는다 */
+  useEffect(() => {
+    if (!socket) return;
+
+    /** 연결될 때마다 방을 구독한다 (게임 중에 다시 접속해도 구독하도록 방 화면에서 보낸다) */
+    const openHandler = () => {
+      sendMessage(socket, 'subscribe', {
+        channel: 'room',
+        roomIdx,
+        ...resumeParams(),
+      });
+    };
+
+    const resumeHandler = (event: MessageEvent) => {
+      if (typeof event.data !== 'string') return;
+      const data = JSON.parse(event.data);
+      trackResume(data);
+      if (data.type !== 'resume') return;
+      finishResume();
+      if (data.status !== 'success') {
+        // 이어 붙이지 못했으면 새로 입장한다.
+        sendMessage(socket, 'userIn', {
+          authorization: getCookie('accesstoken'),
+        });
+      }
+    };
+
+    const closeHandler = (event: CloseEvent) => {
+      if (event.code === REPLACED_CODE) {
+        // 같은 계정의 새 연결(다른 탭)이 이 연결을 대신했다. 다시 접속하면 서로 끊으므로 멈춘다.
+        markClosing();
+        Swal.fire({
+          text: '다른 창에서 접속해서 이 창의 연결을 끊었습니다.',
+        });
+        return;
+      }
+      setTimeout(() => {
+        const newSocket = reconnect(socket);
+        if (!newSocket) return;
+        replaceUserSocket(newSocket);
+        setSocket(newSocket);
+      }, 1000);
+    };
+
+    listenEvent(socket, resumeHandler);
+    socket.addEventListener('open', openHandler);
+    socket.addEventListener('close', closeHandler);
+    // 이전 방에서 쓰던 소켓은 이미 열려 있어서 open 이벤트가 오지 않는다.
+    if (socket.readyState === WebSocket.OPEN) openHandler();
+
+    return () => {
+      removeEvent(socket, resumeHandler);
+      socket.removeEventListener('open', openHandler);
+      socket.removeEventListener('close', closeHandler);
+    };
+  }, [socket, roomIdx]);
+
   switch (roomStatus) {
     case 'ready':
       return <Ready socket={socket} setSocket={setSocket} />;
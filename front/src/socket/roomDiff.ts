@@ -0,0 +1,33 @@
+/** 방 정보 version
+ *
+ * 서버는 전체 상태(userIn)에 version을 붙여 보내고, 이후에는 바뀐 것만 roomDiff로 보낸다.
+ *
+ * 받은 roomDiff의 version이 이어지지 않으면 전체 상태(roomSnapshot)를 다시 요청한다.
+ */
+const roomDiffState = {
+  version: -1,
+};
+
+/** 새 방에 들어갈 때 */
+export const resetRoomDiff = () => {
+  roomDiffState.version = -1;
+};
+
+/** 전체 상태를 받았을 때 */
+export const setRoomVersion = (version: number | undefined) => {
+  if (typeof version === 'number') roomDiffState.version = version;
+};
+
+/** roomDiff를 적용할 수 있으면 true (이미 반영한 version이면 false)
+ *
+ * gap: version이 비어서 전체 상태를 다시 받아야 할 때 호출
+ */
+export const acceptRoomDiff = (version: number, gap: () => void) => {
+  if (version <= roomDiffState.version) return false;
+  if (roomDiffState.version === -1 || version !== roomDiffState.version + 1) {
+    gap();
+    return false;
+  }
+  roomDiffState.version = version;
+  return true;
+};
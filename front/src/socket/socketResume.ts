@@ -0,0 +1,66 @@
+/** 끊긴 소켓을 이어 붙이기 위한 정보
+ *
+ * token: 서버가 접속할 때 보내준 재접속 토큰
+ *
+ * lastSeq: 마지막으로 받은 방 메시지 번호
+ *
+ * closing: 직접 닫은 소켓이면 다시 접속하지 않는다
+ *
+ * resuming: 이어서 접속하는 중이면 userIn을 다시 보내지 않는다
+ */
+const resumeState = {
+  token: null as string | null,
+  lastSeq: 0,
+  closing: false,
+  resuming: false,
+};
+
+/** 새 방에 들어갈 때 이전 방의 정보를 지운다 */
+export const resetResume = () => {
+  resumeState.token = null;
+  resumeState.lastSeq = 0;
+  resumeState.closing = false;
+  resumeState.resuming = false;
+};
+
+/** 받은 메시지에서 재접속 토큰과 seq를 기록 */
+export const trackResume = (data: any) => {
+  if (data.type === 'session') {
+    resumeState.token = data.resumeToken;
+    resumeState.lastSeq = data.seq;
+    return;
+  }
+  if (typeof data.seq === 'number' && data.seq > resumeState.lastSeq) {
+    resumeState.lastSeq = data.seq;
+  }
+};
+
+/** 방을 나가면서 소켓을 닫을 때 호출 */
+export const markClosing = () => {
+  resumeState.closing = true;
+};
+
+export const isResuming = () => resumeState.resuming;
+
+/** 이어서 접속한 결과를 받으면 호출 */
+export const finishResume = () => {
+  resumeState.resuming = false;
+};
+
+/** 방을 구독할 때 같이 보낼 재접속 정보 (이어서 접속하는 중이 아니면 빈 객체) */
+export const resumeParams = () => {
+  if (!resumeState.resuming || resumeState.token === null) return {};
+  return { resume: resumeState.token, lastSeq: String(resumeState.lastSeq) };
+};
+
+/** 끊긴 소켓과 같은 주소로 다시 접속 (다시 접속하지 않을 때는 null)
+ *
+ * 재접속 토큰과 lastSeq는 주소가 아니라 방을 다시 구독할 때 resumeParams()로 보낸다
+ *
+ * closed: 끊긴 소켓
+ */
+export const reconnect = (closed: WebSocket) => {
+  if (resumeState.closing || resumeState.token === null) return null;
+  resumeState.resuming = true;
+  return new WebSocket(closed.url);
+};
@@ -0,0 +1,34 @@
+import { getCookie } from 'cookies-next';
+
+/** 유저당 하나만 여는 소켓
+ *
+ * 방 화면이 바뀌어도 소켓은 닫지 않고, 방은 subscribe/unsubscribe로만 바꾼다
+ *
+ * 그래서 방을 옮길 때마다 새로 연결(upgrade)하지 않는다
+ */
+let userSocket: WebSocket | null = null;
+
+/** 열려 있거나 연결 중인 소켓이 있으면 그대로 쓰고, 없으면 새로 연결 */
+export const openUserSocket = () => {
+  if (
+    userSocket &&
+    (userSocket.readyState === WebSocket.OPEN ||
+      userSocket.readyState === WebSocket.CONNECTING)
+  ) {
+    return userSocket;
+  }
+  /** 서버는 연결할 때 한 번만 인증한다 (쿠키가 안 가는 환경을 위해 쿼리로도 보낸다) */
+  const token = encodeURIComponent(String(getCookie('accesstoken') ?? ''));
+  userSocket = new WebSocket(
+    `wss://getyourcrayon.co.kr/api/ws?token=${token}`,
+  );
+  return userSocket;
+};
+
+/** 끊긴 소켓 대신 다시 접속한 소켓을 쓰게 한다
+ *
+ * socket: 다시 접속한 소켓
+ */
+export const replaceUserSocket = (socket: WebSocket) => {
+  userSocket = socket;
+};
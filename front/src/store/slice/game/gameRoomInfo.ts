@@ -35,9 +35,16 @@ const gameInfoSlice = createSlice({
     setRoomInfo: (state: RoomInfotype, action: PayloadAction<RoomInfotype>) => {
       return action.payload;
     },
+    /** 바뀐 필드만 반영 (roomDiff) */
+    mergeRoomInfo: (
+      state: RoomInfotype,
+      action: PayloadAction<Partial<RoomInfotype>>,
+    ) => {
+      return { ...state, ...action.payload };
+    },
   },
 });
 
-export const { setRoomInfo } = gameInfoSlice.actions;
+export const { setRoomInfo, mergeRoomInfo } = gameInfoSlice.actions;
 
 export default gameInfoSlice;
@@ -18,8 +18,26 @@ const gameUsersSlice = createSlice({
     setGameUsers(state, action: PayloadAction<GameUserType[]>) {
       return action.payload;
     },
+    /** 바뀐 유저만 반영 (roomDiff) */
+    applyGameUsersDiff(
+      state,
+      action: PayloadAction<{
+        added: GameUserType[];
+        updated: GameUserType[];
+        removed: number[];
+      }>,
+    ) {
+      const { added, updated, removed } = action.payload;
+      const next = state.filter((user) => !removed.includes(user.userIdx));
+      [...added, ...updated].forEach((changed) => {
+        const idx = next.findIndex((user) => user.userIdx === changed.userIdx);
+        if (idx === -1) next.push(changed);
+        else next[idx] = changed;
+      });
+      return next;
+    },
   },
 });
 
-export const { setGameUsers } = gameUsersSlice.actions;
+export const { setGameUsers, applyGameUsersDiff } = gameUsersSlice.actions;
 export default gameUsersSlice.reducer;